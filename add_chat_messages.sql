@@ -0,0 +1,17 @@
+-- Room chat history
+-- Run this in Supabase SQL Editor BEFORE deploying the backend that uses it
+
+-- Ids are handed out 50 at a time by the backend so chat batches insert in JDBC batches
+CREATE SEQUENCE IF NOT EXISTS chat_messages_id_seq INCREMENT BY 50;
+
+-- No foreign key to rooms: messages are kept after their room expires
+CREATE TABLE IF NOT EXISTS chat_messages (
+    id BIGINT PRIMARY KEY DEFAULT nextval('chat_messages_id_seq'),
+    room_id VARCHAR(6) NOT NULL,
+    sender_id VARCHAR(255),
+    sender_name VARCHAR(50),
+    content TEXT NOT NULL,
+    sent_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_chat_messages_room ON chat_messages (room_id, sent_at);
@@ -0,0 +1,21 @@
+-- Content-addressed submission source storage
+-- Run this in Supabase SQL Editor BEFORE deploying the backend that uses code_blobs
+
+-- Step 1: One deflate-compressed row per distinct source (SHA-256, hex)
+CREATE TABLE IF NOT EXISTS code_blobs (
+    hash VARCHAR(64) PRIMARY KEY,
+    data BYTEA NOT NULL,
+    size INTEGER NOT NULL,
+    created_at TIMESTAMP WITHOUT TIME ZONE NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+-- Step 2: Submissions reference their source by hash
+ALTER TABLE submissions ADD COLUMN IF NOT EXISTS code_hash VARCHAR(64);
+
+-- Step 3: Inline code becomes optional; the backend moves existing rows into
+-- code_blobs in batches and clears the column as it goes
+ALTER TABLE submissions ALTER COLUMN code DROP NOT NULL;
+
+-- Step 4 (later): once this returns 0, the inline column can be dropped
+SELECT COUNT(*) FROM submissions WHERE code IS NOT NULL;
+-- ALTER TABLE submissions DROP COLUMN code;
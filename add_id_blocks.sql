@@ -0,0 +1,11 @@
+-- Shared counter for room code allocation
+-- Run this in Supabase SQL Editor BEFORE deploying the backend that uses it
+
+CREATE TABLE IF NOT EXISTS id_blocks (
+    name VARCHAR(50) PRIMARY KEY,
+    next_value BIGINT NOT NULL DEFAULT 0,
+    version BIGINT
+);
+
+INSERT INTO id_blocks (name, next_value, version) VALUES ('room_id', 0, 0)
+ON CONFLICT (name) DO NOTHING;
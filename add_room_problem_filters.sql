@@ -0,0 +1,6 @@
+-- Problem filters for RANDOM rooms (difficulty, tag, unsolved by participants)
+-- Run this in Supabase SQL Editor BEFORE deploying the backend that uses them
+
+ALTER TABLE rooms ADD COLUMN IF NOT EXISTS problem_difficulty VARCHAR(20);
+ALTER TABLE rooms ADD COLUMN IF NOT EXISTS problem_tag VARCHAR(50);
+ALTER TABLE rooms ADD COLUMN IF NOT EXISTS unsolved_only BOOLEAN NOT NULL DEFAULT FALSE;
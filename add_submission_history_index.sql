@@ -0,0 +1,6 @@
+-- Submission history keyset pagination
+-- Run this in Supabase SQL Editor
+-- Serves GET /api/submissions/user/{userId}?before=<submittedAt,id> as an index range scan
+
+CREATE INDEX IF NOT EXISTS idx_submissions_user_submitted
+ON submissions (user_id, submitted_at DESC, id DESC);
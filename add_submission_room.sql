@@ -0,0 +1,4 @@
+-- Room-aware submissions (live room scoreboard)
+-- Run this in Supabase SQL Editor BEFORE deploying the backend that uses it
+
+ALTER TABLE submissions ADD COLUMN IF NOT EXISTS room_id VARCHAR(6);
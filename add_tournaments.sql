@@ -0,0 +1,49 @@
+-- Tournaments (bulk-provisioned rounds of private rooms)
+-- Run this in Supabase SQL Editor BEFORE deploying the backend that uses it
+
+CREATE TABLE IF NOT EXISTS tournaments (
+    id BIGSERIAL PRIMARY KEY,
+    name VARCHAR(100) NOT NULL,
+    created_by VARCHAR(255) NOT NULL,
+    room_size INTEGER NOT NULL DEFAULT 4,
+    problem_selection_mode VARCHAR(20) NOT NULL,
+    problem_id BIGINT,
+    problem_difficulty VARCHAR(20),
+    problem_tag VARCHAR(50),
+    unsolved_only BOOLEAN NOT NULL DEFAULT FALSE,
+    current_round INTEGER NOT NULL DEFAULT 1,
+    status VARCHAR(20) NOT NULL DEFAULT 'RUNNING',
+    winner_id VARCHAR(255),
+    created_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    completed_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_tournaments_status ON tournaments (status);
+
+-- Ids are handed out 50 at a time by the backend so a bracket inserts in JDBC batches
+CREATE SEQUENCE IF NOT EXISTS tournament_players_id_seq INCREMENT BY 50;
+
+CREATE TABLE IF NOT EXISTS tournament_players (
+    id BIGINT PRIMARY KEY DEFAULT nextval('tournament_players_id_seq'),
+    tournament_id BIGINT NOT NULL REFERENCES tournaments(id) ON DELETE CASCADE,
+    user_id VARCHAR(255) NOT NULL,
+    username VARCHAR(50) NOT NULL,
+    seed INTEGER NOT NULL,
+    round INTEGER NOT NULL DEFAULT 1,
+    room_id VARCHAR(6)
+);
+
+CREATE INDEX IF NOT EXISTS idx_tournament_players_tournament ON tournament_players (tournament_id, seed);
+
+-- Room participants switch from IDENTITY inserts to the same pooled allocation,
+-- so write-behind flushes of many rooms are batched too
+DO $$
+BEGIN
+    BEGIN
+        -- Identity columns must accept ids chosen by the backend
+        ALTER TABLE room_participants ALTER COLUMN id SET GENERATED BY DEFAULT;
+    EXCEPTION WHEN others THEN
+        NULL; -- Plain serial column
+    END;
+    EXECUTE format('ALTER SEQUENCE %s INCREMENT BY 50', pg_get_serial_sequence('room_participants', 'id'));
+END $$;
@@ -0,0 +1,55 @@
+-- Materialized profile analytics (GET /api/users/{id}/stats)
+-- Run this in Supabase SQL Editor. The judge keeps these tables up to date;
+-- the backfill below only needs to run once.
+
+-- Step 1: Per-user counters
+CREATE TABLE IF NOT EXISTS user_stats (
+    user_id VARCHAR(255) PRIMARY KEY,
+    total_submissions INTEGER NOT NULL DEFAULT 0,
+    accepted_submissions INTEGER NOT NULL DEFAULT 0,
+    cakewalk_solved INTEGER NOT NULL DEFAULT 0,
+    easy_solved INTEGER NOT NULL DEFAULT 0,
+    medium_solved INTEGER NOT NULL DEFAULT 0,
+    hard_solved INTEGER NOT NULL DEFAULT 0,
+    current_streak INTEGER NOT NULL DEFAULT 0,
+    max_streak INTEGER NOT NULL DEFAULT 0,
+    last_accepted_on DATE,
+    version BIGINT NOT NULL DEFAULT 0
+);
+
+-- Step 2: Per-user per-day activity
+CREATE TABLE IF NOT EXISTS user_activity_days (
+    user_id VARCHAR(255) NOT NULL,
+    activity_date DATE NOT NULL,
+    submissions INTEGER NOT NULL DEFAULT 0,
+    accepted INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (user_id, activity_date)
+);
+
+-- Step 3: Backfill from existing judged submissions
+INSERT INTO user_activity_days (user_id, activity_date, submissions, accepted)
+SELECT user_id, CAST(submitted_at AS DATE), COUNT(*), COUNT(*) FILTER (WHERE status = 'ACCEPTED')
+FROM submissions
+WHERE status NOT IN ('PENDING', 'RUNNING')
+GROUP BY user_id, CAST(submitted_at AS DATE)
+ON CONFLICT (user_id, activity_date) DO NOTHING;
+
+INSERT INTO user_stats (user_id, total_submissions, accepted_submissions,
+                        cakewalk_solved, easy_solved, medium_solved, hard_solved, last_accepted_on)
+SELECT s.user_id,
+       COUNT(*),
+       COUNT(*) FILTER (WHERE s.status = 'ACCEPTED'),
+       COUNT(DISTINCT s.problem_id) FILTER (WHERE s.status = 'ACCEPTED' AND p.difficulty = 'CAKEWALK'),
+       COUNT(DISTINCT s.problem_id) FILTER (WHERE s.status = 'ACCEPTED' AND p.difficulty = 'EASY'),
+       COUNT(DISTINCT s.problem_id) FILTER (WHERE s.status = 'ACCEPTED' AND p.difficulty = 'MEDIUM'),
+       COUNT(DISTINCT s.problem_id) FILTER (WHERE s.status = 'ACCEPTED' AND p.difficulty = 'HARD'),
+       MAX(CAST(s.submitted_at AS DATE)) FILTER (WHERE s.status = 'ACCEPTED')
+FROM submissions s
+JOIN problems p ON p.id = s.problem_id
+WHERE s.status NOT IN ('PENDING', 'RUNNING')
+GROUP BY s.user_id
+ON CONFLICT (user_id) DO NOTHING;
+
+-- Streaks restart from the next solve after the backfill
+UPDATE user_stats SET current_streak = 1, max_streak = 1
+WHERE last_accepted_on IS NOT NULL AND max_streak = 0;
@@ -0,0 +1,11 @@
+-- Relay frames too large for a NOTIFY payload (websocket.relay.type=postgres)
+-- Run this in Supabase SQL Editor BEFORE deploying the backend that uses it
+
+-- The NOTIFY carries only the id; rows are purged after a minute
+CREATE TABLE IF NOT EXISTS ws_relay_payloads (
+    id BIGSERIAL PRIMARY KEY,
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT NOW()
+);
+
+CREATE INDEX IF NOT EXISTS idx_ws_relay_payloads_created ON ws_relay_payloads (created_at);
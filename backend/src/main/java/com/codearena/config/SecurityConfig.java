@@ -1,5 +1,7 @@
 package com.codearena.config;
 
+import com.codearena.ratelimit.RateLimitFilter;
+import com.codearena.ratelimit.RateLimiter;
 import com.codearena.security.JwtAuthenticationFilter;
 import lombok.RequiredArgsConstructor;
 import org.springframework.context.annotation.Bean;
@@ -33,6 +35,7 @@ public class SecurityConfig {
 
     private final JwtAuthenticationFilter jwtAuthFilter;
     private final UserDetailsService userDetailsService;
+    private final RateLimiter rateLimiter;
 
     @Value("${cors.allowed-origins}")
     private String allowedOrigins;
@@ -48,17 +51,20 @@ public class SecurityConfig {
                         .requestMatchers("/api/auth/**").permitAll()
                         .requestMatchers("/api/problems/**").permitAll()
                         .requestMatchers("/api/rooms/**").permitAll() // Room endpoints
+                        .requestMatchers("/api/tournaments/**").permitAll() // Tournament rounds are rooms too
                         .requestMatchers("/api/leaderboard/**").permitAll()
                         .requestMatchers("/api/stats/**").permitAll() // Global stats
                         .requestMatchers("/api/health").permitAll() // Health check for keep-alive
                         .requestMatchers("/ws/**").permitAll()
+                        .requestMatchers("/ws-binary").permitAll() // Raw WebSocket, CBOR payloads
                         .requestMatchers("/api/admin/**").permitAll() // TEMPORARY: Allow all for testing due to JWT
                                                                       // mismatch
                         .anyRequest().authenticated())
                 .sessionManagement(session -> session
                         .sessionCreationPolicy(SessionCreationPolicy.STATELESS))
                 .authenticationProvider(authenticationProvider())
-                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class);
+                .addFilterBefore(jwtAuthFilter, UsernamePasswordAuthenticationFilter.class)
+                .addFilterAfter(new RateLimitFilter(rateLimiter), JwtAuthenticationFilter.class);
 
         return http.build();
     }
@@ -70,6 +76,8 @@ public class SecurityConfig {
         configuration.setAllowedOrigins(Arrays.asList(allowedOrigins.split(",")));
         configuration.setAllowedMethods(Arrays.asList("GET", "POST", "PUT", "DELETE", "PATCH", "OPTIONS"));
         configuration.setAllowedHeaders(Arrays.asList("*"));
+        // Let cross-origin clients read the ETag to send back in If-None-Match
+        configuration.setExposedHeaders(Arrays.asList("ETag"));
         configuration.setAllowCredentials(true);
 
         UrlBasedCorsConfigurationSource source = new UrlBasedCorsConfigurationSource();
@@ -1,19 +1,116 @@
 package com.codearena.config;
 
+import com.codearena.ratelimit.RateLimitInterceptor;
+import com.codearena.room.SpectatorGuard;
+import com.codearena.security.StompAuthInterceptor;
+import com.codearena.websocket.BrokerShards;
+import com.codearena.websocket.PayloadEncoding;
+import com.codearena.websocket.RelayBridge;
+import com.codearena.websocket.ShardedBrokerExecutor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+
+import java.util.List;
 
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
 
+    private final BrokerShards brokerShards;
+    private final StompAuthInterceptor stompAuthInterceptor;
+    private final RateLimitInterceptor rateLimitInterceptor;
+    private final RelayBridge relayBridge;
+    private final PayloadEncoding payloadEncoding;
+    private final SpectatorGuard spectatorGuard;
+    private final int channelThreads;
+    private final int queueCapacity;
+    private final int sendTimeLimitMs;
+    private final int sendBufferSizeLimit;
+    private final long heartbeatMs;
+
+    public WebSocketConfig(BrokerShards brokerShards,
+            StompAuthInterceptor stompAuthInterceptor,
+            RateLimitInterceptor rateLimitInterceptor,
+            RelayBridge relayBridge,
+            PayloadEncoding payloadEncoding,
+            SpectatorGuard spectatorGuard,
+            @Value("${websocket.channel-threads:0}") int channelThreads,
+            @Value("${websocket.channel-queue-capacity:10000}") int queueCapacity,
+            @Value("${websocket.send-time-limit-ms:5000}") int sendTimeLimitMs,
+            @Value("${websocket.send-buffer-size-limit:262144}") int sendBufferSizeLimit,
+            @Value("${websocket.heartbeat-ms:10000}") long heartbeatMs) {
+        this.brokerShards = brokerShards;
+        this.stompAuthInterceptor = stompAuthInterceptor;
+        this.rateLimitInterceptor = rateLimitInterceptor;
+        this.relayBridge = relayBridge;
+        this.payloadEncoding = payloadEncoding;
+        this.spectatorGuard = spectatorGuard;
+        this.channelThreads = channelThreads > 0 ? channelThreads : Runtime.getRuntime().availableProcessors();
+        this.queueCapacity = queueCapacity;
+        this.sendTimeLimitMs = sendTimeLimitMs;
+        this.sendBufferSizeLimit = sendBufferSizeLimit;
+        this.heartbeatMs = heartbeatMs;
+    }
+
     @Override
     public void configureMessageBroker(MessageBrokerRegistry config) {
-        config.enableSimpleBroker("/topic");
+        // Heartbeats both ways; a client that misses them is disconnected, which feeds presence
+        ThreadPoolTaskScheduler heartbeats = new ThreadPoolTaskScheduler();
+        heartbeats.setThreadNamePrefix("ws-heartbeat-");
+        heartbeats.setDaemon(true);
+        heartbeats.initialize();
+        config.enableSimpleBroker("/topic")
+                .setHeartbeatValue(new long[] { heartbeatMs, heartbeatMs })
+                .setTaskScheduler(heartbeats);
         config.setApplicationDestinationPrefixes("/app");
+        // Fan-out runs on the broker shard of each destination; other nodes get a copy through the relay
+        config.configureBrokerChannel().taskExecutor(new ShardedBrokerExecutor(brokerShards));
+        config.configureBrokerChannel().interceptors(relayBridge);
+        // Deliver to each session in the order messages were published
+        config.setPreservePublishOrder(true);
+    }
+
+    @Override
+    public boolean configureMessageConverters(List<MessageConverter> messageConverters) {
+        // Ahead of the default Jackson converter, so published objects are also encoded as CBOR when needed
+        messageConverters.add(0, payloadEncoding.messageConverter());
+        return true;
+    }
+
+    @Override
+    public void configureClientInboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(channelThreads)
+                .maxPoolSize(channelThreads)
+                .queueCapacity(queueCapacity);
+        // JWT checked once on CONNECT; over-limit SEND frames are dropped before they reach
+        // a controller or the broker; players cannot subscribe to their own match's spectator feed
+        registration.interceptors(stompAuthInterceptor, rateLimitInterceptor, spectatorGuard, payloadEncoding);
+    }
+
+    @Override
+    public void configureClientOutboundChannel(ChannelRegistration registration) {
+        registration.taskExecutor()
+                .corePoolSize(channelThreads)
+                .maxPoolSize(channelThreads)
+                .queueCapacity(queueCapacity);
+        // CBOR for sessions that negotiated it on CONNECT
+        registration.interceptors(payloadEncoding);
+    }
+
+    @Override
+    public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+        // A session whose unsent frames exceed either limit is a slow consumer and gets closed
+        registration.setSendTimeLimit(sendTimeLimitMs)
+                .setSendBufferSizeLimit(sendBufferSizeLimit);
     }
 
     @Override
@@ -21,5 +118,9 @@ public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
         registry.addEndpoint("/ws")
                 .setAllowedOriginPatterns("*")
                 .withSockJS();
+        // Raw WebSocket for clients that want binary (CBOR) frames; SockJS only carries text
+        registry.addEndpoint("/ws-binary")
+                .setAllowedOriginPatterns("*")
+                .addInterceptors(payloadEncoding.binaryEndpoint());
     }
 }
@@ -1,30 +1,67 @@
 package com.codearena.controller;
 
 import com.codearena.dto.ChatMessage;
+import com.codearena.room.LiveRoom;
+import com.codearena.room.RoomRegistry;
+import com.codearena.security.StompPrincipal;
+import com.codearena.service.ChatService;
+import com.codearena.websocket.TopicCoalescer;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.messaging.handler.annotation.DestinationVariable;
 import org.springframework.messaging.handler.annotation.MessageMapping;
-import org.springframework.messaging.handler.annotation.SendTo;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
 import org.springframework.stereotype.Controller;
 
+import java.security.Principal;
 import java.time.Instant;
+import java.util.List;
 
 @Controller
 @RequiredArgsConstructor
+@Slf4j
 public class ChatController {
 
+    private final RoomRegistry roomRegistry;
+    private final TopicCoalescer coalescer;
+    private final ChatService chatService;
+
     @MessageMapping("/chat.send/{roomId}")
-    @SendTo("/topic/room/{roomId}")
-    public ChatMessage sendMessage(@DestinationVariable String roomId, ChatMessage message) {
+    public void sendMessage(@DestinationVariable String roomId, ChatMessage message, Principal principal) {
+        // Identity comes from the session only; anonymous sessions cannot chat
+        if (!(principal instanceof StompPrincipal user)) {
+            log.debug("Dropped anonymous chat message to room {}", roomId);
+            return;
+        }
+        if (message.getContent() == null || message.getContent().isBlank()) {
+            return;
+        }
+        message.setSenderId(user.userId());
+        message.setSenderName(user.username());
+
         // Set timestamp if not provided
         if (message.getTimestamp() == null || message.getTimestamp().isEmpty()) {
             message.setTimestamp(Instant.now().toString());
         }
         message.setRoomId(roomId);
 
-        // TODO: Optionally persist to Supabase here for message history
-        System.out.println("Chat message in room " + roomId + ": " + message.getContent());
+        // Ring buffer now, database in the next batch; nothing is sent to rooms that are not live
+        if (!chatService.record(roomId, message)) {
+            log.debug("Dropped chat message to unknown room {}", roomId);
+            return;
+        }
+
+        // Batched per tick when the room has coalescing on
+        int tickMs = roomRegistry.find(roomId.toUpperCase()).map(LiveRoom::getCoalesceMillis).orElse(0);
+        coalescer.send("/topic/room/" + roomId, message, tickMs);
+    }
 
-        return message;
+    /**
+     * Recent messages, replied to the subscribing session only.
+     * Subscribe to /topic/room/{roomId} first so nothing falls between the two.
+     */
+    @SubscribeMapping("/chat.history/{roomId}")
+    public List<ChatMessage> history(@DestinationVariable String roomId) {
+        return chatService.history(roomId);
     }
 }
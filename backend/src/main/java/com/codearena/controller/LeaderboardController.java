@@ -0,0 +1,36 @@
+package com.codearena.controller;
+
+import com.codearena.dto.LeaderboardEntryResponse;
+import com.codearena.service.LeaderboardService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/leaderboard")
+@RequiredArgsConstructor
+public class LeaderboardController {
+
+    private final LeaderboardService leaderboardService;
+
+    /**
+     * Get a rolling leaderboard
+     * GET /api/leaderboard/{window}?limit=50 (window: daily, weekly, monthly)
+     */
+    @GetMapping("/{window}")
+    public ResponseEntity<List<LeaderboardEntryResponse>> getLeaderboard(
+            @PathVariable String window,
+            @RequestParam(value = "limit", defaultValue = "50") int limit) {
+
+        LeaderboardService.Window w;
+        try {
+            w = LeaderboardService.Window.valueOf(window.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(leaderboardService.getLeaderboard(w, limit));
+    }
+}
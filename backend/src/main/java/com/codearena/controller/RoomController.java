@@ -2,15 +2,26 @@ package com.codearena.controller;
 
 import com.codearena.dto.CreateRoomRequest;
 import com.codearena.dto.JoinRoomRequest;
+import com.codearena.dto.RoomEventsResponse;
 import com.codearena.dto.RoomResponse;
+import com.codearena.dto.RoomScoreResponse;
 import com.codearena.dto.StartRoomRequest;
+import com.codearena.room.PublicRoomIndex;
+import com.codearena.service.MatchmakingService;
+import com.codearena.service.RoomScoreboardService;
 import com.codearena.service.RoomService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -21,7 +32,12 @@ public class RoomController {
 
     private static final Logger log = LoggerFactory.getLogger(RoomController.class);
 
+    // Players are placed within matchmaking.max-wait-ms, so this only guards against a stuck queue
+    private static final long MATCHMAKING_TIMEOUT_MS = 30000;
+
     private final RoomService roomService;
+    private final MatchmakingService matchmakingService;
+    private final RoomScoreboardService roomScoreboardService;
 
     /**
      * Create a new room
@@ -50,11 +66,13 @@ public class RoomController {
     }
 
     /**
-     * Join a random room
+     * Join a random room through the matchmaking queue
      * POST /api/rooms/random-join
+     * Responds once the player has been placed; the assignment is also pushed
+     * to /topic/matchmaking/{userId}
      */
     @PostMapping("/random-join")
-    public ResponseEntity<RoomResponse> randomJoinRoom(
+    public DeferredResult<ResponseEntity<RoomResponse>> randomJoinRoom(
             @RequestBody(required = false) CreateRoomRequest preferences,
             @RequestHeader(value = "X-User-Id", required = false) String headerUserId,
             @RequestHeader(value = "X-Username", required = false) String headerUsername,
@@ -64,15 +82,51 @@ public class RoomController {
         String userId = headerUserId != null ? headerUserId : paramUserId;
         String username = headerUsername != null ? headerUsername : paramUsername;
 
+        DeferredResult<ResponseEntity<RoomResponse>> result = new DeferredResult<>(MATCHMAKING_TIMEOUT_MS,
+                ResponseEntity.accepted().build());
         if (userId == null || userId.isEmpty()) {
-            return ResponseEntity.badRequest().build();
+            result.setResult(ResponseEntity.badRequest().build());
+            return result;
         }
         if (username == null || username.isEmpty()) {
             username = "User";
         }
 
-        RoomResponse room = roomService.randomJoinRoom(userId, username, preferences);
-        return ResponseEntity.ok(room);
+        CompletableFuture<RoomResponse> match = matchmakingService.enqueue(userId, username, preferences);
+        // Leave the queue if the client gives up, so nobody is seated into a room for a dead request
+        result.onTimeout(() -> {
+            // Set before cancelling, or the cancellation would answer 204
+            result.setResult(ResponseEntity.accepted().build());
+            matchmakingService.cancel(userId, match);
+        });
+        result.onError(error -> matchmakingService.cancel(userId, match));
+        match.whenComplete((room, error) -> {
+            if (error == null) {
+                result.setResult(ResponseEntity.ok(room));
+            } else if (error instanceof CancellationException) {
+                result.setResult(ResponseEntity.noContent().build());
+            } else {
+                result.setErrorResult(error instanceof CompletionException ? error.getCause() : error);
+            }
+        });
+        return result;
+    }
+
+    /**
+     * Leave the matchmaking queue
+     * DELETE /api/rooms/random-join
+     */
+    @DeleteMapping("/random-join")
+    public ResponseEntity<Map<String, Object>> cancelRandomJoin(
+            @RequestParam(value = "userId", required = false) String paramUserId,
+            @RequestHeader(value = "X-User-Id", required = false) String headerUserId) {
+
+        String userId = headerUserId != null ? headerUserId : paramUserId;
+        if (userId == null || userId.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(Map.of("success", matchmakingService.cancel(userId)));
     }
 
     /**
@@ -144,6 +198,26 @@ public class RoomController {
         return ResponseEntity.ok(room);
     }
 
+    /**
+     * Get lobby events missed since a version
+     * GET /api/rooms/{id}/events?since=12
+     */
+    @GetMapping("/{id}/events")
+    public ResponseEntity<RoomEventsResponse> getRoomEvents(
+            @PathVariable String id,
+            @RequestParam(value = "since", defaultValue = "0") long since) {
+        return ResponseEntity.ok(roomService.getRoomEvents(id, since));
+    }
+
+    /**
+     * Get the live scoreboard of a room
+     * GET /api/rooms/{id}/scoreboard
+     */
+    @GetMapping("/{id}/scoreboard")
+    public ResponseEntity<List<RoomScoreResponse>> getScoreboard(@PathVariable String id) {
+        return ResponseEntity.ok(roomScoreboardService.getScoreboard(id));
+    }
+
     /**
      * Update ready status
      * PATCH /api/rooms/{id}/ready
@@ -164,6 +238,25 @@ public class RoomController {
         return ResponseEntity.ok(Map.of("success", true));
     }
 
+    /**
+     * Batch the room's chat and events into one frame per tick (creator only)
+     * PATCH /api/rooms/{id}/coalescing
+     */
+    @PatchMapping("/{id}/coalescing")
+    public ResponseEntity<RoomResponse> updateCoalescing(
+            @PathVariable String id,
+            @RequestBody Map<String, Object> request) {
+
+        String userId = (String) request.get("userId");
+        Object tickMs = request.get("tickMs");
+
+        if (userId == null || userId.isEmpty() || !(tickMs instanceof Number)) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(roomService.setCoalescing(id, userId, ((Number) tickMs).intValue()));
+    }
+
     /**
      * Start a room (creator only)
      * POST /api/rooms/{id}/start
@@ -199,10 +292,17 @@ public class RoomController {
     /**
      * Get all public rooms
      * GET /api/rooms/public
+     * The ETag is the listing version; deltas after it arrive on /topic/rooms/public
      */
     @GetMapping("/public")
-    public ResponseEntity<List<RoomResponse>> getPublicRooms() {
-        List<RoomResponse> rooms = roomService.getPublicRooms();
-        return ResponseEntity.ok(rooms);
+    public ResponseEntity<List<RoomResponse>> getPublicRooms(
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        PublicRoomIndex.Snapshot snapshot = roomService.getPublicRooms();
+        String etag = "\"" + snapshot.version() + "\"";
+
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(CacheControl.noCache()).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(CacheControl.noCache()).body(snapshot.rooms());
     }
 }
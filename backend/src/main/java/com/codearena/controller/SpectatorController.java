@@ -0,0 +1,37 @@
+package com.codearena.controller;
+
+import com.codearena.dto.EditorEdit;
+import com.codearena.dto.EditorFrame;
+import com.codearena.service.SpectatorService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.simp.annotation.SubscribeMapping;
+import org.springframework.stereotype.Controller;
+
+import java.security.Principal;
+import java.util.List;
+
+@Controller
+@RequiredArgsConstructor
+public class SpectatorController {
+
+    private final SpectatorService spectatorService;
+
+    /**
+     * Editor changes of the session's user, mirrored to the room's spectators
+     */
+    @MessageMapping("/spectate.edit/{roomId}")
+    public void edit(@DestinationVariable String roomId, EditorEdit edit, Principal principal) {
+        spectatorService.edit(roomId, principal, edit);
+    }
+
+    /**
+     * Last keyframe and later deltas of every editor, replied to the subscribing session only.
+     * Subscribe to /topic/room/{roomId}/spectate first so nothing falls between the two.
+     */
+    @SubscribeMapping("/spectate.state/{roomId}")
+    public List<EditorFrame> state(@DestinationVariable String roomId) {
+        return spectatorService.state(roomId);
+    }
+}
@@ -1,8 +1,14 @@
 package com.codearena.controller;
 
-import com.codearena.repository.RoomParticipantRepository;
-import com.codearena.repository.RoomRepository;
+import com.codearena.ratelimit.RateLimiter;
 import com.codearena.repository.UserRepository;
+import com.codearena.room.RoomRegistry;
+import com.codearena.service.PresenceService;
+import com.codearena.service.SpectatorService;
+import com.codearena.websocket.BrokerShards;
+import com.codearena.websocket.PayloadEncoding;
+import com.codearena.websocket.RelayBridge;
+import com.codearena.websocket.TopicCoalescer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -10,6 +16,7 @@ import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 @RestController
@@ -17,22 +24,87 @@ import java.util.Map;
 @RequiredArgsConstructor
 public class StatsController {
 
-    private final RoomRepository roomRepository;
-    private final RoomParticipantRepository roomParticipantRepository;
+    private final RoomRegistry roomRegistry;
+    private final PresenceService presenceService;
     private final UserRepository userRepository;
+    private final BrokerShards brokerShards;
+    private final TopicCoalescer topicCoalescer;
+    private final RateLimiter rateLimiter;
+    private final RelayBridge relayBridge;
+    private final PayloadEncoding payloadEncoding;
+    private final SpectatorService spectatorService;
 
     @GetMapping
     public ResponseEntity<Map<String, Long>> getGlobalStats() {
         Map<String, Long> stats = new HashMap<>();
 
-        long activeRooms = roomRepository.count();
-        long activePlayers = roomParticipantRepository.countByLeftAtIsNull();
+        long activeRooms = roomRegistry.size();
+        // Connected players, not rows that were never marked as left
+        long activePlayers = presenceService.activePlayers();
+        long onlineUsers = presenceService.onlineUsers();
         long totalUsers = userRepository.count();
 
         stats.put("activeRooms", activeRooms);
         stats.put("activePlayers", activePlayers);
+        stats.put("onlineUsers", onlineUsers);
         stats.put("totalUsers", totalUsers);
 
         return ResponseEntity.ok(stats);
     }
+
+    /**
+     * Per-shard WebSocket broker counters and fan-out latency
+     * GET /api/stats/broker
+     */
+    @GetMapping("/broker")
+    public ResponseEntity<List<BrokerShards.ShardStats>> getBrokerStats() {
+        return ResponseEntity.ok(brokerShards.stats());
+    }
+
+    /**
+     * Room chat/event messages published vs frames actually sent
+     * GET /api/stats/coalescing
+     */
+    @GetMapping("/coalescing")
+    public ResponseEntity<Map<String, Long>> getCoalescingStats() {
+        return ResponseEntity.ok(Map.of(
+                "messages", topicCoalescer.messageCount(),
+                "frames", topicCoalescer.frameCount()));
+    }
+
+    /**
+     * Allowed / rejected counts and live buckets per rate-limit route
+     * GET /api/stats/rate-limits
+     */
+    @GetMapping("/rate-limits")
+    public ResponseEntity<List<RateLimiter.RouteStats>> getRateLimitStats() {
+        return ResponseEntity.ok(rateLimiter.stats());
+    }
+
+    /**
+     * Cross-node relay peers and message counts
+     * GET /api/stats/relay
+     */
+    @GetMapping("/relay")
+    public ResponseEntity<RelayBridge.RelayStats> getRelayStats() {
+        return ResponseEntity.ok(relayBridge.stats());
+    }
+
+    /**
+     * JSON vs CBOR payload sizes and encode times while binary subscribers are connected
+     * GET /api/stats/encoding
+     */
+    @GetMapping("/encoding")
+    public ResponseEntity<PayloadEncoding.EncodingStats> getEncodingStats() {
+        return ResponseEntity.ok(payloadEncoding.stats());
+    }
+
+    /**
+     * Mirrored editors, edits and keyframes sent to spectators
+     * GET /api/stats/spectators
+     */
+    @GetMapping("/spectators")
+    public ResponseEntity<SpectatorService.SpectatorStats> getSpectatorStats() {
+        return ResponseEntity.ok(spectatorService.stats());
+    }
 }
@@ -1,5 +1,7 @@
 package com.codearena.controller;
 
+import com.codearena.dto.SubmissionCodeResponse;
+import com.codearena.dto.SubmissionPageResponse;
 import com.codearena.dto.SubmissionRequest;
 import com.codearena.dto.SubmissionResponse;
 import com.codearena.service.SubmissionService;
@@ -9,7 +11,7 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
-import java.util.List;
+import java.time.LocalDateTime;
 
 @RestController
 @RequestMapping("/api/submissions")
@@ -43,13 +45,39 @@ public class SubmissionController {
         return ResponseEntity.ok("pong");
     }
 
+    /**
+     * Keyset-paginated submission history, newest first
+     * GET /api/submissions/user/{userId}?before=<submittedAt,id>&limit=20
+     */
     @GetMapping("/user/{userId}")
-    public ResponseEntity<List<SubmissionResponse>> getUserSubmissions(@PathVariable String userId) {
-        return ResponseEntity.ok(submissionService.getUserSubmissions(userId));
+    public ResponseEntity<SubmissionPageResponse> getUserSubmissions(
+            @PathVariable String userId,
+            @RequestParam(value = "before", required = false) String before,
+            @RequestParam(value = "limit", defaultValue = "20") int limit) {
+
+        LocalDateTime beforeAt = null;
+        Long beforeId = null;
+        if (before != null && !before.isEmpty()) {
+            int comma = before.lastIndexOf(',');
+            try {
+                beforeAt = LocalDateTime.parse(before.substring(0, comma));
+                beforeId = Long.parseLong(before.substring(comma + 1));
+            } catch (RuntimeException e) {
+                return ResponseEntity.badRequest().build();
+            }
+        }
+
+        return ResponseEntity.ok(submissionService.getUserSubmissions(userId, beforeAt, beforeId, limit));
     }
 
     @GetMapping("/{id}")
     public ResponseEntity<SubmissionResponse> getSubmission(@PathVariable Long id) {
         return ResponseEntity.ok(submissionService.getSubmission(id));
     }
+
+    @GetMapping("/{id}/code")
+    public ResponseEntity<SubmissionCodeResponse> getSubmissionCode(@PathVariable Long id,
+            Authentication authentication) {
+        return ResponseEntity.ok(submissionService.getSubmissionCode(id, authentication.getName()));
+    }
 }
@@ -0,0 +1,44 @@
+package com.codearena.controller;
+
+import com.codearena.dto.CreateTournamentRequest;
+import com.codearena.dto.TournamentResponse;
+import com.codearena.service.TournamentService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/tournaments")
+@RequiredArgsConstructor
+public class TournamentController {
+
+    private final TournamentService tournamentService;
+
+    /**
+     * Create a tournament and start its first round
+     * POST /api/tournaments
+     * Rounds are announced on /topic/tournament/{id}
+     */
+    @PostMapping
+    public ResponseEntity<TournamentResponse> createTournament(
+            @RequestBody CreateTournamentRequest request,
+            @RequestHeader(value = "X-User-Id", required = false) String headerUserId,
+            @RequestParam(value = "userId", required = false) String paramUserId) {
+
+        String userId = headerUserId != null ? headerUserId : paramUserId;
+        if (userId == null || userId.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        return ResponseEntity.ok(tournamentService.createTournament(userId, request));
+    }
+
+    /**
+     * Get tournament details
+     * GET /api/tournaments/{id}
+     */
+    @GetMapping("/{id}")
+    public ResponseEntity<TournamentResponse> getTournament(@PathVariable Long id) {
+        return ResponseEntity.ok(tournamentService.getTournament(id));
+    }
+}
@@ -1,13 +1,19 @@
 package com.codearena.controller;
 
 import com.codearena.dto.UserProfileResponse;
+import com.codearena.dto.UserStatsResponse;
 import com.codearena.entity.User;
 import com.codearena.service.UserService;
+import com.codearena.service.UserStatsService;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.Duration;
+import java.time.LocalDate;
 import java.util.List;
 
 @RestController
@@ -16,6 +22,7 @@ import java.util.List;
 public class UserController {
 
     private final UserService userService;
+    private final UserStatsService userStatsService;
 
     @GetMapping("/profile")
     public ResponseEntity<UserProfileResponse> getCurrentUserProfile(Authentication authentication) {
@@ -31,6 +38,24 @@ public class UserController {
         return ResponseEntity.ok(userService.getUserProfile(id));
     }
 
+    /**
+     * Profile analytics (heatmap, difficulty breakdown, progress)
+     * GET /api/users/{id}/stats
+     */
+    @GetMapping("/{id}/stats")
+    public ResponseEntity<UserStatsResponse> getUserStats(
+            @PathVariable String id,
+            @RequestHeader(value = "If-None-Match", required = false) String ifNoneMatch) {
+        UserStatsResponse stats = userStatsService.getStats(id);
+        String etag = "\"" + id + "-" + stats.getVersion() + "-" + LocalDate.now() + "\"";
+        CacheControl cacheControl = CacheControl.maxAge(Duration.ofSeconds(30)).cachePrivate();
+
+        if (etag.equals(ifNoneMatch)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+        }
+        return ResponseEntity.ok().eTag(etag).cacheControl(cacheControl).body(stats);
+    }
+
     @PutMapping("/profile")
     public ResponseEntity<User> updateProfile(
             @RequestBody User updates,
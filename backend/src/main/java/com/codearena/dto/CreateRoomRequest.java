@@ -12,4 +12,11 @@ public class CreateRoomRequest {
     private String problemSelectionMode; // "single" or "random"
     private Integer maxParticipants;
     private Boolean isPrivate;
+
+    // Optional filters for "random" mode
+    private String problemDifficulty; // "CAKEWALK", "EASY", "MEDIUM" or "HARD"
+    private String problemTag;
+    private Boolean unsolvedOnly; // Skip problems any participant has already solved
+
+    private Integer coalesceMs; // Batch chat and events into one frame per tick (0 = off)
 }
@@ -0,0 +1,31 @@
+package com.codearena.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CreateTournamentRequest {
+    private String name;
+    private List<Player> players; // In seed order
+    private Integer roomSize; // Players per room, default 4
+
+    // Applied to every room, as in CreateRoomRequest
+    private Long problemId;
+    private String problemSelectionMode; // "single" or "random"
+    private String problemDifficulty;
+    private String problemTag;
+    private Boolean unsolvedOnly;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Player {
+        private String userId;
+        private String username;
+    }
+}
@@ -0,0 +1,22 @@
+package com.codearena.dto;
+
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One change to a participant's editor, sent to /app/spectate.edit/{roomId}.
+ *
+ * Either a splice (replace del characters at offset at with ins) or, when
+ * text is set, a checkpoint carrying the whole buffer. rev counts the
+ * author's edits; a splice is only applied on top of rev - 1, a checkpoint
+ * always.
+ */
+@Data
+@NoArgsConstructor
+public class EditorEdit {
+    private long rev;
+    private int at;
+    private int del;
+    private String ins;
+    private String text;
+}
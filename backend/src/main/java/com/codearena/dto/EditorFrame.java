@@ -0,0 +1,60 @@
+package com.codearena.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One update of a participant's editor, pushed on /topic/room/{id}/spectate.
+ *
+ * A DELTA replaces del characters at offset at with ins and is numbered seq;
+ * it applies on top of seq - 1. A KEYFRAME carries the whole buffer as of seq,
+ * gzipped and base64 encoded in data. A viewer that sees a gap waits for the
+ * next keyframe.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class EditorFrame {
+
+    public enum Type {
+        DELTA, KEYFRAME
+    }
+
+    private Type type;
+    private String userId;
+    private String username;
+    private long seq;
+
+    // DELTA
+    private Integer at;
+    private Integer del;
+    private String ins;
+
+    // KEYFRAME
+    private String data;
+    private Integer length;
+
+    public static EditorFrame delta(String userId, String username, long seq, int at, int del, String ins) {
+        EditorFrame frame = new EditorFrame();
+        frame.type = Type.DELTA;
+        frame.userId = userId;
+        frame.username = username;
+        frame.seq = seq;
+        frame.at = at;
+        frame.del = del;
+        frame.ins = ins;
+        return frame;
+    }
+
+    public static EditorFrame keyframe(String userId, String username, long seq, String data, int length) {
+        EditorFrame frame = new EditorFrame();
+        frame.type = Type.KEYFRAME;
+        frame.userId = userId;
+        frame.username = username;
+        frame.seq = seq;
+        frame.data = data;
+        frame.length = length;
+        return frame;
+    }
+}
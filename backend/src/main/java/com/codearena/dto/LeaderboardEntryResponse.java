@@ -0,0 +1,15 @@
+package com.codearena.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class LeaderboardEntryResponse {
+    private Integer rank;
+    private String userId;
+    private String username;
+    private Integer solved;
+}
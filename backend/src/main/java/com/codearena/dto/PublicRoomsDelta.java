@@ -0,0 +1,19 @@
+package com.codearena.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * One change to the public room listing, pushed on /topic/rooms/public.
+ * Apply deltas with a version greater than the snapshot's ETag.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PublicRoomsDelta {
+    private long version;
+    private String type; // "UPSERT" or "REMOVE"
+    private String roomId;
+    private RoomResponse room; // null for REMOVE
+}
@@ -0,0 +1,101 @@
+package com.codearena.dto;
+
+import com.codearena.room.LiveParticipant;
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * One change to a room, pushed on /topic/room/{id}/events.
+ * Versions increase by one per event within a room; a client that sees a gap
+ * fetches GET /api/rooms/{id}/events?since={last version}.
+ */
+@Data
+@NoArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RoomEvent {
+
+    public enum Type {
+        PARTICIPANT_JOINED, PARTICIPANT_LEFT, READY_CHANGED, PROBLEM_ASSIGNED, ROOM_STARTED, ROOM_COMPLETED,
+        ROOM_DELETED, ROOM_EXPIRED, SCORE_UPDATED
+    }
+
+    private long version;
+    private String roomId;
+    private Type type;
+    private LocalDateTime at;
+
+    // Only the fields relevant to the type are set
+    private String userId;
+    private String username;
+    private Boolean ready;
+    private Long problemId;
+    private String winnerId;
+    private String reason;
+    private List<RoomScoreResponse> scoreboard;
+
+    private RoomEvent(Type type) {
+        this.type = type;
+        this.at = LocalDateTime.now();
+    }
+
+    public static RoomEvent joined(LiveParticipant participant) {
+        RoomEvent event = new RoomEvent(Type.PARTICIPANT_JOINED);
+        event.setUserId(participant.getUserId());
+        event.setUsername(participant.getUsername());
+        event.setReady(participant.isReady());
+        event.setAt(participant.getJoinedAt());
+        return event;
+    }
+
+    public static RoomEvent left(String userId) {
+        RoomEvent event = new RoomEvent(Type.PARTICIPANT_LEFT);
+        event.setUserId(userId);
+        return event;
+    }
+
+    public static RoomEvent readyChanged(String userId, boolean ready) {
+        RoomEvent event = new RoomEvent(Type.READY_CHANGED);
+        event.setUserId(userId);
+        event.setReady(ready);
+        return event;
+    }
+
+    public static RoomEvent problemAssigned(Long problemId) {
+        RoomEvent event = new RoomEvent(Type.PROBLEM_ASSIGNED);
+        event.setProblemId(problemId);
+        return event;
+    }
+
+    public static RoomEvent started(LocalDateTime startedAt) {
+        RoomEvent event = new RoomEvent(Type.ROOM_STARTED);
+        event.setAt(startedAt);
+        return event;
+    }
+
+    public static RoomEvent completed(String winnerId) {
+        RoomEvent event = new RoomEvent(Type.ROOM_COMPLETED);
+        event.setWinnerId(winnerId);
+        return event;
+    }
+
+    public static RoomEvent scoreUpdated(String userId, List<RoomScoreResponse> scoreboard) {
+        RoomEvent event = new RoomEvent(Type.SCORE_UPDATED);
+        event.setUserId(userId);
+        event.setScoreboard(scoreboard);
+        return event;
+    }
+
+    public static RoomEvent deleted() {
+        return new RoomEvent(Type.ROOM_DELETED);
+    }
+
+    public static RoomEvent expired(String reason) {
+        RoomEvent event = new RoomEvent(Type.ROOM_EXPIRED);
+        event.setReason(reason);
+        return event;
+    }
+}
@@ -0,0 +1,22 @@
+package com.codearena.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Events missed since a version. When they are no longer retained, events is
+ * empty and room carries a full snapshot at the current version instead.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class RoomEventsResponse {
+    private long version;
+    private List<RoomEvent> events;
+    private RoomResponse room;
+}
@@ -1,6 +1,7 @@
 package com.codearena.dto;
 
 import com.codearena.entity.RoomParticipant;
+import com.codearena.room.LiveParticipant;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -26,4 +27,14 @@ public class RoomParticipantResponse {
         response.setIsReady(participant.getIsReady());
         return response;
     }
+
+    public static RoomParticipantResponse fromLive(LiveParticipant participant) {
+        RoomParticipantResponse response = new RoomParticipantResponse();
+        response.setId(participant.getId());
+        response.setUserId(participant.getUserId());
+        response.setUsername(participant.getUsername());
+        response.setJoinedAt(participant.getJoinedAt());
+        response.setIsReady(participant.isReady());
+        return response;
+    }
 }
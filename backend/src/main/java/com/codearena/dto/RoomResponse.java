@@ -1,6 +1,7 @@
 package com.codearena.dto;
 
 import com.codearena.entity.Room;
+import com.codearena.room.LiveRoom;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
@@ -33,6 +34,9 @@ public class RoomResponse {
     private LocalDateTime createdAt;
     private List<RoomParticipantResponse> roomParticipants;
     private ProblemInfo problems; // Match frontend naming
+    private Long version; // Last lobby event applied; see RoomEvent
+    private List<RoomScoreResponse> scoreboard;
+    private Integer coalesceMs; // > 0: chat and events arrive batched as JSON arrays
 
     @Data
     @NoArgsConstructor
@@ -71,4 +75,25 @@ public class RoomResponse {
 
         return response;
     }
+
+    public static RoomResponse fromLive(LiveRoom room) {
+        RoomResponse response = new RoomResponse();
+        response.setId(room.getId());
+        response.setCreatedBy(room.getCreatedBy());
+        response.setProblemId(room.getProblemId());
+        response.setProblemSelectionMode(room.getProblemSelectionMode().name().toLowerCase());
+        response.setMaxParticipants(room.getMaxParticipants());
+        response.setIsPrivate(room.isPrivate());
+        response.setStatus(room.getStatus().name().toLowerCase());
+        response.setStartedAt(room.getStartedAt());
+        response.setCreatedAt(room.getCreatedAt());
+        response.setRoomParticipants(
+                room.activeParticipants().stream()
+                        .map(RoomParticipantResponse::fromLive)
+                        .collect(Collectors.toList()));
+        response.setVersion(room.getVersion());
+        response.setScoreboard(RoomScoreResponse.scoreboard(room));
+        response.setCoalesceMs(room.getCoalesceMillis());
+        return response;
+    }
 }
@@ -0,0 +1,44 @@
+package com.codearena.dto;
+
+import com.codearena.room.LiveRoom;
+import com.codearena.room.LiveScore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RoomScoreResponse {
+    private int rank;
+    private String userId;
+    private String username;
+    private boolean solved;
+    private LocalDateTime solvedAt;
+    private long penaltySeconds;
+    private int attempts;
+    private int testCasesPassed;
+    private int totalTestCases;
+
+    /**
+     * The room's scoreboard, best first
+     */
+    public static List<RoomScoreResponse> scoreboard(LiveRoom room) {
+        List<LiveScore> ranked = room.rankedScores();
+        List<RoomScoreResponse> scoreboard = new ArrayList<>(ranked.size());
+        for (LiveScore score : ranked) {
+            scoreboard.add(fromLive(scoreboard.size() + 1, score));
+        }
+        return scoreboard;
+    }
+
+    public static RoomScoreResponse fromLive(int rank, LiveScore score) {
+        return new RoomScoreResponse(rank, score.getUserId(), score.getUsername(), score.isSolved(),
+                score.getSolvedAt(), score.getPenaltySeconds(), score.getAttempts(), score.getTestCasesPassed(),
+                score.getTotalTestCases());
+    }
+}
@@ -0,0 +1,14 @@
+package com.codearena.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionCodeResponse {
+    private Long id;
+    private String language;
+    private String code;
+}
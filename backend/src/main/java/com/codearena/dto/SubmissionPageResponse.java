@@ -0,0 +1,15 @@
+package com.codearena.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionPageResponse {
+    private List<SubmissionSummaryResponse> items;
+    private String nextCursor; // "submittedAt,id" of the last item, null on the last page
+}
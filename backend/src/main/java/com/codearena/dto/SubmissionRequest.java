@@ -17,4 +17,6 @@ public class SubmissionRequest {
     private String language;
 
     private Boolean isSubmit = false; // false for run, true for submit
+
+    private String roomId; // Set when submitting inside a room; feeds the room scoreboard
 }
@@ -0,0 +1,30 @@
+package com.codearena.dto;
+
+import com.codearena.entity.Problem;
+import com.codearena.entity.Submission;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Code-free submission row for history listings. Built directly by a JPQL
+ * constructor expression so no entities (or TEXT columns) are loaded.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class SubmissionSummaryResponse {
+    private Long id;
+    private Long problemId;
+    private String problemTitle;
+    private Problem.Difficulty problemDifficulty;
+    private String language;
+    private Submission.Status status;
+    private Integer executionTime;
+    private Integer memoryUsed;
+    private Integer testCasesPassed;
+    private Integer totalTestCases;
+    private LocalDateTime submittedAt;
+}
@@ -0,0 +1,61 @@
+package com.codearena.dto;
+
+import com.codearena.entity.Tournament;
+import com.codearena.entity.TournamentPlayer;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Tournament state, also pushed on /topic/tournament/{id} whenever a round starts or the tournament ends
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TournamentResponse {
+    private Long id;
+    private String name;
+    private String createdBy;
+    private String status;
+    private Integer currentRound;
+    private Integer roomSize;
+    private String winnerId;
+    private LocalDateTime createdAt;
+    private LocalDateTime completedAt;
+    private List<PlayerInfo> players;
+    private List<RoomResponse> rooms; // Rooms of the current round
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class PlayerInfo {
+        private String userId;
+        private String username;
+        private Integer seed;
+        private Integer round;
+        private String roomId;
+    }
+
+    public static TournamentResponse from(Tournament tournament, List<TournamentPlayer> players,
+            List<RoomResponse> rooms) {
+        TournamentResponse response = new TournamentResponse();
+        response.setId(tournament.getId());
+        response.setName(tournament.getName());
+        response.setCreatedBy(tournament.getCreatedBy());
+        response.setStatus(tournament.getStatus().name().toLowerCase());
+        response.setCurrentRound(tournament.getCurrentRound());
+        response.setRoomSize(tournament.getRoomSize());
+        response.setWinnerId(tournament.getWinnerId());
+        response.setCreatedAt(tournament.getCreatedAt());
+        response.setCompletedAt(tournament.getCompletedAt());
+        response.setPlayers(players.stream()
+                .map(p -> new PlayerInfo(p.getUserId(), p.getUsername(), p.getSeed(), p.getRound(), p.getRoomId()))
+                .collect(Collectors.toList()));
+        response.setRooms(rooms);
+        return response;
+    }
+}
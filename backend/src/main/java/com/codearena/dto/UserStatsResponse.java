@@ -0,0 +1,38 @@
+package com.codearena.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStatsResponse {
+    private String userId;
+    private Integer totalSubmissions;
+    private Integer acceptedSubmissions;
+    private Double acceptanceRate;
+    private Integer problemsSolved;
+    private Map<String, Integer> solvedByDifficulty;
+    private Map<String, Integer> totalByDifficulty;
+    private Integer currentStreak;
+    private Integer maxStreak;
+    private List<ActivityDay> activity;
+
+    @JsonIgnore
+    private Long version; // Backs the ETag
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class ActivityDay {
+        private LocalDate date;
+        private Integer submissions;
+        private Integer accepted;
+    }
+}
@@ -0,0 +1,39 @@
+package com.codearena.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Persisted room chat line. Rows outlive the room they were sent in.
+ */
+@Entity
+@Table(name = "chat_messages")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChatMessageRecord {
+
+    // Pooled sequence so chat batches insert in JDBC batches
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "chat_messages_seq")
+    @SequenceGenerator(name = "chat_messages_seq", sequenceName = "chat_messages_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "room_id", nullable = false, length = 6)
+    private String roomId;
+
+    private String senderId;
+
+    @Column(length = 50)
+    private String senderName;
+
+    @Column(nullable = false, columnDefinition = "TEXT")
+    private String content;
+
+    @Column(nullable = false)
+    private LocalDateTime sentAt;
+}
@@ -0,0 +1,34 @@
+package com.codearena.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Deflate-compressed submission source, stored once per SHA-256 of its text.
+ */
+@Entity
+@Table(name = "code_blobs")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodeBlob {
+
+    @Id
+    @Column(length = 64)
+    private String hash; // Lowercase hex SHA-256 of the UTF-8 source
+
+    @Column(nullable = false)
+    private byte[] data;
+
+    @Column(nullable = false)
+    private Integer size; // Uncompressed size in bytes
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+}
@@ -0,0 +1,27 @@
+package com.codearena.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Shared counter from which each node reserves a block of sequence numbers.
+ */
+@Entity
+@Table(name = "id_blocks")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class IdBlock {
+
+    @Id
+    @Column(length = 50)
+    private String name;
+
+    @Column(nullable = false)
+    private Long nextValue = 0L;
+
+    @Version
+    private Long version;
+}
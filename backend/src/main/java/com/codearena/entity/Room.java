@@ -4,7 +4,6 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 import java.util.ArrayList;
@@ -46,7 +45,18 @@ public class Room {
 
     private LocalDateTime lastEmptyAt;
 
-    @CreationTimestamp
+    // Filters applied when a RANDOM room picks its problem
+    @Column(length = 20)
+    @Enumerated(EnumType.STRING)
+    private Problem.Difficulty problemDifficulty;
+
+    @Column(length = 50)
+    private String problemTag;
+
+    @Column(nullable = false)
+    private Boolean unsolvedOnly = false;
+
+    // Set by the write-behind from the in-memory room; defaults to the insert time
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
@@ -64,4 +74,11 @@ public class Room {
     public enum RoomStatus {
         WAITING, ACTIVE, COMPLETED
     }
+
+    @PrePersist
+    protected void onCreate() {
+        if (createdAt == null) {
+            createdAt = LocalDateTime.now();
+        }
+    }
 }
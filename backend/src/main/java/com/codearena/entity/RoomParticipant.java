@@ -4,7 +4,6 @@ import jakarta.persistence.*;
 import lombok.AllArgsConstructor;
 import lombok.Data;
 import lombok.NoArgsConstructor;
-import org.hibernate.annotations.CreationTimestamp;
 
 import java.time.LocalDateTime;
 
@@ -15,8 +14,10 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 public class RoomParticipant {
 
+    // Pooled sequence so write-behind batches can insert participants in JDBC batches
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "room_participants_seq")
+    @SequenceGenerator(name = "room_participants_seq", sequenceName = "room_participants_id_seq", allocationSize = 50)
     private Long id;
 
     @ManyToOne(fetch = FetchType.LAZY)
@@ -29,7 +30,7 @@ public class RoomParticipant {
     @Column(nullable = false, length = 50)
     private String username;
 
-    @CreationTimestamp
+    // Set by the write-behind from the in-memory room; defaults to the insert time
     @Column(nullable = false, updatable = false)
     private LocalDateTime joinedAt;
 
@@ -41,4 +42,11 @@ public class RoomParticipant {
     public boolean hasLeft() {
         return leftAt != null;
     }
+
+    @PrePersist
+    protected void onCreate() {
+        if (joinedAt == null) {
+            joinedAt = LocalDateTime.now();
+        }
+    }
 }
@@ -9,7 +9,9 @@ import org.hibernate.annotations.CreationTimestamp;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "submissions")
+@Table(name = "submissions", indexes = {
+        @Index(name = "idx_submissions_user_submitted", columnList = "user_id, submitted_at DESC, id DESC")
+})
 @Data
 @NoArgsConstructor
 @AllArgsConstructor
@@ -27,8 +29,12 @@ public class Submission {
     @JoinColumn(name = "problem_id", nullable = false)
     private Problem problem;
 
-    @Column(nullable = false, columnDefinition = "TEXT")
-    private String code;
+    @Column(length = 64)
+    private String codeHash; // Source lives in code_blobs, see CodeStorageService
+
+    // Pre-code_blobs inline source; moved out and nulled by CodeStorageService
+    @Column(name = "code", columnDefinition = "TEXT")
+    private String legacyCode;
 
     @Column(nullable = false, length = 50)
     private String language;
@@ -61,6 +67,9 @@ public class Submission {
     @Column(nullable = false, updatable = false)
     private LocalDateTime submittedAt;
 
+    @Column(length = 6)
+    private String roomId; // Room the submission was made in, if any
+
     public enum Status {
         PENDING,
         RUNNING,
@@ -0,0 +1,71 @@
+package com.codearena.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.LocalDateTime;
+
+/**
+ * Single-elimination bracket played in rounds of private rooms.
+ * The winner of each room advances to the next round.
+ */
+@Entity
+@Table(name = "tournaments")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Tournament {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 100)
+    private String name;
+
+    @Column(nullable = false)
+    private String createdBy;
+
+    // Players per room
+    @Column(nullable = false)
+    private Integer roomSize = 4;
+
+    // Problem settings applied to every room
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private Room.ProblemSelectionMode problemSelectionMode;
+
+    private Long problemId;
+
+    @Column(length = 20)
+    @Enumerated(EnumType.STRING)
+    private Problem.Difficulty problemDifficulty;
+
+    @Column(length = 50)
+    private String problemTag;
+
+    @Column(nullable = false)
+    private Boolean unsolvedOnly = false;
+
+    @Column(nullable = false)
+    private Integer currentRound = 1;
+
+    @Column(nullable = false, length = 20)
+    @Enumerated(EnumType.STRING)
+    private Status status = Status.RUNNING;
+
+    private String winnerId;
+
+    @CreationTimestamp
+    @Column(nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    private LocalDateTime completedAt;
+
+    public enum Status {
+        RUNNING, COMPLETED
+    }
+}
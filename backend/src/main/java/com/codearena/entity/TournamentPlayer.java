@@ -0,0 +1,44 @@
+package com.codearena.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * A player's place in a tournament: the furthest round reached and the room
+ * played in that round.
+ */
+@Entity
+@Table(name = "tournament_players")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TournamentPlayer {
+
+    // Pooled sequence so a whole bracket is inserted in JDBC batches
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "tournament_players_seq")
+    @SequenceGenerator(name = "tournament_players_seq", sequenceName = "tournament_players_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(nullable = false)
+    private Long tournamentId;
+
+    @Column(nullable = false)
+    private String userId;
+
+    @Column(nullable = false, length = 50)
+    private String username;
+
+    // 1 = first seed; decides grouping and tie-breaks
+    @Column(nullable = false)
+    private Integer seed;
+
+    @Column(nullable = false)
+    private Integer round = 1;
+
+    // Null for a bye
+    @Column(length = 6)
+    private String roomId;
+}
@@ -0,0 +1,42 @@
+package com.codearena.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+
+/**
+ * Per-user per-day submission counters backing the profile activity heatmap.
+ */
+@Entity
+@Table(name = "user_activity_days")
+@IdClass(UserActivityDay.Key.class)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserActivityDay {
+
+    @Id
+    private String userId;
+
+    @Id
+    @Column(name = "activity_date")
+    private LocalDate day;
+
+    @Column(nullable = false)
+    private Integer submissions = 0;
+
+    @Column(nullable = false)
+    private Integer accepted = 0;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+        private String userId;
+        private LocalDate day;
+    }
+}
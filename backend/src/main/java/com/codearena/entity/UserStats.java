@@ -0,0 +1,51 @@
+package com.codearena.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/**
+ * Materialized per-user profile counters, maintained incrementally by the judge.
+ */
+@Entity
+@Table(name = "user_stats")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class UserStats {
+
+    @Id
+    private String userId;
+
+    @Column(nullable = false)
+    private Integer totalSubmissions = 0;
+
+    @Column(nullable = false)
+    private Integer acceptedSubmissions = 0;
+
+    @Column(nullable = false)
+    private Integer cakewalkSolved = 0;
+
+    @Column(nullable = false)
+    private Integer easySolved = 0;
+
+    @Column(nullable = false)
+    private Integer mediumSolved = 0;
+
+    @Column(nullable = false)
+    private Integer hardSolved = 0;
+
+    @Column(nullable = false)
+    private Integer currentStreak = 0;
+
+    @Column(nullable = false)
+    private Integer maxStreak = 0;
+
+    private LocalDate lastAcceptedOn;
+
+    @Version
+    private Long version;
+}
@@ -20,8 +20,10 @@ public class GlobalExceptionHandler {
         HttpStatus status;
         if (message != null && (message.contains("not found") || message.contains("Not found"))) {
             status = HttpStatus.NOT_FOUND;
+        } else if (message != null && message.contains("Not allowed")) {
+            status = HttpStatus.FORBIDDEN;
         } else if (message != null && (message.contains("Only room creator") || message.contains("Cannot")
-                || message.contains("not available"))) {
+                || message.contains("not available") || message.contains("must be between"))) {
             status = HttpStatus.BAD_REQUEST;
         } else {
             status = HttpStatus.INTERNAL_SERVER_ERROR;
@@ -0,0 +1,61 @@
+package com.codearena.ratelimit;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.AnonymousAuthenticationToken;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * Applies the HTTP routes of the {@link RateLimiter}. Runs in the security chain
+ * after the JWT filter so an authenticated user is limited by their account;
+ * anyone else is limited by client address.
+ *
+ * Over-limit requests get 429 with Retry-After before any controller, JSON
+ * binding or database work happens.
+ */
+public class RateLimitFilter extends OncePerRequestFilter {
+
+    private final RateLimiter rateLimiter;
+
+    public RateLimitFilter(RateLimiter rateLimiter) {
+        this.rateLimiter = rateLimiter;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request,
+            HttpServletResponse response,
+            FilterChain filterChain) throws ServletException, IOException {
+
+        String path = request.getRequestURI();
+        RateLimiter.Rule rule = rateLimiter.matchHttp(request.getMethod(), path);
+        if (rule != null) {
+            long waitMillis = rateLimiter.tryAcquire(rule, caller(request), path);
+            if (waitMillis > 0) {
+                response.setStatus(HttpStatus.TOO_MANY_REQUESTS.value());
+                response.setHeader("Retry-After", String.valueOf((waitMillis + 999) / 1000));
+                response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+                response.getWriter().write("{\"error\":\"Too many requests\"}");
+                return;
+            }
+        }
+        filterChain.doFilter(request, response);
+    }
+
+    // Only a verified identity counts: a userId header or parameter is chosen by the
+    // client, so keying on it would hand every request a fresh bucket
+    private static String caller(HttpServletRequest request) {
+        Authentication auth = SecurityContextHolder.getContext().getAuthentication();
+        if (auth != null && auth.isAuthenticated() && !(auth instanceof AnonymousAuthenticationToken)) {
+            return auth.getName();
+        }
+        return request.getRemoteAddr();
+    }
+}
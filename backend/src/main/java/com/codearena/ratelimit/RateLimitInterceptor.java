@@ -0,0 +1,46 @@
+package com.codearena.ratelimit;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.stereotype.Component;
+
+import java.security.Principal;
+
+/**
+ * Applies the STOMP routes of the {@link RateLimiter} to inbound SEND frames.
+ * An over-limit message is dropped before it reaches a controller or the broker;
+ * the connection stays open.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RateLimitInterceptor implements ChannelInterceptor {
+
+    private final RateLimiter rateLimiter;
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        RateLimiter.Rule rule = rateLimiter.matchStomp(destination);
+        if (rule == null) {
+            return message;
+        }
+
+        // Until CONNECT is authenticated, the session is the caller
+        Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+        String caller = user != null ? user.getName() : SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (rateLimiter.tryAcquire(rule, caller, destination) > 0) {
+            log.debug("Dropped STOMP message to {} from {}: rate limited", destination, caller);
+            return null;
+        }
+        return message;
+    }
+}
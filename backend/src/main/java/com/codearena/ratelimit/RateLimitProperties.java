@@ -0,0 +1,35 @@
+package com.codearena.ratelimit;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Routes under the rate-limit block of application.yml.
+ * The first route whose pattern (and method, for HTTP) matches applies.
+ */
+@Component
+@ConfigurationProperties(prefix = "rate-limit")
+@Data
+public class RateLimitProperties {
+
+    private boolean enabled = true;
+
+    private int maxBuckets = 100_000; // Per route
+
+    private List<Route> stomp = new ArrayList<>();
+
+    private List<Route> http = new ArrayList<>();
+
+    @Data
+    public static class Route {
+        private String name;
+        private String pattern;       // Ant-style, e.g. /app/chat.send/** or /api/rooms/*/ready
+        private List<String> methods; // HTTP only; empty means POST, PUT, PATCH and DELETE
+        private double perSecond;     // Sustained rate
+        private int burst = 1;        // Requests allowed back to back
+    }
+}
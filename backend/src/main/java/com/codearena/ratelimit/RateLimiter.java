@@ -0,0 +1,189 @@
+package com.codearena.ratelimit;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * Token-bucket limits for STOMP sends and HTTP mutations, configured as routes
+ * in {@link RateLimitProperties}.
+ *
+ * There is one bucket per route, caller and concrete destination (e.g. one per
+ * user per room chat), so a flood in one room never throttles the same user
+ * elsewhere. Buckets are created on first use and swept once they have refilled.
+ * Each route holds at most max-buckets of them: past that, refilled buckets are
+ * swept at once and, if that is not enough, arbitrary buckets are evicted.
+ */
+@Component
+@Slf4j
+public class RateLimiter {
+
+    private static final Set<String> MUTATIONS = Set.of("POST", "PUT", "PATCH", "DELETE");
+
+    private final AntPathMatcher matcher = new AntPathMatcher();
+    private final boolean enabled;
+    private final int maxBuckets;
+    private final List<Rule> stompRules;
+    private final List<Rule> httpRules;
+
+    public RateLimiter(RateLimitProperties properties) {
+        this.enabled = properties.isEnabled();
+        this.maxBuckets = Math.max(1, properties.getMaxBuckets());
+        this.stompRules = rules("stomp", properties.getStomp());
+        this.httpRules = rules("http", properties.getHttp());
+        log.info("Rate limits: {} STOMP routes, {} HTTP routes{}", stompRules.size(), httpRules.size(),
+                enabled ? "" : " (disabled)");
+    }
+
+    /**
+     * One configured route with its buckets and counters
+     */
+    public static final class Rule {
+        private final String name;
+        private final String pattern;
+        private final Set<String> methods;
+        private final long intervalNanos;
+        private final int burst;
+        private final Map<String, TokenBucket> buckets = new ConcurrentHashMap<>();
+        private final LongAdder allowed = new LongAdder();
+        private final LongAdder rejected = new LongAdder();
+
+        private Rule(String name, RateLimitProperties.Route route) {
+            this.name = name;
+            this.pattern = route.getPattern();
+            this.methods = route.getMethods() == null || route.getMethods().isEmpty()
+                    ? MUTATIONS
+                    : route.getMethods().stream().map(String::toUpperCase).collect(Collectors.toSet());
+            this.intervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / route.getPerSecond());
+            this.burst = Math.max(1, route.getBurst());
+        }
+    }
+
+    public record RouteStats(String name, String pattern, long allowed, long rejected, int buckets) {
+    }
+
+    /**
+     * Rule for a STOMP SEND destination, or null if it is not limited
+     */
+    public Rule matchStomp(String destination) {
+        if (!enabled || destination == null) {
+            return null;
+        }
+        for (Rule rule : stompRules) {
+            if (matcher.match(rule.pattern, destination)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Rule for an HTTP request, or null if it is not limited
+     */
+    public Rule matchHttp(String method, String path) {
+        if (!enabled) {
+            return null;
+        }
+        for (Rule rule : httpRules) {
+            if (rule.methods.contains(method) && matcher.match(rule.pattern, path)) {
+                return rule;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Take a token for caller on target. Returns 0 when allowed, otherwise the
+     * milliseconds until the next token.
+     */
+    public long tryAcquire(Rule rule, String caller, String target) {
+        String key = caller + '|' + target;
+        TokenBucket bucket = rule.buckets.get(key);
+        if (bucket == null) {
+            if (rule.buckets.size() >= maxBuckets) {
+                trim(rule);
+            }
+            bucket = rule.buckets.computeIfAbsent(key, k -> new TokenBucket(rule.intervalNanos, rule.burst));
+        }
+        long waitNanos = bucket.tryAcquire(System.nanoTime());
+        if (waitNanos == 0) {
+            rule.allowed.increment();
+            return 0;
+        }
+        rule.rejected.increment();
+        return Math.max(1, TimeUnit.NANOSECONDS.toMillis(waitNanos));
+    }
+
+    public List<RouteStats> stats() {
+        List<RouteStats> stats = new ArrayList<>();
+        for (Rule rule : stompRules) {
+            stats.add(stats(rule));
+        }
+        for (Rule rule : httpRules) {
+            stats.add(stats(rule));
+        }
+        return stats;
+    }
+
+    /**
+     * Drop buckets that have refilled; they would be recreated full anyway
+     */
+    @Scheduled(fixedDelayString = "${rate-limit.sweep-interval-ms:60000}")
+    public void sweep() {
+        long now = System.nanoTime();
+        for (Rule rule : stompRules) {
+            rule.buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+        for (Rule rule : httpRules) {
+            rule.buckets.values().removeIf(bucket -> bucket.isFull(now));
+        }
+    }
+
+    // Make room for new buckets: refilled ones first, then whatever comes first in
+    // the map down to 90% of the cap. Evicted callers start again with a full bucket.
+    private void trim(Rule rule) {
+        synchronized (rule) {
+            if (rule.buckets.size() < maxBuckets) {
+                return; // Another thread trimmed meanwhile
+            }
+            long now = System.nanoTime();
+            rule.buckets.values().removeIf(bucket -> bucket.isFull(now));
+            int excess = rule.buckets.size() - maxBuckets * 9 / 10;
+            if (excess > 0) {
+                Iterator<String> keys = rule.buckets.keySet().iterator();
+                for (int i = 0; i < excess && keys.hasNext(); i++) {
+                    keys.next();
+                    keys.remove();
+                }
+                log.warn("Rate limit route {} hit {} buckets, evicted {}", rule.name, maxBuckets, excess);
+            }
+        }
+    }
+
+    private static RouteStats stats(Rule rule) {
+        return new RouteStats(rule.name, rule.pattern, rule.allowed.sum(), rule.rejected.sum(), rule.buckets.size());
+    }
+
+    private static List<Rule> rules(String kind, List<RateLimitProperties.Route> routes) {
+        List<Rule> rules = new ArrayList<>(routes.size());
+        for (int i = 0; i < routes.size(); i++) {
+            RateLimitProperties.Route route = routes.get(i);
+            if (route.getPattern() == null || route.getPerSecond() <= 0) {
+                throw new IllegalStateException("rate-limit." + kind + "[" + i + "] needs a pattern and per-second > 0");
+            }
+            rules.add(new Rule(route.getName() != null ? route.getName() : kind + "-" + i, route));
+        }
+        return rules;
+    }
+}
@@ -0,0 +1,50 @@
+package com.codearena.ratelimit;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free token bucket.
+ *
+ * Kept in its "theoretical arrival time" form (GCRA): instead of a token count
+ * and a refill timestamp, the bucket stores the time at which it would be full
+ * again. Taking a token pushes that time one interval further; the request is
+ * allowed as long as the time stays within burst intervals of now. That is a
+ * single long, so acquiring is one CAS.
+ */
+final class TokenBucket {
+
+    private final long intervalNanos;
+    private final long burstNanos;
+    private final AtomicLong fullAt = new AtomicLong(Long.MIN_VALUE);
+
+    TokenBucket(long intervalNanos, int burst) {
+        this.intervalNanos = intervalNanos;
+        this.burstNanos = intervalNanos * burst;
+    }
+
+    /**
+     * Take one token. Returns 0 if it was available, otherwise the nanos until
+     * one will be (nothing is taken in that case).
+     */
+    long tryAcquire(long now) {
+        while (true) {
+            long current = fullAt.get();
+            long next = Math.max(current, now) + intervalNanos;
+            long wait = next - now - burstNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * True once the bucket has refilled completely; it can then be dropped and
+     * recreated later without changing any outcome
+     */
+    boolean isFull(long now) {
+        return fullAt.get() <= now;
+    }
+}
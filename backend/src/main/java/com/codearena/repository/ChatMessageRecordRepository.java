@@ -0,0 +1,9 @@
+package com.codearena.repository;
+
+import com.codearena.entity.ChatMessageRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface ChatMessageRecordRepository extends JpaRepository<ChatMessageRecord, Long> {
+}
@@ -0,0 +1,18 @@
+package com.codearena.repository;
+
+import com.codearena.entity.CodeBlob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CodeBlobRepository extends JpaRepository<CodeBlob, String> {
+
+    // Identical sources race harmlessly: the first insert wins, the rest are no-ops
+    @Modifying
+    @Query(value = "INSERT INTO code_blobs (hash, data, size, created_at) VALUES (:hash, :data, :size, CURRENT_TIMESTAMP) "
+            + "ON CONFLICT (hash) DO NOTHING", nativeQuery = true)
+    void insertIfAbsent(@Param("hash") String hash, @Param("data") byte[] data, @Param("size") int size);
+}
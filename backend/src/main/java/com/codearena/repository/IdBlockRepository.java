@@ -0,0 +1,9 @@
+package com.codearena.repository;
+
+import com.codearena.entity.IdBlock;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdBlockRepository extends JpaRepository<IdBlock, String> {
+}
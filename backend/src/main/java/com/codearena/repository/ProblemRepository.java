@@ -2,6 +2,7 @@ package com.codearena.repository;
 
 import com.codearena.entity.Problem;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -10,5 +11,9 @@ import java.util.List;
 public interface ProblemRepository extends JpaRepository<Problem, Long> {
     List<Problem> findByDifficulty(Problem.Difficulty difficulty);
 
+    // [difficulty, count]
+    @Query("SELECT p.difficulty, COUNT(p) FROM Problem p GROUP BY p.difficulty")
+    List<Object[]> countByDifficulty();
+
     // List<Problem> findByTagsContaining(String tag);
 }
@@ -2,10 +2,12 @@ package com.codearena.repository;
 
 import com.codearena.entity.RoomParticipant;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,6 +20,8 @@ public interface RoomParticipantRepository extends JpaRepository<RoomParticipant
 
     boolean existsByRoomIdAndUserIdAndLeftAtIsNull(String roomId, String userId);
 
+    boolean existsByRoomIdAndUserId(String roomId, String userId);
+
     @Query("SELECT rp FROM RoomParticipant rp JOIN FETCH rp.room r WHERE rp.userId = :userId AND rp.leftAt IS NULL ORDER BY rp.joinedAt DESC")
     List<RoomParticipant> findActiveRoomsByUserId(@Param("userId") String userId);
 
@@ -26,4 +30,8 @@ public interface RoomParticipantRepository extends JpaRepository<RoomParticipant
     long countByLeftAtIsNull();
 
     List<RoomParticipant> findByUserId(String userId);
+
+    @Modifying
+    @Query("DELETE FROM RoomParticipant rp WHERE rp.room.id IN :roomIds")
+    int deleteByRoomIdIn(@Param("roomIds") Collection<String> roomIds);
 }
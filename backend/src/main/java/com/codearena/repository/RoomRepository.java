@@ -6,6 +6,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -22,6 +23,12 @@ public interface RoomRepository extends JpaRepository<Room, String> {
     @Query("SELECT r FROM Room r LEFT JOIN FETCH r.participants WHERE r.id = :id")
     Optional<Room> findByIdWithParticipants(@Param("id") String id);
 
+    @Query("SELECT DISTINCT r FROM Room r LEFT JOIN FETCH r.participants WHERE r.id IN :ids")
+    List<Room> findAllWithParticipantsByIdIn(@Param("ids") Collection<String> ids);
+
+    @Query("SELECT DISTINCT r FROM Room r LEFT JOIN FETCH r.participants")
+    List<Room> findAllWithParticipants();
+
     // Note: Use findByIdWithParticipants instead as problem relationship was
     // removed
 
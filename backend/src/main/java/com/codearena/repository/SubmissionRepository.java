@@ -1,11 +1,17 @@
 package com.codearena.repository;
 
+import com.codearena.dto.SubmissionSummaryResponse;
 import com.codearena.entity.Submission;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Set;
 import java.util.Optional;
 
 @Repository
@@ -17,4 +23,30 @@ public interface SubmissionRepository extends JpaRepository<Submission, Long> {
     List<Submission> findByUserIdAndProblemId(String userId, Long problemId);
 
     Optional<Submission> findFirstByStatusOrderBySubmittedAtAsc(Submission.Status status);
+
+    String SUMMARY_SELECT = "SELECT new com.codearena.dto.SubmissionSummaryResponse("
+            + "s.id, p.id, p.title, p.difficulty, s.language, s.status, s.executionTime, s.memoryUsed, "
+            + "s.testCasesPassed, s.totalTestCases, s.submittedAt) FROM Submission s JOIN s.problem p ";
+
+    // Keyset pagination over idx_submissions_user_submitted (user_id, submitted_at DESC, id DESC)
+    @Query(SUMMARY_SELECT + "WHERE s.user.id = :userId ORDER BY s.submittedAt DESC, s.id DESC")
+    List<SubmissionSummaryResponse> findHistoryPage(@Param("userId") String userId, Limit limit);
+
+    @Query(SUMMARY_SELECT + "WHERE s.user.id = :userId AND (s.submittedAt < :beforeAt "
+            + "OR (s.submittedAt = :beforeAt AND s.id < :beforeId)) ORDER BY s.submittedAt DESC, s.id DESC")
+    List<SubmissionSummaryResponse> findHistoryPageBefore(@Param("userId") String userId,
+            @Param("beforeAt") LocalDateTime beforeAt, @Param("beforeId") Long beforeId, Limit limit);
+
+    List<Submission> findTop200ByCodeHashIsNullAndLegacyCodeIsNotNull();
+
+    boolean existsByUserIdAndProblemIdAndStatusAndIdNot(String userId, Long problemId, Submission.Status status,
+            Long id);
+
+    // [userId, username, firstAcceptedAt] for every (user, problem) first solved since the cutoff
+    @Query("SELECT s.user.id, s.user.username, MIN(s.submittedAt) FROM Submission s WHERE s.status = 'ACCEPTED' "
+            + "GROUP BY s.user.id, s.user.username, s.problem.id HAVING MIN(s.submittedAt) >= :since")
+    List<Object[]> findFirstAcceptedSolvesSince(@Param("since") LocalDateTime since);
+
+    @Query("SELECT DISTINCT s.problem.id FROM Submission s WHERE s.user.id IN :userIds AND s.status = 'ACCEPTED'")
+    Set<Long> findSolvedProblemIds(@Param("userIds") Collection<String> userIds);
 }
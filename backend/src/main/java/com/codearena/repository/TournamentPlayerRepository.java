@@ -0,0 +1,15 @@
+package com.codearena.repository;
+
+import com.codearena.entity.TournamentPlayer;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface TournamentPlayerRepository extends JpaRepository<TournamentPlayer, Long> {
+    List<TournamentPlayer> findByTournamentIdOrderBySeed(Long tournamentId);
+
+    List<TournamentPlayer> findByTournamentIdInOrderBySeed(Collection<Long> tournamentIds);
+}
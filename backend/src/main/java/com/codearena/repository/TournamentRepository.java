@@ -0,0 +1,12 @@
+package com.codearena.repository;
+
+import com.codearena.entity.Tournament;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TournamentRepository extends JpaRepository<Tournament, Long> {
+    List<Tournament> findByStatus(Tournament.Status status);
+}
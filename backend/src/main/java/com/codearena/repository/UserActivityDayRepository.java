@@ -0,0 +1,14 @@
+package com.codearena.repository;
+
+import com.codearena.entity.UserActivityDay;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+@Repository
+public interface UserActivityDayRepository extends JpaRepository<UserActivityDay, UserActivityDay.Key> {
+
+    List<UserActivityDay> findByUserIdAndDayGreaterThanEqualOrderByDayAsc(String userId, LocalDate since);
+}
@@ -0,0 +1,54 @@
+package com.codearena.room;
+
+import com.codearena.dto.ChatMessage;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Fixed-size ring of a room's most recent chat messages.
+ *
+ * Lock-free: a writer claims a sequence number and stores the message in its
+ * slot, overwriting the oldest one. Each slot remembers the sequence it holds,
+ * so a reader skips slots that were overwritten or not yet filled while it was
+ * copying instead of returning them out of order.
+ */
+public final class ChatHistory {
+
+    private record Entry(long seq, ChatMessage message) {
+    }
+
+    private final AtomicReferenceArray<Entry> slots;
+    private final AtomicLong next = new AtomicLong();
+
+    public ChatHistory(int capacity) {
+        this.slots = new AtomicReferenceArray<>(capacity);
+    }
+
+    public void append(ChatMessage message) {
+        long seq = next.getAndIncrement();
+        slots.set(index(seq), new Entry(seq, message));
+    }
+
+    /**
+     * Messages currently held, oldest first
+     */
+    public List<ChatMessage> recent() {
+        long end = next.get();
+        long start = Math.max(0, end - slots.length());
+        List<ChatMessage> messages = new ArrayList<>((int) (end - start));
+        for (long seq = start; seq < end; seq++) {
+            Entry entry = slots.get(index(seq));
+            if (entry != null && entry.seq() == seq) {
+                messages.add(entry.message());
+            }
+        }
+        return messages;
+    }
+
+    private int index(long seq) {
+        return (int) (seq % slots.length());
+    }
+}
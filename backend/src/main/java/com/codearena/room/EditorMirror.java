@@ -0,0 +1,135 @@
+package com.codearena.room;
+
+import com.codearena.dto.EditorEdit;
+import com.codearena.dto.EditorFrame;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Server copy of one participant's editor, replayed to spectators.
+ *
+ * Applied edits become numbered {@link EditorFrame} deltas. A keyframe
+ * (the compressed buffer) is taken on demand; the deltas since the last one
+ * are kept so a late viewer can be brought up to date from keyframe + tail.
+ * All methods synchronize on the mirror: edits of one author may arrive on any
+ * inbound thread, keyframes are taken by the scheduler. Callers that publish
+ * the returned frames hold the same lock to keep them in order.
+ */
+public class EditorMirror {
+
+    private final String userId;
+    private final String username;
+    private final int maxChars;
+
+    private final StringBuilder text = new StringBuilder();
+    private long seq;
+    private long rev;
+    private EditorFrame keyframe;
+    private final List<EditorFrame> tail = new ArrayList<>();
+
+    public EditorMirror(String userId, String username, int maxChars) {
+        this.userId = userId;
+        this.username = username;
+        this.maxChars = maxChars;
+        this.keyframe = EditorFrame.keyframe(userId, username, 0, compress(""), 0);
+    }
+
+    /**
+     * Apply an edit from the author
+     *
+     * @return the delta to broadcast, or null when the edit changed nothing or
+     *         does not apply (out of order, out of range, too large)
+     */
+    public synchronized EditorFrame apply(EditorEdit edit) {
+        int at;
+        int del;
+        String ins;
+        if (edit.getText() != null) {
+            // Checkpoint: resynchronize on the author's buffer, sending only what differs
+            rev = edit.getRev();
+            String next = edit.getText();
+            if (next.length() > maxChars) {
+                return null;
+            }
+            int prefix = 0;
+            int max = Math.min(text.length(), next.length());
+            while (prefix < max && text.charAt(prefix) == next.charAt(prefix)) {
+                prefix++;
+            }
+            int suffix = 0;
+            while (suffix < max - prefix
+                    && text.charAt(text.length() - 1 - suffix) == next.charAt(next.length() - 1 - suffix)) {
+                suffix++;
+            }
+            at = prefix;
+            del = text.length() - prefix - suffix;
+            ins = next.substring(prefix, next.length() - suffix);
+        } else {
+            if (edit.getRev() != rev + 1) {
+                return null;
+            }
+            at = edit.getAt();
+            del = edit.getDel();
+            ins = edit.getIns() != null ? edit.getIns() : "";
+            if (at < 0 || del < 0 || at + del > text.length()
+                    || text.length() - del + ins.length() > maxChars) {
+                return null;
+            }
+            rev = edit.getRev();
+        }
+        if (del == 0 && ins.isEmpty()) {
+            return null;
+        }
+
+        text.replace(at, at + del, ins);
+        EditorFrame delta = EditorFrame.delta(userId, username, ++seq, at, del, ins);
+        tail.add(delta);
+        return delta;
+    }
+
+    /**
+     * Deltas applied since the last keyframe
+     */
+    public synchronized int pendingDeltas() {
+        return tail.size();
+    }
+
+    /**
+     * Take a keyframe of the current buffer if anything changed since the last one
+     */
+    public synchronized EditorFrame takeKeyframe() {
+        if (tail.isEmpty()) {
+            return null;
+        }
+        keyframe = EditorFrame.keyframe(userId, username, seq, compress(text.toString()), text.length());
+        tail.clear();
+        return keyframe;
+    }
+
+    /**
+     * Last keyframe followed by the deltas since, enough to rebuild the buffer
+     */
+    public synchronized List<EditorFrame> state() {
+        List<EditorFrame> frames = new ArrayList<>(tail.size() + 1);
+        frames.add(keyframe);
+        frames.addAll(tail);
+        return frames;
+    }
+
+    private static String compress(String value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(value.length() / 3 + 32);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(bytes)) {
+            gzip.write(value.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return Base64.getEncoder().encodeToString(bytes.toByteArray());
+    }
+}
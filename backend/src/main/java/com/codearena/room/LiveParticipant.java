@@ -0,0 +1,41 @@
+package com.codearena.room;
+
+import com.codearena.entity.RoomParticipant;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+
+/**
+ * In-memory participant of a {@link LiveRoom}. Confined to the owning room's mailbox.
+ */
+@Getter
+@Setter
+public class LiveParticipant {
+
+    private volatile Long id; // Assigned once the row is written behind
+    private final String userId;
+    private final String username;
+    private final LocalDateTime joinedAt;
+    private boolean ready;
+    private LocalDateTime leftAt;
+
+    public LiveParticipant(String userId, String username, LocalDateTime joinedAt) {
+        this.userId = userId;
+        this.username = username;
+        this.joinedAt = joinedAt;
+    }
+
+    public static LiveParticipant fromEntity(RoomParticipant entity) {
+        LiveParticipant participant = new LiveParticipant(entity.getUserId(), entity.getUsername(),
+                entity.getJoinedAt());
+        participant.setId(entity.getId());
+        participant.setReady(Boolean.TRUE.equals(entity.getIsReady()));
+        participant.setLeftAt(entity.getLeftAt());
+        return participant;
+    }
+
+    public boolean hasLeft() {
+        return leftAt != null;
+    }
+}
@@ -0,0 +1,195 @@
+package com.codearena.room;
+
+import com.codearena.dto.RoomEvent;
+import com.codearena.dto.RoomResponse;
+import com.codearena.entity.Room;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.time.LocalDateTime;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+/**
+ * Authoritative in-memory state of a room held by the {@link RoomRegistry}.
+ * The database copy is written behind by {@link RoomWriteBehind}.
+ *
+ * Mutable state is confined to the room's mailbox on the {@link RoomExecutor}.
+ * Other threads read the immutable fields or the last published {@link #getView() view}.
+ */
+@Getter
+@Setter
+public class LiveRoom {
+
+    private static final int EVENT_LOG_SIZE = 128;
+
+    private final String id;
+    private final String createdBy;
+    private final Room.ProblemSelectionMode problemSelectionMode;
+    private final int maxParticipants;
+    private final boolean isPrivate;
+    private final LocalDateTime createdAt;
+    private final ProblemFilter problemFilter;
+
+    private Long problemId;
+    private Room.RoomStatus status = Room.RoomStatus.WAITING;
+    private String winnerId;
+    private LocalDateTime startedAt;
+    private LocalDateTime lastEmptyAt;
+
+    // Chat / event batching tick for this room's topics (0 = send each message at once).
+    // Read outside the mailbox by the chat handler.
+    private volatile int coalesceMillis;
+
+    // Every join ever made, including participants who left (mirrors room_participants)
+    private final List<LiveParticipant> participants = new ArrayList<>();
+
+    // Scoreboard rows by user, created on a participant's first verdict
+    @Getter(lombok.AccessLevel.NONE)
+    private final Map<String, LiveScore> scores = new HashMap<>();
+
+    // Event version, bumped by every append
+    @Setter(lombok.AccessLevel.NONE)
+    private long version;
+
+    // Recent events kept for replay (oldest first) and events not yet broadcast
+    @Getter(lombok.AccessLevel.NONE)
+    private final ArrayDeque<RoomEvent> eventLog = new ArrayDeque<>();
+    @Getter(lombok.AccessLevel.NONE)
+    private final List<RoomEvent> pendingEvents = new ArrayList<>();
+
+    // Response as of the last command; served to readers without entering the mailbox
+    @Setter(lombok.AccessLevel.NONE)
+    private volatile RoomResponse view;
+
+    public LiveRoom(String id, String createdBy, Room.ProblemSelectionMode problemSelectionMode,
+            int maxParticipants, boolean isPrivate, LocalDateTime createdAt, ProblemFilter problemFilter) {
+        this.id = id;
+        this.createdBy = createdBy;
+        this.problemSelectionMode = problemSelectionMode;
+        this.maxParticipants = maxParticipants;
+        this.isPrivate = isPrivate;
+        this.createdAt = createdAt;
+        this.problemFilter = problemFilter;
+    }
+
+    public static LiveRoom fromEntity(Room entity) {
+        LiveRoom room = new LiveRoom(entity.getId(), entity.getCreatedBy(), entity.getProblemSelectionMode(),
+                entity.getMaxParticipants(), Boolean.TRUE.equals(entity.getIsPrivate()), entity.getCreatedAt(),
+                new ProblemFilter(entity.getProblemDifficulty(), entity.getProblemTag(),
+                        Boolean.TRUE.equals(entity.getUnsolvedOnly())));
+        room.setProblemId(entity.getProblemId());
+        room.setStatus(entity.getStatus());
+        room.setWinnerId(entity.getWinnerId());
+        room.setStartedAt(entity.getStartedAt());
+        room.setLastEmptyAt(entity.getLastEmptyAt());
+        entity.getParticipants().forEach(p -> room.participants.add(LiveParticipant.fromEntity(p)));
+        room.publish();
+        return room;
+    }
+
+    /**
+     * Rebuild the published view. Call at the end of every command that changes the room.
+     */
+    public RoomResponse publish() {
+        view = RoomResponse.fromLive(this);
+        return view;
+    }
+
+    /**
+     * Record an event under the next version. It is broadcast when the room is
+     * next committed or removed.
+     */
+    public RoomEvent append(RoomEvent event) {
+        event.setVersion(++version);
+        event.setRoomId(id);
+        eventLog.addLast(event);
+        if (eventLog.size() > EVENT_LOG_SIZE) {
+            eventLog.removeFirst();
+        }
+        pendingEvents.add(event);
+        return event;
+    }
+
+    /**
+     * Events after the given version, or null if some of them are no longer retained
+     */
+    public List<RoomEvent> eventsSince(long since) {
+        if (since > version) {
+            return null; // Version from before a restart
+        }
+        long oldest = eventLog.isEmpty() ? version + 1 : eventLog.peekFirst().getVersion();
+        if (since < oldest - 1) {
+            return null;
+        }
+        return eventLog.stream().filter(e -> e.getVersion() > since).collect(Collectors.toList());
+    }
+
+    List<RoomEvent> drainPendingEvents() {
+        if (pendingEvents.isEmpty()) {
+            return List.of();
+        }
+        List<RoomEvent> drained = new ArrayList<>(pendingEvents);
+        pendingEvents.clear();
+        return drained;
+    }
+
+    // Carries state that only lives in memory over a restart
+    void restore(long version, List<LiveScore> restoredScores) {
+        this.version = version;
+        restoredScores.forEach(score -> scores.put(score.getUserId(), score));
+    }
+
+    public LiveScore score(String userId, String username) {
+        return scores.computeIfAbsent(userId, id -> new LiveScore(id, username));
+    }
+
+    /**
+     * Scoreboard rows best first: solved, then lower penalty, then more tests passed, then fewer attempts
+     */
+    public List<LiveScore> rankedScores() {
+        return scores.values().stream().sorted(SCORE_ORDER).collect(Collectors.toList());
+    }
+
+    private static final Comparator<LiveScore> SCORE_ORDER = Comparator
+            .comparing(LiveScore::isSolved).reversed()
+            .thenComparingLong(LiveScore::getPenaltySeconds)
+            .thenComparing(Comparator.comparingInt(LiveScore::getTestCasesPassed).reversed())
+            .thenComparingInt(LiveScore::getAttempts)
+            .thenComparing(LiveScore::getUserId);
+
+    public Optional<LiveParticipant> findActive(String userId) {
+        return participants.stream()
+                .filter(p -> !p.hasLeft() && p.getUserId().equals(userId))
+                .findFirst();
+    }
+
+    /**
+     * Whether the user ever joined this room, including participants who since left
+     */
+    public boolean hasJoined(String userId) {
+        return participants.stream().anyMatch(p -> p.getUserId().equals(userId));
+    }
+
+    public List<LiveParticipant> activeParticipants() {
+        return participants.stream()
+                .filter(p -> !p.hasLeft())
+                .collect(Collectors.toList());
+    }
+
+    public int activeCount() {
+        return (int) participants.stream().filter(p -> !p.hasLeft()).count();
+    }
+
+    public LiveParticipant addParticipant(String userId, String username, LocalDateTime joinedAt) {
+        LiveParticipant participant = new LiveParticipant(userId, username, joinedAt);
+        participants.add(participant);
+        return participant;
+    }
+}
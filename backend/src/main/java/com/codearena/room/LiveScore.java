@@ -0,0 +1,65 @@
+package com.codearena.room;
+
+import lombok.Getter;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+
+/**
+ * A participant's row on a room's scoreboard, updated as each verdict lands.
+ * Confined to the owning room's mailbox.
+ */
+@Getter
+public class LiveScore {
+
+    // Added to the solve time for every rejected attempt before the first AC
+    public static final long WRONG_ATTEMPT_PENALTY_SECONDS = 5 * 60;
+
+    private final String userId;
+    private final String username;
+    private int attempts;
+    private int testCasesPassed;
+    private int totalTestCases;
+    private LocalDateTime solvedAt;
+    private long penaltySeconds;
+
+    public LiveScore(String userId, String username) {
+        this.userId = userId;
+        this.username = username;
+    }
+
+    // Restored from a snapshot
+    LiveScore(String userId, String username, int attempts, int testCasesPassed, int totalTestCases,
+            LocalDateTime solvedAt, long penaltySeconds) {
+        this.userId = userId;
+        this.username = username;
+        this.attempts = attempts;
+        this.testCasesPassed = testCasesPassed;
+        this.totalTestCases = totalTestCases;
+        this.solvedAt = solvedAt;
+        this.penaltySeconds = penaltySeconds;
+    }
+
+    public boolean isSolved() {
+        return solvedAt != null;
+    }
+
+    /**
+     * Apply a verdict. Verdicts after the first AC are ignored.
+     */
+    public void record(boolean accepted, int passed, int total, LocalDateTime submittedAt, LocalDateTime startedAt) {
+        if (isSolved()) {
+            return;
+        }
+        attempts++;
+        if (passed > testCasesPassed || total != totalTestCases) {
+            testCasesPassed = Math.max(testCasesPassed, passed);
+            totalTestCases = total;
+        }
+        if (accepted) {
+            solvedAt = submittedAt;
+            long elapsed = startedAt != null ? Math.max(0, Duration.between(startedAt, submittedAt).getSeconds()) : 0;
+            penaltySeconds = elapsed + (attempts - 1) * WRONG_ATTEMPT_PENALTY_SECONDS;
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.codearena.room;
+
+import com.codearena.entity.Problem;
+
+/**
+ * Constraints on the problem picked for a RANDOM room. Null fields match anything.
+ */
+public record ProblemFilter(Problem.Difficulty difficulty, String tag, boolean unsolvedOnly) {
+
+    public static final ProblemFilter ANY = new ProblemFilter(null, null, false);
+}
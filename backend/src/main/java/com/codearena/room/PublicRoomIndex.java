@@ -0,0 +1,145 @@
+package com.codearena.room;
+
+import com.codearena.dto.PublicRoomsDelta;
+import com.codearena.dto.RoomResponse;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Sorted index of the public WAITING / ACTIVE rooms, newest first.
+ *
+ * Kept up to date from {@link RoomRegistry} commits, so listing never scans
+ * every room. Each change bumps the version and is pushed as a
+ * {@link PublicRoomsDelta} on /topic/rooms/public; the full listing is a cached
+ * snapshot rebuilt on the first read after a change.
+ */
+@Component
+@DependsOn("roomWriteBehind") // Seeded from the rooms it rebuilds at startup
+@RequiredArgsConstructor
+public class PublicRoomIndex implements RoomListener {
+
+    public static final String TOPIC = "/topic/rooms/public";
+
+    private final RoomRegistry registry;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // Guarded by "this"
+    private final TreeMap<SortKey, RoomResponse> rooms = new TreeMap<>();
+    private final Map<String, SortKey> keys = new HashMap<>();
+    private long version;
+
+    private volatile Snapshot snapshot = new Snapshot(0, List.of());
+
+    // Deltas queued in version order under the lock and sent after it is released
+    private final Queue<PublicRoomsDelta> outbox = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean sending = new AtomicBoolean();
+
+    public record Snapshot(long version, List<RoomResponse> rooms) {
+    }
+
+    @PostConstruct
+    public void init() {
+        registry.addListener(this);
+        // Rooms restored by RoomWriteBehind before we registered
+        registry.all().forEach(room -> roomChanged(room, room.getView()));
+    }
+
+    /**
+     * Current listing and the version it reflects
+     */
+    public Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current.version() == version()) {
+            return current;
+        }
+        synchronized (this) {
+            if (snapshot.version() != version) {
+                snapshot = new Snapshot(version, Collections.unmodifiableList(new ArrayList<>(rooms.values())));
+            }
+            return snapshot;
+        }
+    }
+
+    public synchronized long version() {
+        return version;
+    }
+
+    @Override
+    public void roomChanged(LiveRoom room, RoomResponse view) {
+        if (room.isPrivate() || view == null) {
+            return;
+        }
+        if (!isListed(view.getStatus())) {
+            unlist(room.getId());
+            return;
+        }
+        synchronized (this) {
+            SortKey key = new SortKey(room.getCreatedAt(), room.getId());
+            keys.put(room.getId(), key);
+            rooms.put(key, view);
+            outbox.add(new PublicRoomsDelta(++version, "UPSERT", room.getId(), view));
+        }
+        push();
+    }
+
+    @Override
+    public void roomRemoved(LiveRoom room) {
+        unlist(room.getId());
+    }
+
+    private void unlist(String roomId) {
+        synchronized (this) {
+            SortKey key = keys.remove(roomId);
+            if (key == null) {
+                return;
+            }
+            rooms.remove(key);
+            outbox.add(new PublicRoomsDelta(++version, "REMOVE", roomId, null));
+        }
+        push();
+    }
+
+    // One sender at a time drains the outbox, so subscribers see versions in order
+    private void push() {
+        while (!outbox.isEmpty() && sending.compareAndSet(false, true)) {
+            try {
+                PublicRoomsDelta delta;
+                while ((delta = outbox.poll()) != null) {
+                    messagingTemplate.convertAndSend(TOPIC, delta);
+                }
+            } finally {
+                sending.set(false);
+            }
+        }
+    }
+
+    private static boolean isListed(String status) {
+        return "waiting".equals(status) || "active".equals(status);
+    }
+
+    private record SortKey(LocalDateTime createdAt, String roomId) implements Comparable<SortKey> {
+        private static final Comparator<SortKey> NEWEST_FIRST = Comparator
+                .comparing(SortKey::createdAt, Comparator.reverseOrder())
+                .thenComparing(SortKey::roomId);
+
+        @Override
+        public int compareTo(SortKey other) {
+            return NEWEST_FIRST.compare(this, other);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.codearena.room;
+
+import com.codearena.dto.RoomResponse;
+import com.codearena.websocket.TopicCoalescer;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+/**
+ * Sends the events a command appended to a room once the command commits
+ * (or removes) the room, so subscribers never see an event ahead of the state
+ * served by GET /api/rooms/{id}. Rooms with a coalescing tick get their
+ * events batched per tick.
+ */
+@Component
+@RequiredArgsConstructor
+public class RoomEventBroadcaster implements RoomListener {
+
+    private final RoomRegistry registry;
+    private final TopicCoalescer coalescer;
+
+    @PostConstruct
+    public void init() {
+        registry.addListener(this);
+    }
+
+    public static String topic(String roomId) {
+        return "/topic/room/" + roomId + "/events";
+    }
+
+    @Override
+    public void roomChanged(LiveRoom room, RoomResponse view) {
+        send(room);
+    }
+
+    @Override
+    public void roomRemoved(LiveRoom room) {
+        send(room);
+    }
+
+    private void send(LiveRoom room) {
+        int tickMs = room.getCoalesceMillis();
+        room.drainPendingEvents().forEach(event -> coalescer.send(topic(room.getId()), event, tickMs));
+    }
+}
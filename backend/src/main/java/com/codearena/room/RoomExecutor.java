@@ -0,0 +1,174 @@
+package com.codearena.room;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Runs every command for a room through that room's mailbox.
+ *
+ * Commands for one room execute one at a time in submission order; commands for
+ * different rooms run in parallel on a shared pool. A {@link LiveRoom}'s mutable
+ * state is only touched from inside its mailbox, so check-then-act sequences
+ * (capacity, status) need no locks, row locks or retries.
+ *
+ * Commands must not block on I/O or wait on another room's mailbox.
+ *
+ * Only rooms in the {@link RoomRegistry} get a mailbox. Commands for any other ID
+ * fail with "Room not found" without being queued, so unknown or expired IDs
+ * cannot grow the mailbox map.
+ */
+@Component
+@Slf4j
+public class RoomExecutor {
+
+    // Commands drained per turn before yielding the thread to other rooms
+    private static final int DRAIN_BATCH = 32;
+
+    private static final ThreadLocal<String> CURRENT_ROOM = new ThreadLocal<>();
+
+    private final RoomRegistry registry;
+    private final ExecutorService pool;
+    private final ConcurrentHashMap<String, Mailbox> mailboxes = new ConcurrentHashMap<>();
+
+    public RoomExecutor(RoomRegistry registry, @Value("${rooms.executor.threads:0}") int threads) {
+        this.registry = registry;
+        int size = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        AtomicInteger counter = new AtomicInteger();
+        this.pool = Executors.newFixedThreadPool(size, r -> {
+            Thread t = new Thread(r, "room-exec-" + counter.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        });
+        log.info("Room executor started with {} threads", size);
+    }
+
+    /**
+     * Queue a command on the room's mailbox.
+     * The future fails with "Room not found" if the room is not in the registry.
+     */
+    public <T> CompletableFuture<T> submit(String roomId, Supplier<T> command) {
+        Mailbox mailbox = mailbox(roomId);
+        if (mailbox == null) {
+            return CompletableFuture.failedFuture(new RuntimeException("Room not found"));
+        }
+        CompletableFuture<T> future = new CompletableFuture<>();
+        mailbox.enqueue(() -> {
+            try {
+                future.complete(command.get());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            }
+        });
+        return future;
+    }
+
+    /**
+     * Run a command on the room's mailbox and wait for its result.
+     * Exceptions thrown by the command are rethrown unchanged.
+     */
+    public <T> T call(String roomId, Supplier<T> command) {
+        // Already inside this room's mailbox: queueing would wait on ourselves
+        if (roomId.equals(CURRENT_ROOM.get())) {
+            return command.get();
+        }
+        try {
+            return submit(roomId, command).join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    public void run(String roomId, Runnable command) {
+        call(roomId, () -> {
+            command.run();
+            return null;
+        });
+    }
+
+    private Mailbox mailbox(String roomId) {
+        Mailbox mailbox = mailboxes.get(roomId);
+        if (mailbox != null) {
+            return mailbox;
+        }
+        if (!registry.contains(roomId)) {
+            return null;
+        }
+        mailbox = mailboxes.computeIfAbsent(roomId, Mailbox::new);
+        if (!registry.contains(roomId)) {
+            // Removed and retired meanwhile; the command still runs, but the mailbox is not kept
+            mailboxes.remove(roomId, mailbox);
+        }
+        return mailbox;
+    }
+
+    /**
+     * Forget a room's mailbox once the room is gone. Commands already queued still run.
+     */
+    public void retire(String roomId) {
+        mailboxes.remove(roomId);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        pool.shutdown();
+        pool.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private final class Mailbox implements Runnable {
+        private final String roomId;
+        private final Queue<Runnable> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        Mailbox(String roomId) {
+            this.roomId = roomId;
+        }
+
+        void enqueue(Runnable command) {
+            queue.add(command);
+            if (scheduled.compareAndSet(false, true)) {
+                pool.execute(this);
+            }
+        }
+
+        @Override
+        public void run() {
+            CURRENT_ROOM.set(roomId);
+            try {
+                for (int i = 0; i < DRAIN_BATCH; i++) {
+                    Runnable command = queue.poll();
+                    if (command == null) {
+                        break;
+                    }
+                    command.run();
+                }
+            } finally {
+                CURRENT_ROOM.remove();
+                scheduled.set(false);
+                // Re-arm if commands arrived after the last poll
+                if (!queue.isEmpty() && scheduled.compareAndSet(false, true)) {
+                    pool.execute(this);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.codearena.room;
+
+import com.codearena.entity.IdBlock;
+import com.codearena.repository.IdBlockRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.orm.ObjectOptimisticLockingFailureException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Hands out 6-character base36 room codes without probing for collisions.
+ *
+ * Each node reserves a block of sequence numbers from the shared id_blocks
+ * counter and numbers rooms from it. A sequence number is turned into a code
+ * by a keyed Feistel permutation of [0, 36^6), so codes are unique for as long
+ * as the counter does not wrap, yet look random and cannot be enumerated
+ * without the key. The key has no default and startup fails without one: a
+ * published key would make every code predictable from its sequence number.
+ */
+@Component
+@Slf4j
+public class RoomIdAllocator {
+
+    private static final String BLOCK_NAME = "room_id";
+    private static final String ALPHABET = "0123456789ABCDEFGHIJKLMNOPQRSTUVWXYZ";
+    private static final int LENGTH = 6;
+    private static final long SPACE = 2_176_782_336L; // 36^6
+    private static final int ROUNDS = 4;
+
+    private final IdBlockRepository idBlockRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final int blockSize;
+    private final int[] roundKeys = new int[ROUNDS];
+
+    // Guarded by "this": the reserved block is [next, end)
+    private long next;
+    private long end;
+
+    public RoomIdAllocator(IdBlockRepository idBlockRepository,
+            TransactionTemplate transactionTemplate,
+            @Value("${rooms.id.key}") String key,
+            @Value("${rooms.id.block-size:1000}") int blockSize) {
+        this.idBlockRepository = idBlockRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.blockSize = Math.max(1, blockSize);
+        if (key == null || key.isBlank()) {
+            throw new IllegalStateException("rooms.id.key is not set; set ROOM_ID_KEY to a random secret shared by all nodes");
+        }
+        byte[] digest = sha256(key);
+        for (int i = 0; i < ROUNDS; i++) {
+            roundKeys[i] = ((digest[4 * i] & 0xFF) << 24) | ((digest[4 * i + 1] & 0xFF) << 16)
+                    | ((digest[4 * i + 2] & 0xFF) << 8) | (digest[4 * i + 3] & 0xFF);
+        }
+    }
+
+    /**
+     * Next room code
+     */
+    public synchronized String next() {
+        if (next >= end) {
+            reserveBlock();
+        }
+        return encode(permute(next++ % SPACE));
+    }
+
+    private void reserveBlock() {
+        for (int attempt = 0; attempt < 5; attempt++) {
+            try {
+                Long start = transactionTemplate.execute(tx -> {
+                    IdBlock block = idBlockRepository.findById(BLOCK_NAME).orElseGet(() -> new IdBlock(BLOCK_NAME, 0L, null));
+                    long first = block.getNextValue();
+                    block.setNextValue(first + blockSize);
+                    idBlockRepository.save(block);
+                    return first;
+                });
+                next = start;
+                end = start + blockSize;
+                log.info("Reserved room ID block [{}, {})", next, end);
+                return;
+            } catch (ObjectOptimisticLockingFailureException | DataIntegrityViolationException e) {
+                // Another node reserved concurrently; read the new counter and retry
+                log.debug("Room ID block reservation raced, retrying: {}", e.getMessage());
+            }
+        }
+        throw new RuntimeException("Could not reserve a room ID block");
+    }
+
+    // Feistel network on 32 bits, cycle-walked until the result falls inside [0, 36^6)
+    private long permute(long value) {
+        long x = value;
+        do {
+            x = feistel((int) x) & 0xFFFFFFFFL;
+        } while (x >= SPACE);
+        return x;
+    }
+
+    private int feistel(int x) {
+        int left = x >>> 16;
+        int right = x & 0xFFFF;
+        for (int round = 0; round < ROUNDS; round++) {
+            int mixed = left ^ (mix(right ^ roundKeys[round]) & 0xFFFF);
+            left = right;
+            right = mixed;
+        }
+        return (left << 16) | right;
+    }
+
+    private static int mix(int h) {
+        h ^= h >>> 16;
+        h *= 0x85EBCA6B;
+        h ^= h >>> 13;
+        h *= 0xC2B2AE35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    private static String encode(long value) {
+        char[] code = new char[LENGTH];
+        for (int i = LENGTH - 1; i >= 0; i--) {
+            code[i] = ALPHABET.charAt((int) (value % 36));
+            value /= 36;
+        }
+        return new String(code);
+    }
+
+    private static byte[] sha256(String key) {
+        try {
+            return MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.codearena.room;
+
+import com.codearena.dto.RoomResponse;
+
+/**
+ * Observes changes to rooms in the {@link RoomRegistry}.
+ * Callbacks run inside the room's mailbox and must not block.
+ */
+public interface RoomListener {
+
+    /**
+     * A room was committed or reloaded; view is its newly published state
+     */
+    void roomChanged(LiveRoom room, RoomResponse view);
+
+    /**
+     * A room was removed; it is no longer in the registry
+     */
+    void roomRemoved(LiveRoom room);
+}
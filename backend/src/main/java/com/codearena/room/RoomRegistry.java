@@ -0,0 +1,141 @@
+package com.codearena.room;
+
+import com.codearena.dto.RoomResponse;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Source of truth for live rooms. Room operations read and mutate the
+ * {@link LiveRoom}s held here and commit them; {@link RoomWriteBehind}
+ * persists dirty and deleted rooms asynchronously in batches, and
+ * {@link RoomListener}s are told about every commit and removal.
+ */
+@Component
+public class RoomRegistry {
+
+    private final ConcurrentHashMap<String, LiveRoom> rooms = new ConcurrentHashMap<>();
+    private final Set<String> dirty = ConcurrentHashMap.newKeySet();
+    private final Set<String> deleted = ConcurrentHashMap.newKeySet();
+    private final List<RoomListener> listeners = new CopyOnWriteArrayList<>();
+
+    public void addListener(RoomListener listener) {
+        listeners.add(listener);
+    }
+
+    public Optional<LiveRoom> find(String roomId) {
+        return Optional.ofNullable(rooms.get(roomId));
+    }
+
+    public LiveRoom get(String roomId) {
+        LiveRoom room = rooms.get(roomId);
+        if (room == null) {
+            throw new RuntimeException("Room not found");
+        }
+        return room;
+    }
+
+    public boolean contains(String roomId) {
+        return rooms.containsKey(roomId);
+    }
+
+    public Collection<LiveRoom> all() {
+        return rooms.values();
+    }
+
+    public int size() {
+        return rooms.size();
+    }
+
+    /**
+     * Register a newly created room. Returns false if the ID is already taken.
+     */
+    public boolean add(LiveRoom room) {
+        if (rooms.putIfAbsent(room.getId(), room) != null) {
+            return false;
+        }
+        // A pending delete of a previous room with this ID still runs first
+        dirty.add(room.getId());
+        return true;
+    }
+
+    /**
+     * Register a room loaded from the database (already persisted, so not dirty)
+     */
+    void load(LiveRoom room) {
+        rooms.put(room.getId(), room);
+    }
+
+    /**
+     * Register a room found in the database after startup. Returns false if the ID is already held.
+     */
+    boolean loadIfAbsent(LiveRoom room) {
+        return rooms.putIfAbsent(room.getId(), room) == null;
+    }
+
+    /**
+     * Publish a room's new state, queue it for write-behind and notify listeners.
+     * Must run inside the room's mailbox.
+     */
+    public RoomResponse commit(LiveRoom room) {
+        RoomResponse view = room.publish();
+        markDirty(room.getId());
+        listeners.forEach(l -> l.roomChanged(room, view));
+        return view;
+    }
+
+    /**
+     * Republish a room whose persisted state changed (e.g. new IDs) without marking it dirty
+     */
+    void refresh(LiveRoom room) {
+        RoomResponse view = room.publish();
+        if (rooms.get(room.getId()) == room) {
+            listeners.forEach(l -> l.roomChanged(room, view));
+        }
+    }
+
+    public void markDirty(String roomId) {
+        if (rooms.containsKey(roomId)) {
+            dirty.add(roomId);
+        }
+    }
+
+    public LiveRoom remove(String roomId) {
+        LiveRoom room = rooms.remove(roomId);
+        if (room != null) {
+            dirty.remove(roomId);
+            deleted.add(roomId);
+            listeners.forEach(l -> l.roomRemoved(room));
+        }
+        return room;
+    }
+
+    void requeue(List<String> dirtyIds, List<String> deletedIds) {
+        deleted.addAll(deletedIds);
+        dirtyIds.forEach(this::markDirty);
+    }
+
+    List<String> drainDirty() {
+        return drain(dirty);
+    }
+
+    List<String> drainDeleted() {
+        return drain(deleted);
+    }
+
+    private static List<String> drain(Set<String> set) {
+        List<String> drained = new ArrayList<>();
+        for (String id : set) {
+            if (set.remove(id)) {
+                drained.add(id);
+            }
+        }
+        return drained;
+    }
+}
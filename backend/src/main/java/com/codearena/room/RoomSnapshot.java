@@ -0,0 +1,254 @@
+package com.codearena.room;
+
+import com.codearena.entity.Problem;
+import com.codearena.entity.Room;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Binary snapshot file of the live rooms, so a restart does not have to
+ * rebuild every room through JPA.
+ *
+ * Each room is encoded with its participants, scoreboard rows and event
+ * version. The file is written to a temp file and moved into place, so a crash
+ * mid-write leaves the previous snapshot intact. Reading maps the file and
+ * decodes straight from the mapped buffer. A missing, corrupt or stale
+ * snapshot reads as empty and the caller falls back to the database.
+ */
+@Component
+@Slf4j
+public class RoomSnapshot {
+
+    private static final int MAGIC = 0x43415253; // "CARS"
+    private static final int FORMAT = 2; // 2: coalescing tick
+    private static final long NO_TIME = Long.MIN_VALUE;
+
+    private final Path path;
+    private final Duration maxAge;
+
+    public RoomSnapshot(@Value("${rooms.snapshot.path:data/rooms.snapshot}") String path,
+            @Value("${rooms.snapshot.max-age-minutes:30}") long maxAgeMinutes) {
+        this.path = Paths.get(path);
+        this.maxAge = Duration.ofMinutes(maxAgeMinutes);
+    }
+
+    public record Loaded(Instant writtenAt, List<LiveRoom> rooms) {
+    }
+
+    /**
+     * Encode one room. Must run inside the room's mailbox.
+     */
+    byte[] encode(LiveRoom room) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            writeString(out, room.getId());
+            writeString(out, room.getCreatedBy());
+            writeString(out, room.getProblemSelectionMode().name());
+            out.writeInt(room.getMaxParticipants());
+            out.writeBoolean(room.isPrivate());
+            writeTime(out, room.getCreatedAt());
+            ProblemFilter filter = room.getProblemFilter();
+            writeString(out, filter.difficulty() != null ? filter.difficulty().name() : null);
+            writeString(out, filter.tag());
+            out.writeBoolean(filter.unsolvedOnly());
+
+            out.writeLong(room.getProblemId() != null ? room.getProblemId() : -1);
+            writeString(out, room.getStatus().name());
+            writeString(out, room.getWinnerId());
+            writeTime(out, room.getStartedAt());
+            writeTime(out, room.getLastEmptyAt());
+            out.writeLong(room.getVersion());
+            out.writeInt(room.getCoalesceMillis());
+
+            out.writeInt(room.getParticipants().size());
+            for (LiveParticipant participant : room.getParticipants()) {
+                Long id = participant.getId();
+                out.writeLong(id != null ? id : -1);
+                writeString(out, participant.getUserId());
+                writeString(out, participant.getUsername());
+                writeTime(out, participant.getJoinedAt());
+                out.writeBoolean(participant.isReady());
+                writeTime(out, participant.getLeftAt());
+            }
+
+            List<LiveScore> scores = room.rankedScores();
+            out.writeInt(scores.size());
+            for (LiveScore score : scores) {
+                writeString(out, score.getUserId());
+                writeString(out, score.getUsername());
+                out.writeInt(score.getAttempts());
+                out.writeInt(score.getTestCasesPassed());
+                out.writeInt(score.getTotalTestCases());
+                writeTime(out, score.getSolvedAt());
+                out.writeLong(score.getPenaltySeconds());
+            }
+        } catch (IOException e) {
+            throw new IllegalStateException("Failed to encode room " + room.getId(), e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Replace the snapshot file with the given encoded rooms
+     */
+    void write(List<byte[]> rooms) throws IOException {
+        Path dir = path.toAbsolutePath().getParent();
+        if (dir != null) {
+            Files.createDirectories(dir);
+        }
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        try (OutputStream file = Files.newOutputStream(tmp);
+                DataOutputStream out = new DataOutputStream(new BufferedOutputStream(file, 64 * 1024))) {
+            out.writeInt(MAGIC);
+            out.writeInt(FORMAT);
+            out.writeLong(System.currentTimeMillis());
+            out.writeInt(rooms.size());
+            for (byte[] room : rooms) {
+                out.writeInt(room.length);
+                out.write(room);
+            }
+        }
+        Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Load the snapshot, or empty if there is none usable
+     */
+    Optional<Loaded> read() {
+        if (!Files.isRegularFile(path)) {
+            return Optional.empty();
+        }
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            int format = buffer.getInt() == MAGIC ? buffer.getInt() : -1;
+            if (format < 1 || format > FORMAT) {
+                log.warn("Ignoring room snapshot {}: unknown format", path);
+                return Optional.empty();
+            }
+            Instant writtenAt = Instant.ofEpochMilli(buffer.getLong());
+            if (writtenAt.isBefore(Instant.now().minus(maxAge))) {
+                log.info("Ignoring room snapshot {} written at {}: older than {} minutes",
+                        path, writtenAt, maxAge.toMinutes());
+                return Optional.empty();
+            }
+
+            int count = buffer.getInt();
+            List<LiveRoom> rooms = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int length = buffer.getInt();
+                ByteBuffer room = buffer.slice(buffer.position(), length);
+                buffer.position(buffer.position() + length);
+                rooms.add(decode(room, format));
+            }
+            return Optional.of(new Loaded(writtenAt, rooms));
+        } catch (Exception e) {
+            log.warn("Ignoring unreadable room snapshot {}: {}", path, e.toString());
+            return Optional.empty();
+        }
+    }
+
+    private static LiveRoom decode(ByteBuffer in, int format) {
+        String id = readString(in);
+        String createdBy = readString(in);
+        Room.ProblemSelectionMode mode = Room.ProblemSelectionMode.valueOf(readString(in));
+        int maxParticipants = in.getInt();
+        boolean isPrivate = in.get() != 0;
+        LocalDateTime createdAt = readTime(in);
+        String difficulty = readString(in);
+        String tag = readString(in);
+        boolean unsolvedOnly = in.get() != 0;
+
+        LiveRoom room = new LiveRoom(id, createdBy, mode, maxParticipants, isPrivate, createdAt,
+                new ProblemFilter(difficulty != null ? Problem.Difficulty.valueOf(difficulty) : null, tag,
+                        unsolvedOnly));
+        long problemId = in.getLong();
+        room.setProblemId(problemId >= 0 ? problemId : null);
+        room.setStatus(Room.RoomStatus.valueOf(readString(in)));
+        room.setWinnerId(readString(in));
+        room.setStartedAt(readTime(in));
+        room.setLastEmptyAt(readTime(in));
+        long version = in.getLong();
+        if (format >= 2) {
+            room.setCoalesceMillis(in.getInt());
+        }
+
+        int participants = in.getInt();
+        for (int i = 0; i < participants; i++) {
+            long participantId = in.getLong();
+            LiveParticipant participant = room.addParticipant(readString(in), readString(in), readTime(in));
+            participant.setId(participantId >= 0 ? participantId : null);
+            participant.setReady(in.get() != 0);
+            participant.setLeftAt(readTime(in));
+        }
+
+        int scoreCount = in.getInt();
+        List<LiveScore> scores = new ArrayList<>(scoreCount);
+        for (int i = 0; i < scoreCount; i++) {
+            scores.add(new LiveScore(readString(in), readString(in), in.getInt(), in.getInt(), in.getInt(),
+                    readTime(in), in.getLong()));
+        }
+        room.restore(version, scores);
+        room.publish();
+        return room;
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    private static String readString(ByteBuffer in) {
+        int length = in.getInt();
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        in.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void writeTime(DataOutputStream out, LocalDateTime value) throws IOException {
+        if (value == null) {
+            out.writeLong(NO_TIME);
+            return;
+        }
+        out.writeLong(value.toEpochSecond(ZoneOffset.UTC));
+        out.writeInt(value.getNano());
+    }
+
+    private static LocalDateTime readTime(ByteBuffer in) {
+        long seconds = in.getLong();
+        if (seconds == NO_TIME) {
+            return null;
+        }
+        return LocalDateTime.ofEpochSecond(seconds, in.getInt(), ZoneOffset.UTC);
+    }
+}
@@ -0,0 +1,440 @@
+package com.codearena.room;
+
+import com.codearena.entity.Room;
+import com.codearena.entity.RoomParticipant;
+import com.codearena.repository.RoomParticipantRepository;
+import com.codearena.repository.RoomRepository;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Persists the {@link RoomRegistry} to the rooms / room_participants tables.
+ *
+ * At startup rooms are restored from the {@link RoomSnapshot} file when a
+ * recent one exists, and from the database otherwise. A restored registry is
+ * reconciled against the database in the background a little later, so boot
+ * does not compete with lobbies reconnecting for the connection pool.
+ *
+ * Afterwards, dirty and deleted rooms are flushed on a short fixed delay in a
+ * single transaction per batch, and once more on shutdown. A failed batch is
+ * retried room by room. The snapshot is rewritten after a flush on a longer
+ * delay and on shutdown. Room state is copied inside each room's mailbox,
+ * before the transaction opens, so it never races a command.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class RoomWriteBehind {
+
+    private final RoomRegistry registry;
+    private final RoomExecutor roomExecutor;
+    private final RoomRepository roomRepository;
+    private final RoomParticipantRepository participantRepository;
+    private final EntityManager entityManager;
+    private final TransactionTemplate transactionTemplate;
+    private final RoomSnapshot roomSnapshot;
+
+    @Value("${rooms.snapshot.reconcile-delay-ms:15000}")
+    private long reconcileDelayMs;
+
+    @Value("${rooms.write-behind.max-attempts:10}")
+    private int maxAttempts;
+
+    // Room -> consecutive failed writes of its own; only touched under the flush lock
+    private final Map<String, Integer> failures = new HashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        Optional<RoomSnapshot.Loaded> snapshot = roomSnapshot.read();
+        if (snapshot.isPresent()) {
+            Map<String, Long> restoredVersions = new HashMap<>();
+            for (LiveRoom room : snapshot.get().rooms()) {
+                registry.load(room);
+                restoredVersions.put(room.getId(), room.getVersion());
+            }
+            log.info("Room registry restored with {} rooms from snapshot written at {}",
+                    restoredVersions.size(), snapshot.get().writtenAt());
+            CompletableFuture.runAsync(() -> reconcile(restoredVersions),
+                    CompletableFuture.delayedExecutor(reconcileDelayMs, TimeUnit.MILLISECONDS));
+            return;
+        }
+
+        List<Room> rooms = roomRepository.findAllWithParticipants();
+        rooms.forEach(room -> registry.load(LiveRoom.fromEntity(room)));
+        log.info("Room registry rebuilt with {} rooms", rooms.size());
+    }
+
+    @Scheduled(fixedDelayString = "${rooms.write-behind.flush-interval-ms:1000}")
+    public synchronized void flush() {
+        List<String> deletedIds = registry.drainDeleted();
+        List<String> dirtyIds = registry.drainDirty();
+        if (deletedIds.isEmpty() && dirtyIds.isEmpty()) {
+            return;
+        }
+
+        // Copy through each mailbox before opening the transaction so a busy room never holds a connection
+        List<RoomCopy> copies = new ArrayList<>(dirtyIds.size());
+        for (String roomId : dirtyIds) {
+            copyOut(roomId).ifPresent(copies::add);
+        }
+
+        // New participant rows get their generated IDs back once their transaction commits
+        Map<LiveParticipant, RoomParticipant> inserted = new IdentityHashMap<>();
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                delete(deletedIds);
+                write(copies, inserted);
+            });
+        } catch (Exception e) {
+            log.warn("Room write-behind failed for {} dirty / {} deleted rooms, writing one at a time: {}",
+                    dirtyIds.size(), deletedIds.size(), e.getMessage());
+            inserted.clear();
+            writeEach(deletedIds, copies, inserted);
+        }
+        // id is volatile and only ever set here, so no need to enter the mailbox
+        inserted.forEach((live, entity) -> live.setId(entity.getId()));
+        if (!inserted.isEmpty()) {
+            // Refresh the published views so they carry the new participant IDs
+            dirtyIds.forEach(roomId -> registry.find(roomId)
+                    .ifPresent(room -> roomExecutor.submit(roomId, () -> {
+                        registry.refresh(room);
+                        return null;
+                    })));
+        }
+    }
+
+    /**
+     * Write rooms in their own transactions after a failed batch so one bad row
+     * does not hold back the rest. A room that keeps failing is dropped after
+     * max-attempts flushes; it is written again the next time it changes.
+     */
+    private void writeEach(List<String> deletedIds, List<RoomCopy> copies,
+            Map<LiveParticipant, RoomParticipant> inserted) {
+        List<String> retryDirty = new ArrayList<>();
+        List<String> retryDeleted = new ArrayList<>();
+        for (String roomId : deletedIds) {
+            try {
+                transactionTemplate.executeWithoutResult(tx -> delete(List.of(roomId)));
+                failures.remove(roomId);
+            } catch (Exception e) {
+                if (retry(roomId, e)) {
+                    retryDeleted.add(roomId);
+                }
+            }
+        }
+        for (RoomCopy copy : copies) {
+            String roomId = copy.room().getId();
+            Map<LiveParticipant, RoomParticipant> roomInserted = new IdentityHashMap<>();
+            try {
+                transactionTemplate.executeWithoutResult(tx -> write(List.of(copy), roomInserted));
+                inserted.putAll(roomInserted);
+                failures.remove(roomId);
+            } catch (Exception e) {
+                if (retry(roomId, e)) {
+                    retryDirty.add(roomId);
+                }
+            }
+        }
+        registry.requeue(retryDirty, retryDeleted);
+    }
+
+    // Whether a room that failed on its own should be tried again next flush
+    private boolean retry(String roomId, Exception e) {
+        int attempts = failures.merge(roomId, 1, Integer::sum);
+        if (attempts < maxAttempts) {
+            log.warn("Room {} write-behind failed ({} of {} attempts), will retry: {}",
+                    roomId, attempts, maxAttempts, e.getMessage());
+            return true;
+        }
+        failures.remove(roomId);
+        log.error("Dropped write-behind of room {} after {} attempts: {}", roomId, attempts, e.getMessage());
+        return false;
+    }
+
+    /**
+     * Flush and rewrite the snapshot file
+     * Runs every 30 seconds by default
+     */
+    @Scheduled(initialDelayString = "${rooms.snapshot.interval-ms:30000}",
+            fixedDelayString = "${rooms.snapshot.interval-ms:30000}")
+    public synchronized void snapshot() {
+        flush();
+        List<byte[]> encoded = new ArrayList<>(registry.size());
+        for (LiveRoom room : registry.all()) {
+            byte[] bytes;
+            try {
+                bytes = roomExecutor.call(room.getId(),
+                        () -> registry.find(room.getId()).orElse(null) == room ? roomSnapshot.encode(room) : null);
+            } catch (RuntimeException e) {
+                continue; // Removed while we were iterating
+            }
+            if (bytes != null) {
+                encoded.add(bytes);
+            }
+        }
+        try {
+            roomSnapshot.write(encoded);
+            log.debug("Room snapshot written with {} rooms", encoded.size());
+        } catch (Exception e) {
+            log.error("Failed to write room snapshot: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        snapshot();
+    }
+
+    /**
+     * Bring a registry restored from a snapshot in line with the database.
+     *
+     * A crash can leave the database ahead of the snapshot. Rooms nobody has
+     * touched since the restart take the database state; rooms that changed
+     * since keep the memory state and are written behind again.
+     */
+    void reconcile(Map<String, Long> restoredVersions) {
+        Map<String, Room> persisted;
+        try {
+            persisted = roomRepository.findAllWithParticipants().stream()
+                    .collect(Collectors.toMap(Room::getId, Function.identity()));
+        } catch (Exception e) {
+            log.error("Room reconciliation failed, keeping snapshot state: {}", e.getMessage());
+            return;
+        }
+
+        int changed = 0;
+        for (Room entity : persisted.values()) {
+            if (restoredVersions.containsKey(entity.getId())) {
+                continue;
+            }
+            // Written after the snapshot was taken
+            LiveRoom room = LiveRoom.fromEntity(entity);
+            if (registry.loadIfAbsent(room)) {
+                roomExecutor.run(room.getId(), () -> registry.refresh(room));
+                changed++;
+            }
+        }
+        for (Map.Entry<String, Long> restored : restoredVersions.entrySet()) {
+            String roomId = restored.getKey();
+            Room entity = persisted.get(roomId);
+            try {
+                if (roomExecutor.call(roomId, () -> reconcile(roomId, restored.getValue(), entity))) {
+                    changed++;
+                }
+            } catch (RuntimeException e) {
+                log.debug("Skipped reconciling room {}: {}", roomId, e.getMessage());
+            }
+        }
+        log.info("Room registry reconciled with database: {} of {} rooms changed",
+                changed, restoredVersions.size() + persisted.size());
+    }
+
+    // Runs inside the room's mailbox; returns whether the room changed
+    private boolean reconcile(String roomId, long restoredVersion, Room entity) {
+        LiveRoom room = registry.find(roomId).orElse(null);
+        if (room == null) {
+            return false; // Removed since the restart
+        }
+        boolean untouched = room.getVersion() == restoredVersion;
+
+        if (entity == null) {
+            if (untouched) {
+                // Deleted after the snapshot was taken
+                registry.remove(roomId);
+                roomExecutor.retire(roomId);
+            } else {
+                registry.markDirty(roomId);
+            }
+            return true;
+        }
+        if (untouched) {
+            if (matches(room, entity)) {
+                return false;
+            }
+            // Skip a version so clients holding the old one reload the room
+            LiveRoom current = LiveRoom.fromEntity(entity);
+            current.restore(room.getVersion() + 1, room.rankedScores());
+            registry.load(current);
+            registry.refresh(current);
+            return true;
+        }
+        adoptParticipantIds(room, entity);
+        registry.markDirty(roomId);
+        return true;
+    }
+
+    private static boolean matches(LiveRoom room, Room entity) {
+        if (room.getStatus() != entity.getStatus()
+                || !Objects.equals(room.getProblemId(), entity.getProblemId())
+                || !Objects.equals(room.getWinnerId(), entity.getWinnerId())
+                || room.getParticipants().size() != entity.getParticipants().size()) {
+            return false;
+        }
+        Map<Long, RoomParticipant> byId = new HashMap<>();
+        entity.getParticipants().forEach(p -> byId.put(p.getId(), p));
+        for (LiveParticipant lp : room.getParticipants()) {
+            RoomParticipant rp = lp.getId() != null ? byId.get(lp.getId()) : null;
+            if (rp == null || lp.isReady() != Boolean.TRUE.equals(rp.getIsReady())
+                    || lp.hasLeft() != (rp.getLeftAt() != null)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // Participants that joined just before the snapshot may already have rows; reuse them in join order
+    private static void adoptParticipantIds(LiveRoom room, Room entity) {
+        Set<Long> claimed = new HashSet<>();
+        room.getParticipants().forEach(lp -> {
+            if (lp.getId() != null) {
+                claimed.add(lp.getId());
+            }
+        });
+        List<RoomParticipant> rows = entity.getParticipants().stream()
+                .sorted(Comparator.comparing(RoomParticipant::getId))
+                .toList();
+        for (LiveParticipant lp : room.getParticipants()) {
+            if (lp.getId() != null) {
+                continue;
+            }
+            rows.stream()
+                    .filter(rp -> !claimed.contains(rp.getId()) && rp.getUserId().equals(lp.getUserId()))
+                    .findFirst()
+                    .ifPresent(rp -> {
+                        lp.setId(rp.getId());
+                        claimed.add(rp.getId());
+                    });
+        }
+    }
+
+    // Room state copied out of its mailbox so it can be written without holding it
+    private record RoomCopy(Room room, Map<LiveParticipant, RoomParticipant> participants) {
+    }
+
+    private Optional<RoomCopy> copyOut(String roomId) {
+        try {
+            // Null when deleted since it was marked; the delete is queued
+            return Optional.ofNullable(roomExecutor.call(roomId,
+                    () -> registry.find(roomId).map(RoomWriteBehind::copy).orElse(null)));
+        } catch (RuntimeException e) {
+            return Optional.empty(); // Removed while we were draining
+        }
+    }
+
+    // Runs inside the room's mailbox
+    private static RoomCopy copy(LiveRoom live) {
+        Room room = new Room();
+        room.setId(live.getId());
+        room.setCreatedBy(live.getCreatedBy());
+        room.setProblemSelectionMode(live.getProblemSelectionMode());
+        room.setMaxParticipants(live.getMaxParticipants());
+        room.setIsPrivate(live.isPrivate());
+        room.setProblemId(live.getProblemId());
+        room.setStatus(live.getStatus());
+        room.setWinnerId(live.getWinnerId());
+        room.setCreatedAt(live.getCreatedAt());
+        room.setStartedAt(live.getStartedAt());
+        room.setLastEmptyAt(live.getLastEmptyAt());
+        room.setProblemDifficulty(live.getProblemFilter().difficulty());
+        room.setProblemTag(live.getProblemFilter().tag());
+        room.setUnsolvedOnly(live.getProblemFilter().unsolvedOnly());
+
+        Map<LiveParticipant, RoomParticipant> participants = new IdentityHashMap<>();
+        for (LiveParticipant lp : live.getParticipants()) {
+            RoomParticipant rp = new RoomParticipant();
+            rp.setId(lp.getId());
+            rp.setUserId(lp.getUserId());
+            rp.setUsername(lp.getUsername());
+            rp.setJoinedAt(lp.getJoinedAt());
+            rp.setIsReady(lp.isReady());
+            rp.setLeftAt(lp.getLeftAt());
+            participants.put(lp, rp);
+        }
+        return new RoomCopy(room, participants);
+    }
+
+    // Caller holds the transaction
+    private void delete(List<String> roomIds) {
+        if (!roomIds.isEmpty()) {
+            participantRepository.deleteByRoomIdIn(roomIds);
+            roomRepository.deleteAllByIdInBatch(roomIds);
+        }
+    }
+
+    // Caller holds the transaction
+    private void write(List<RoomCopy> copies, Map<LiveParticipant, RoomParticipant> inserted) {
+        if (copies.isEmpty()) {
+            return;
+        }
+        Map<String, Room> existing = roomRepository.findAllWithParticipantsByIdIn(
+                        copies.stream().map(copy -> copy.room().getId()).toList()).stream()
+                .collect(Collectors.toMap(Room::getId, Function.identity()));
+
+        for (RoomCopy copy : copies) {
+            Room source = copy.room();
+            Room entity = existing.get(source.getId());
+            boolean isNew = entity == null;
+            if (isNew) {
+                entity = new Room();
+                entity.setId(source.getId());
+                entity.setCreatedAt(source.getCreatedAt());
+            }
+            entity.setCreatedBy(source.getCreatedBy());
+            entity.setProblemSelectionMode(source.getProblemSelectionMode());
+            entity.setMaxParticipants(source.getMaxParticipants());
+            entity.setIsPrivate(source.getIsPrivate());
+            entity.setProblemId(source.getProblemId());
+            entity.setStatus(source.getStatus());
+            entity.setWinnerId(source.getWinnerId());
+            entity.setStartedAt(source.getStartedAt());
+            entity.setLastEmptyAt(source.getLastEmptyAt());
+            entity.setProblemDifficulty(source.getProblemDifficulty());
+            entity.setProblemTag(source.getProblemTag());
+            entity.setUnsolvedOnly(source.getUnsolvedOnly());
+
+            Map<Long, RoomParticipant> byId = new HashMap<>();
+            entity.getParticipants().forEach(p -> byId.put(p.getId(), p));
+
+            for (Map.Entry<LiveParticipant, RoomParticipant> participant : copy.participants().entrySet()) {
+                RoomParticipant from = participant.getValue();
+                RoomParticipant rp = from.getId() != null ? byId.get(from.getId()) : null;
+                if (rp == null) {
+                    rp = new RoomParticipant();
+                    rp.setRoom(entity);
+                    rp.setUserId(from.getUserId());
+                    rp.setUsername(from.getUsername());
+                    rp.setJoinedAt(from.getJoinedAt());
+                    entity.getParticipants().add(rp);
+                    inserted.put(participant.getKey(), rp);
+                }
+                rp.setIsReady(from.getIsReady());
+                rp.setLeftAt(from.getLeftAt());
+            }
+            if (isNew) {
+                entityManager.persist(entity);
+            }
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package com.codearena.room;
+
+/**
+ * A participant placed into a room by the server rather than by joining
+ */
+public record Seat(String userId, String username) {
+}
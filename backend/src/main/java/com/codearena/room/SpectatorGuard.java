@@ -0,0 +1,223 @@
+package com.codearena.room;
+
+import com.codearena.dto.RoomParticipantResponse;
+import com.codearena.dto.RoomResponse;
+import com.codearena.websocket.BrokerShards;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps players out of their own room's spectator feed.
+ *
+ * SUBSCRIBE frames for /topic/room/{id}/spectate or /app/spectate.state/{id}
+ * are dropped when the session is anonymous or its user is a participant of
+ * that room, whatever the room's status. Wildcard subscriptions that could
+ * cover room topics are dropped too. Spectators who join the room later lose
+ * their feed subscription as soon as the room publishes them as a participant.
+ */
+@Component
+@Slf4j
+public class SpectatorGuard implements ChannelInterceptor, RoomListener {
+
+    private static final String ROOM_TOPICS = "/topic/room/";
+    private static final Pattern SPECTATE_DESTINATION =
+            Pattern.compile("^/(?:topic/room/([A-Za-z0-9]+)/spectate|app/spectate\\.state/([A-Za-z0-9]+))$");
+
+    private final RoomRegistry roomRegistry;
+    private final BrokerShards brokerShards;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+
+    private record Subscription(String sessionId, String subscriptionId, String userId) {
+    }
+
+    // All guarded by this: room -> feed subscriptions, session -> subscription ID -> room
+    private final Map<String, List<Subscription>> watchers = new HashMap<>();
+    private final Map<String, Map<String, String>> sessions = new HashMap<>();
+
+    public SpectatorGuard(RoomRegistry roomRegistry, BrokerShards brokerShards) {
+        this.roomRegistry = roomRegistry;
+        this.brokerShards = brokerShards;
+    }
+
+    @PostConstruct
+    public void init() {
+        roomRegistry.addListener(this);
+    }
+
+    /**
+     * Whether the user is taking part in the room's running match
+     */
+    public static boolean isPlaying(RoomResponse view, String userId) {
+        return "active".equals(view.getStatus()) && isParticipant(view, userId);
+    }
+
+    /**
+     * Whether the user is in the room, in any status
+     */
+    public static boolean isParticipant(RoomResponse view, String userId) {
+        List<RoomParticipantResponse> participants = view.getRoomParticipants();
+        return participants != null && participants.stream().anyMatch(p -> userId.equals(p.getUserId()));
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.SUBSCRIBE) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null) {
+            return message;
+        }
+        if (pathMatcher.isPattern(destination) && coversRoomTopics(destination)) {
+            log.debug("Dropped wildcard subscription to {}", destination);
+            return null;
+        }
+        Matcher matcher = SPECTATE_DESTINATION.matcher(destination);
+        if (!matcher.matches()) {
+            return message;
+        }
+
+        String roomId = (matcher.group(1) != null ? matcher.group(1) : matcher.group(2)).toUpperCase();
+        Principal user = SimpMessageHeaderAccessor.getUser(message.getHeaders());
+        if (user == null) {
+            log.debug("Anonymous session may not spectate room {}", roomId);
+            return null;
+        }
+        boolean participant = roomRegistry.find(roomId)
+                .map(room -> isParticipant(room.getView(), user.getName()))
+                .orElse(false);
+        if (participant) {
+            log.debug("User {} may not spectate room {} while in it", user.getName(), roomId);
+            return null;
+        }
+
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders());
+        if (matcher.group(1) != null && sessionId != null && subscriptionId != null) {
+            track(roomId, new Subscription(sessionId, subscriptionId, user.getName()));
+        }
+        return message;
+    }
+
+    @Override
+    public void roomChanged(LiveRoom room, RoomResponse view) {
+        List<Subscription> revoked = new ArrayList<>();
+        synchronized (this) {
+            List<Subscription> feed = watchers.get(room.getId());
+            if (feed == null) {
+                return;
+            }
+            feed.removeIf(subscription -> {
+                if (isParticipant(view, subscription.userId())) {
+                    revoked.add(subscription);
+                    untrack(subscription);
+                    return true;
+                }
+                return false;
+            });
+            if (feed.isEmpty()) {
+                watchers.remove(room.getId());
+            }
+        }
+        for (Subscription subscription : revoked) {
+            log.info("User {} joined room {}; ending their spectator feed", subscription.userId(), room.getId());
+            brokerShards.unregisterSubscription(unsubscribe(subscription));
+        }
+    }
+
+    @Override
+    public synchronized void roomRemoved(LiveRoom room) {
+        List<Subscription> feed = watchers.remove(room.getId());
+        if (feed != null) {
+            feed.forEach(this::untrack);
+        }
+    }
+
+    @EventListener
+    public synchronized void onUnsubscribe(SessionUnsubscribeEvent event) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        Map<String, String> subscriptions = sessions.get(accessor.getSessionId());
+        String roomId = subscriptions != null ? subscriptions.remove(accessor.getSubscriptionId()) : null;
+        if (roomId != null) {
+            forget(roomId, accessor.getSessionId(), accessor.getSubscriptionId());
+        }
+    }
+
+    @EventListener
+    public synchronized void onDisconnect(SessionDisconnectEvent event) {
+        Map<String, String> subscriptions = sessions.remove(event.getSessionId());
+        if (subscriptions != null) {
+            subscriptions.forEach((subscriptionId, roomId) -> forget(roomId, event.getSessionId(), subscriptionId));
+        }
+    }
+
+    private synchronized void track(String roomId, Subscription subscription) {
+        watchers.computeIfAbsent(roomId, id -> new ArrayList<>()).add(subscription);
+        sessions.computeIfAbsent(subscription.sessionId(), id -> new HashMap<>())
+                .put(subscription.subscriptionId(), roomId);
+    }
+
+    // Caller holds the lock
+    private void untrack(Subscription subscription) {
+        Map<String, String> subscriptions = sessions.get(subscription.sessionId());
+        if (subscriptions != null) {
+            subscriptions.remove(subscription.subscriptionId());
+            if (subscriptions.isEmpty()) {
+                sessions.remove(subscription.sessionId());
+            }
+        }
+    }
+
+    // Caller holds the lock
+    private void forget(String roomId, String sessionId, String subscriptionId) {
+        List<Subscription> feed = watchers.get(roomId);
+        if (feed == null) {
+            return;
+        }
+        feed.removeIf(s -> s.sessionId().equals(sessionId) && s.subscriptionId().equals(subscriptionId));
+        if (feed.isEmpty()) {
+            watchers.remove(roomId);
+        }
+    }
+
+    // A pattern whose literal prefix leads into /topic/room/ may match a spectator feed
+    private static boolean coversRoomTopics(String pattern) {
+        int wildcard = pattern.length();
+        for (char c : new char[] { '*', '?', '{' }) {
+            int at = pattern.indexOf(c);
+            if (at >= 0) {
+                wildcard = Math.min(wildcard, at);
+            }
+        }
+        String prefix = pattern.substring(0, wildcard);
+        return ROOM_TOPICS.startsWith(prefix) || prefix.startsWith(ROOM_TOPICS);
+    }
+
+    private static Message<byte[]> unsubscribe(Subscription subscription) {
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.UNSUBSCRIBE);
+        accessor.setSessionId(subscription.sessionId());
+        accessor.setSubscriptionId(subscription.subscriptionId());
+        accessor.setLeaveMutable(true);
+        return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+    }
+}
@@ -0,0 +1,131 @@
+package com.codearena.room;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Hierarchical timer wheel keyed by K.
+ *
+ * Level 0 has one slot per tick; each higher level has slots 64 times wider.
+ * Scheduling and cancelling are O(1). Advancing only visits the slot of each
+ * elapsed tick, and a higher-level slot is cascaded down when the level below
+ * wraps, so the cost tracks the number of due timers rather than the number
+ * of scheduled ones. With four levels the wheel spans 64^4 ticks; later
+ * deadlines wait in the last slot and are re-filed when it cascades.
+ *
+ * Not thread-safe.
+ */
+public class TimerWheel<K> {
+
+    private static final int SLOT_BITS = 6;
+    private static final int SLOTS = 1 << SLOT_BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+    private static final long SPAN = 1L << (SLOT_BITS * LEVELS);
+
+    private final long tickMillis;
+    private final List<List<Set<Timer<K>>>> wheels = new ArrayList<>(LEVELS);
+    private final Map<K, Timer<K>> timers = new HashMap<>();
+    private long currentTick;
+
+    private static final class Timer<K> {
+        final K key;
+        final long deadlineTick;
+        Set<Timer<K>> slot;
+
+        Timer(K key, long deadlineTick) {
+            this.key = key;
+            this.deadlineTick = deadlineTick;
+        }
+    }
+
+    public TimerWheel(long tickMillis, long nowMillis) {
+        this.tickMillis = tickMillis;
+        this.currentTick = nowMillis / tickMillis;
+        for (int level = 0; level < LEVELS; level++) {
+            List<Set<Timer<K>>> slots = new ArrayList<>(SLOTS);
+            for (int i = 0; i < SLOTS; i++) {
+                slots.add(new LinkedHashSet<>());
+            }
+            wheels.add(slots);
+        }
+    }
+
+    /**
+     * Schedule (or reschedule) a key. Past deadlines fire on the next tick.
+     */
+    public void schedule(K key, long deadlineMillis) {
+        cancel(key);
+        // Round up so a timer never fires early
+        long deadlineTick = Math.max(currentTick + 1, (deadlineMillis + tickMillis - 1) / tickMillis);
+        Timer<K> timer = new Timer<>(key, deadlineTick);
+        timers.put(key, timer);
+        file(timer);
+    }
+
+    public boolean cancel(K key) {
+        Timer<K> timer = timers.remove(key);
+        if (timer == null) {
+            return false;
+        }
+        timer.slot.remove(timer);
+        return true;
+    }
+
+    public boolean contains(K key) {
+        return timers.containsKey(key);
+    }
+
+    public int size() {
+        return timers.size();
+    }
+
+    /**
+     * Move the wheel to nowMillis and return every key that came due, in deadline order
+     */
+    public List<K> advance(long nowMillis) {
+        long target = nowMillis / tickMillis;
+        List<K> due = new ArrayList<>();
+        while (currentTick < target) {
+            long tick = ++currentTick;
+            cascade(tick, 1);
+            Set<Timer<K>> slot = wheels.get(0).get((int) (tick & MASK));
+            for (Timer<K> timer : slot) {
+                timers.remove(timer.key);
+                due.add(timer.key);
+            }
+            slot.clear();
+        }
+        return due;
+    }
+
+    // When a level wraps, pull the next slot of the level above down, highest level first
+    private void cascade(long tick, int level) {
+        if (level >= LEVELS || (tick & (((long) 1 << (SLOT_BITS * level)) - 1)) != 0) {
+            return;
+        }
+        cascade(tick, level + 1);
+        Set<Timer<K>> slot = wheels.get(level).get((int) ((tick >>> (SLOT_BITS * level)) & MASK));
+        List<Timer<K>> moved = new ArrayList<>(slot);
+        slot.clear();
+        moved.forEach(this::file);
+    }
+
+    private void file(Timer<K> timer) {
+        long delta = timer.deadlineTick - currentTick;
+        long tick = delta < SPAN ? timer.deadlineTick : currentTick + SPAN - 1;
+        delta = tick - currentTick;
+
+        int level = 0;
+        while (level < LEVELS - 1 && delta >= (1L << (SLOT_BITS * (level + 1)))) {
+            level++;
+        }
+        Set<Timer<K>> slot = wheels.get(level).get((int) ((tick >>> (SLOT_BITS * level)) & MASK));
+        slot.add(timer);
+        timer.slot = slot;
+    }
+}
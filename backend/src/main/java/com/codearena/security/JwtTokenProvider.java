@@ -8,11 +8,14 @@ import java.util.function.Function;
 
 import javax.crypto.SecretKey;
 
+import jakarta.annotation.PostConstruct;
+
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Component;
 
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.security.Keys;
@@ -26,6 +29,27 @@ public class JwtTokenProvider {
     @Value("${jwt.expiration}")
     private Long expiration;
 
+    // Built once: parsers are thread-safe, while building them concurrently races inside
+    // jjwt's service loading and fails a burst of first requests (e.g. a STOMP reconnect storm)
+    private JwtParser base64Parser;
+    private JwtParser rawParser;
+
+    @PostConstruct
+    public void init() {
+        // Strategy 1: Base64 Decoded (Standard for Supabase secrets like '8OI/...')
+        base64Parser = Jwts.parser()
+                .verifyWith(Keys.hmacShaKeyFor(io.jsonwebtoken.io.Decoders.BASE64.decode(secret)))
+                .build();
+        try {
+            // Strategy 2: Raw UTF-8 Bytes (Fallback for plain passwords)
+            rawParser = Jwts.parser()
+                    .verifyWith(Keys.hmacShaKeyFor(secret.getBytes(StandardCharsets.UTF_8)))
+                    .build();
+        } catch (Exception e) {
+            rawParser = null; // Too short to be an HMAC key
+        }
+    }
+
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
     }
@@ -41,22 +65,13 @@ public class JwtTokenProvider {
 
     private Claims extractAllClaims(String token) {
         try {
-            // Strategy 1: Base64 Decoded (Standard for Supabase secrets like '8OI/...')
-            byte[] keyBytes = io.jsonwebtoken.io.Decoders.BASE64.decode(secret);
-            return Jwts.parser()
-                    .verifyWith(Keys.hmacShaKeyFor(keyBytes))
-                    .build()
-                    .parseSignedClaims(token)
-                    .getPayload();
+            return base64Parser.parseSignedClaims(token).getPayload();
         } catch (io.jsonwebtoken.security.SignatureException e1) {
+            if (rawParser == null) {
+                throw e1;
+            }
             try {
-                // Strategy 2: Raw UTF-8 Bytes (Fallback for plain passwords)
-                byte[] keyBytes = secret.getBytes(StandardCharsets.UTF_8);
-                return Jwts.parser()
-                        .verifyWith(Keys.hmacShaKeyFor(keyBytes))
-                        .build()
-                        .parseSignedClaims(token)
-                        .getPayload();
+                return rawParser.parseSignedClaims(token).getPayload();
             } catch (Exception e2) {
                 // If both fail, throw the original error or a combined one
                 throw e1;
@@ -0,0 +1,87 @@
+package com.codearena.security;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageDeliveryException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+
+/**
+ * Verifies the JWT of a STOMP session once, on CONNECT.
+ *
+ * The token comes in an Authorization: Bearer header of the CONNECT frame.
+ * A valid one becomes a {@link StompPrincipal} on the session, which Spring
+ * then attaches to every later frame of that session, so SEND and SUBSCRIBE
+ * cost no parsing and no database lookup. A bad token is refused with an
+ * ERROR frame, and so is a CONNECT without a token unless
+ * websocket.auth.required is turned off (local tools only), which leaves the
+ * session anonymous.
+ */
+@Component
+@Slf4j
+public class StompAuthInterceptor implements ChannelInterceptor {
+
+    private final JwtTokenProvider jwtTokenProvider;
+    private final boolean required;
+
+    public StompAuthInterceptor(JwtTokenProvider jwtTokenProvider,
+            @Value("${websocket.auth.required:true}") boolean required) {
+        this.jwtTokenProvider = jwtTokenProvider;
+        this.required = required;
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        StompHeaderAccessor accessor = MessageHeaderAccessor.getAccessor(message, StompHeaderAccessor.class);
+        if (accessor == null || accessor.getCommand() != StompCommand.CONNECT) {
+            return message;
+        }
+
+        String header = accessor.getFirstNativeHeader("Authorization");
+        if (header == null || !header.startsWith("Bearer ")) {
+            if (required) {
+                throw new MessageDeliveryException("Authentication required");
+            }
+            return message;
+        }
+
+        try {
+            Claims claims = jwtTokenProvider.extractClaim(header.substring(7), c -> c);
+            if (claims.getSubject() == null) {
+                throw new MessageDeliveryException("Token has no subject");
+            }
+            accessor.setUser(new StompPrincipal(claims.getSubject(), username(claims)));
+        } catch (JwtException | IllegalArgumentException e) {
+            log.info("Refused STOMP CONNECT for session {}: {}", accessor.getSessionId(), e.getMessage());
+            throw new MessageDeliveryException("Invalid token");
+        }
+        return message;
+    }
+
+    // Same precedence as JIT provisioning in JwtAuthenticationFilter
+    private static String username(Claims claims) {
+        Object metadata = claims.get("user_metadata");
+        if (metadata instanceof Map<?, ?> map && map.get("username") instanceof String name && !name.isEmpty()) {
+            return name;
+        }
+        String preferred = claims.get("preferred_username", String.class);
+        if (preferred != null && !preferred.isEmpty()) {
+            return preferred;
+        }
+        String email = claims.get("email", String.class);
+        if (email != null && email.contains("@")) {
+            return email.split("@")[0];
+        }
+        String subject = claims.getSubject();
+        return "User_" + subject.substring(0, Math.min(6, subject.length()));
+    }
+}
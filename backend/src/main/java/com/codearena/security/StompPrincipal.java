@@ -0,0 +1,15 @@
+package com.codearena.security;
+
+import java.security.Principal;
+
+/**
+ * User of an authenticated STOMP session, built once from the JWT on CONNECT.
+ * The name is the user ID (token subject), as everywhere else.
+ */
+public record StompPrincipal(String userId, String username) implements Principal {
+
+    @Override
+    public String getName() {
+        return userId;
+    }
+}
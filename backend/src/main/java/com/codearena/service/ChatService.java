@@ -0,0 +1,160 @@
+package com.codearena.service;
+
+import com.codearena.dto.ChatMessage;
+import com.codearena.dto.RoomResponse;
+import com.codearena.entity.ChatMessageRecord;
+import com.codearena.repository.ChatMessageRecordRepository;
+import com.codearena.room.ChatHistory;
+import com.codearena.room.LiveRoom;
+import com.codearena.room.RoomListener;
+import com.codearena.room.RoomRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Room chat history.
+ *
+ * Recent messages of each live room are kept in a {@link ChatHistory} ring and
+ * replayed to clients that (re)subscribe. Every message is also queued for the
+ * chat_messages table; the queue is drained in batches on a fixed delay, so the
+ * broadcast path never waits on the database. When the queue is full, messages
+ * are still broadcast and kept in the ring but not persisted. A room's ring is
+ * dropped when the room is removed. Only messages to live rooms are recorded.
+ */
+@Service
+@Slf4j
+public class ChatService implements RoomListener {
+
+    // chat_messages.sender_name is VARCHAR(50)
+    private static final int SENDER_NAME_LENGTH = 50;
+
+    private final RoomRegistry roomRegistry;
+    private final ChatMessageRecordRepository chatMessageRepository;
+    private final int historySize;
+    private final int batchSize;
+
+    private final Map<String, ChatHistory> histories = new ConcurrentHashMap<>();
+    private final BlockingQueue<ChatMessageRecord> pending;
+    private final LongAdder dropped = new LongAdder();
+
+    public ChatService(RoomRegistry roomRegistry,
+            ChatMessageRecordRepository chatMessageRepository,
+            @Value("${rooms.chat.history-size:50}") int historySize,
+            @Value("${rooms.chat.queue-capacity:10000}") int queueCapacity,
+            @Value("${rooms.chat.batch-size:500}") int batchSize) {
+        this.roomRegistry = roomRegistry;
+        this.chatMessageRepository = chatMessageRepository;
+        this.historySize = historySize;
+        this.batchSize = batchSize;
+        this.pending = new LinkedBlockingQueue<>(queueCapacity);
+    }
+
+    @PostConstruct
+    public void init() {
+        roomRegistry.addListener(this);
+    }
+
+    @Override
+    public void roomChanged(LiveRoom room, RoomResponse view) {
+    }
+
+    @Override
+    public void roomRemoved(LiveRoom room) {
+        histories.remove(room.getId());
+    }
+
+    /**
+     * Remember a message that is being broadcast to its room.
+     * Returns false, recording nothing, when the room is not live.
+     */
+    public boolean record(String roomId, ChatMessage message) {
+        String id = roomId.toUpperCase();
+        if (roomRegistry.find(id).isEmpty()) {
+            return false;
+        }
+        histories.computeIfAbsent(id, key -> new ChatHistory(historySize)).append(message);
+        if (roomRegistry.find(id).isEmpty()) {
+            // Removed while we were appending
+            histories.remove(id);
+        }
+
+        String senderName = message.getSenderName();
+        if (senderName != null && senderName.length() > SENDER_NAME_LENGTH) {
+            senderName = senderName.substring(0, SENDER_NAME_LENGTH);
+        }
+        ChatMessageRecord record = new ChatMessageRecord(null, id, message.getSenderId(),
+                senderName, message.getContent(), LocalDateTime.now());
+        if (!pending.offer(record)) {
+            dropped.increment();
+        }
+        return true;
+    }
+
+    /**
+     * Recent messages of a room, oldest first
+     */
+    public List<ChatMessage> history(String roomId) {
+        ChatHistory history = histories.get(roomId.toUpperCase());
+        return history != null ? history.recent() : List.of();
+    }
+
+    /**
+     * Persist queued messages
+     * Runs every flush interval (2s by default) and once more on shutdown
+     */
+    @Scheduled(fixedDelayString = "${rooms.chat.flush-interval-ms:2000}")
+    @PreDestroy
+    public synchronized void flush() {
+        long skipped = dropped.sumThenReset();
+        if (skipped > 0) {
+            log.warn("Chat persistence queue full, {} messages were not stored", skipped);
+        }
+
+        List<ChatMessageRecord> batch = new ArrayList<>(batchSize);
+        while (pending.drainTo(batch, batchSize) > 0) {
+            try {
+                chatMessageRepository.saveAll(batch);
+            } catch (Exception e) {
+                log.warn("Failed to persist batch of {} chat messages, saving one at a time: {}",
+                        batch.size(), e.getMessage());
+                saveEach(batch);
+            }
+            batch.clear();
+        }
+    }
+
+    /**
+     * Save rows individually after a failed batch so one bad row does not hold back
+     * the rest. Rows that still fail are dropped; the broadcast already happened.
+     */
+    private void saveEach(List<ChatMessageRecord> batch) {
+        int failed = 0;
+        for (ChatMessageRecord record : batch) {
+            // The rolled-back batch may have assigned ids
+            record.setId(null);
+            try {
+                chatMessageRepository.save(record);
+            } catch (Exception e) {
+                failed++;
+                log.error("Dropped chat message to room {} from {}: {}", record.getRoomId(), record.getSenderId(),
+                        e.getMessage());
+            }
+        }
+        if (failed > 0) {
+            log.error("Failed to persist {} of {} chat messages", failed, batch.size());
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.codearena.service;
+
+import com.codearena.entity.CodeBlob;
+import com.codearena.entity.Submission;
+import com.codearena.repository.CodeBlobRepository;
+import com.codearena.repository.SubmissionRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.zip.DataFormatException;
+import java.util.zip.Deflater;
+import java.util.zip.Inflater;
+
+/**
+ * Content-addressed storage for submission source code.
+ *
+ * Each distinct source is deflated and stored once in code_blobs under its
+ * SHA-256; submissions only carry the hash. Code is inflated on demand when a
+ * submission is judged or its code is viewed.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CodeStorageService {
+
+    private final CodeBlobRepository codeBlobRepository;
+    private final SubmissionRepository submissionRepository;
+
+    /**
+     * Store source code (if not already present) and return its hash
+     */
+    @Transactional
+    public String store(String code) {
+        byte[] raw = code.getBytes(StandardCharsets.UTF_8);
+        String hash = sha256(raw);
+        if (!codeBlobRepository.existsById(hash)) {
+            codeBlobRepository.insertIfAbsent(hash, deflate(raw), raw.length);
+        }
+        return hash;
+    }
+
+    /**
+     * Load a submission's source code
+     */
+    @Transactional(readOnly = true)
+    public String load(Submission submission) {
+        if (submission.getCodeHash() == null) {
+            return submission.getLegacyCode();
+        }
+        CodeBlob blob = codeBlobRepository.findById(submission.getCodeHash())
+                .orElseThrow(() -> new RuntimeException("Code blob not found for submission " + submission.getId()));
+        return new String(inflate(blob.getData(), blob.getSize()), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Move inline code of older submissions into code_blobs, 200 rows at a time
+     * Runs every 30 seconds until nothing is left
+     */
+    @Scheduled(fixedDelay = 30000, initialDelay = 30000)
+    @Transactional
+    public void migrateLegacyCode() {
+        List<Submission> batch = submissionRepository.findTop200ByCodeHashIsNullAndLegacyCodeIsNotNull();
+        for (Submission submission : batch) {
+            submission.setCodeHash(store(submission.getLegacyCode()));
+            submission.setLegacyCode(null);
+        }
+        if (!batch.isEmpty()) {
+            log.info("Moved code of {} submissions into code_blobs", batch.size());
+        }
+    }
+
+    private static String sha256(byte[] raw) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(raw));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    private static byte[] deflate(byte[] raw) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try {
+            deflater.setInput(raw);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, raw.length / 2));
+            byte[] buffer = new byte[4096];
+            while (!deflater.finished()) {
+                out.write(buffer, 0, deflater.deflate(buffer));
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static byte[] inflate(byte[] data, int size) {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            byte[] raw = new byte[size];
+            int n = 0;
+            while (n < size && !inflater.finished()) {
+                int read = inflater.inflate(raw, n, size - n);
+                if (read == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    throw new DataFormatException("Truncated code blob");
+                }
+                n += read;
+            }
+            return raw;
+        } catch (DataFormatException e) {
+            throw new RuntimeException("Corrupt code blob", e);
+        } finally {
+            inflater.end();
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package com.codearena.service;
+
+import com.codearena.dto.LeaderboardEntryResponse;
+import com.codearena.repository.SubmissionRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Rolling daily / weekly / monthly leaderboards.
+ *
+ * First-accepted solves are counted into one bucket per UTC day. Each window
+ * keeps a running per-user total over the days it covers plus a sorted ranking,
+ * so a day falling out of a window only subtracts that day's bucket. Reads are
+ * served from an immutable snapshot and never touch the database.
+ *
+ * Days and the hourly roll are taken in UTC explicitly. Submission times are
+ * LocalDateTimes in the JVM zone (pinned to UTC at startup), so they are
+ * converted rather than assumed to be UTC.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class LeaderboardService {
+
+    private static final int SNAPSHOT_SIZE = 100;
+
+    public enum Window {
+        DAILY(1), WEEKLY(7), MONTHLY(30);
+
+        final int days;
+
+        Window(int days) {
+            this.days = days;
+        }
+    }
+
+    private final SubmissionRepository submissionRepository;
+
+    // Day -> (userId -> solves). Guarded by "this".
+    private final Map<LocalDate, Map<String, Integer>> dayBuckets = new HashMap<>();
+    private final Map<String, String> usernames = new HashMap<>();
+    private final Map<Window, WindowBoard> boards = new EnumMap<>(Window.class);
+
+    private LocalDate today = LocalDate.now(ZoneOffset.UTC);
+
+    @PostConstruct
+    public void warmUp() {
+        for (Window w : Window.values()) {
+            boards.put(w, new WindowBoard(w));
+        }
+
+        // One bounded load at boot; afterwards the buckets are fed by the judge
+        LocalDateTime since = today.minusDays(Window.MONTHLY.days - 1).atStartOfDay(ZoneOffset.UTC)
+                .withZoneSameInstant(ZoneId.systemDefault()).toLocalDateTime();
+        try {
+            List<Object[]> solves = submissionRepository.findFirstAcceptedSolvesSince(since);
+            synchronized (this) {
+                for (Object[] row : solves) {
+                    addSolve((String) row[0], (String) row[1], utcDay((LocalDateTime) row[2]));
+                }
+                boards.values().forEach(WindowBoard::publish);
+            }
+            log.info("Leaderboards warmed up with {} solves since {}", solves.size(), since);
+        } catch (Exception e) {
+            log.error("Failed to warm up leaderboards: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Record a user's first accepted solve of a problem
+     */
+    public synchronized void recordSolve(String userId, String username, LocalDateTime solvedAt) {
+        roll(LocalDate.now(ZoneOffset.UTC));
+        addSolve(userId, username, utcDay(solvedAt));
+        boards.values().forEach(WindowBoard::publish);
+    }
+
+    /**
+     * Get the top entries of a window
+     */
+    public List<LeaderboardEntryResponse> getLeaderboard(Window window, int limit) {
+        List<LeaderboardEntryResponse> snapshot = boards.get(window).snapshot;
+        return snapshot.subList(0, Math.min(Math.max(limit, 0), snapshot.size()));
+    }
+
+    /**
+     * Drop expired days from every window
+     * Runs at the top of each UTC hour
+     */
+    @Scheduled(cron = "0 0 * * * *", zone = "UTC")
+    public synchronized void rollWindows() {
+        if (roll(LocalDate.now(ZoneOffset.UTC))) {
+            boards.values().forEach(WindowBoard::publish);
+        }
+    }
+
+    private static LocalDate utcDay(LocalDateTime serverTime) {
+        return serverTime.atZone(ZoneId.systemDefault()).withZoneSameInstant(ZoneOffset.UTC).toLocalDate();
+    }
+
+    private void addSolve(String userId, String username, LocalDate day) {
+        if (day.isAfter(today) || day.isBefore(today.minusDays(Window.MONTHLY.days - 1))) {
+            return;
+        }
+        usernames.put(userId, username);
+        dayBuckets.computeIfAbsent(day, d -> new HashMap<>()).merge(userId, 1, Integer::sum);
+        for (WindowBoard board : boards.values()) {
+            if (board.covers(day)) {
+                board.adjust(userId, 1);
+            }
+        }
+    }
+
+    private boolean roll(LocalDate now) {
+        if (!now.isAfter(today)) {
+            return false;
+        }
+        today = now;
+        for (WindowBoard board : boards.values()) {
+            LocalDate oldest = today.minusDays(board.window.days - 1);
+            for (LocalDate day = board.oldest; day.isBefore(oldest); day = day.plusDays(1)) {
+                Map<String, Integer> bucket = dayBuckets.get(day);
+                if (bucket != null) {
+                    bucket.forEach((userId, solves) -> board.adjust(userId, -solves));
+                }
+            }
+            board.oldest = oldest;
+        }
+        // The monthly window is the widest, so anything before it is dead
+        dayBuckets.keySet().removeIf(day -> day.isBefore(boards.get(Window.MONTHLY).oldest));
+        usernames.keySet().retainAll(boards.get(Window.MONTHLY).totals.keySet());
+        return true;
+    }
+
+    private record Standing(String userId, int solved) {
+    }
+
+    private static final Comparator<Standing> RANKING = Comparator
+            .comparingInt(Standing::solved).reversed()
+            .thenComparing(Standing::userId);
+
+    private class WindowBoard {
+        final Window window;
+        LocalDate oldest;
+        final Map<String, Standing> totals = new HashMap<>();
+        final TreeSet<Standing> ranking = new TreeSet<>(RANKING);
+        volatile List<LeaderboardEntryResponse> snapshot = List.of();
+
+        WindowBoard(Window window) {
+            this.window = window;
+            this.oldest = today.minusDays(window.days - 1);
+        }
+
+        boolean covers(LocalDate day) {
+            return !day.isBefore(oldest);
+        }
+
+        void adjust(String userId, int delta) {
+            Standing current = totals.remove(userId);
+            int solved = delta;
+            if (current != null) {
+                ranking.remove(current);
+                solved += current.solved();
+            }
+            if (solved > 0) {
+                Standing updated = new Standing(userId, solved);
+                totals.put(userId, updated);
+                ranking.add(updated);
+            }
+        }
+
+        void publish() {
+            List<LeaderboardEntryResponse> top = new ArrayList<>(Math.min(ranking.size(), SNAPSHOT_SIZE));
+            for (Standing s : ranking) {
+                if (top.size() == SNAPSHOT_SIZE) {
+                    break;
+                }
+                top.add(new LeaderboardEntryResponse(top.size() + 1, s.userId(), usernames.get(s.userId()),
+                        s.solved()));
+            }
+            snapshot = Collections.unmodifiableList(top);
+        }
+    }
+}
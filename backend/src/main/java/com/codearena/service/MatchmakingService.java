@@ -0,0 +1,313 @@
+package com.codearena.service;
+
+import com.codearena.dto.CreateRoomRequest;
+import com.codearena.dto.RoomResponse;
+import com.codearena.entity.Room;
+import com.codearena.entity.User;
+import com.codearena.repository.UserRepository;
+import com.codearena.room.LiveRoom;
+import com.codearena.room.ProblemFilter;
+import com.codearena.room.PublicRoomIndex;
+import com.codearena.room.RoomRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * Quick-match queue behind random join.
+ *
+ * Players wait in FIFO queues keyed by rating band and room preferences, so
+ * joining and leaving the queue are O(1): leaving only marks the ticket, and
+ * the tick skips marked tickets as it reaches them. On every tick each queue is cut into
+ * full groups and one room is created per group, instead of every click
+ * probing the same few open rooms. A player still alone after max-wait is
+ * placed into an open public room with the same preferences, or gets a new room.
+ *
+ * Assignments complete the player's future and are pushed to
+ * /topic/matchmaking/{userId}.
+ */
+@Service
+@Slf4j
+public class MatchmakingService {
+
+    private final RoomService roomService;
+    private final PublicRoomIndex publicRoomIndex;
+    private final RoomRegistry roomRegistry;
+    private final UserRepository userRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final int ratingBand;
+    private final Duration maxWait;
+
+    // Guarded by "this"
+    private final Map<QueueKey, TicketQueue> queues = new HashMap<>();
+    private final Map<String, Ticket> tickets = new HashMap<>();
+
+    public MatchmakingService(RoomService roomService,
+            PublicRoomIndex publicRoomIndex,
+            RoomRegistry roomRegistry,
+            UserRepository userRepository,
+            SimpMessagingTemplate messagingTemplate,
+            @Value("${matchmaking.rating-band:200}") int ratingBand,
+            @Value("${matchmaking.max-wait-ms:5000}") long maxWaitMs) {
+        this.roomService = roomService;
+        this.publicRoomIndex = publicRoomIndex;
+        this.roomRegistry = roomRegistry;
+        this.userRepository = userRepository;
+        this.messagingTemplate = messagingTemplate;
+        this.ratingBand = Math.max(1, ratingBand);
+        this.maxWait = Duration.ofMillis(maxWaitMs);
+    }
+
+    /**
+     * Put a player in the queue. Completes with the assigned room.
+     * Calling again while queued returns the pending ticket.
+     */
+    public CompletableFuture<RoomResponse> enqueue(String userId, String username, CreateRoomRequest preferences) {
+        int rating = userRepository.findById(userId).map(User::getRating).orElse(0);
+        QueueKey key = QueueKey.of(rating / ratingBand, preferences);
+
+        synchronized (this) {
+            Ticket existing = tickets.get(userId);
+            if (existing != null) {
+                return existing.future;
+            }
+            Ticket ticket = new Ticket(userId, username, key, Instant.now());
+            tickets.put(userId, ticket);
+            queues.computeIfAbsent(key, k -> new TicketQueue()).add(ticket);
+            return ticket.future;
+        }
+    }
+
+    /**
+     * Leave the queue. Returns false if the player was not queued.
+     */
+    public boolean cancel(String userId) {
+        return cancel(userId, null);
+    }
+
+    /**
+     * Leave the queue only if the player is still waiting on the given future,
+     * so an abandoned request does not cancel a newer one by the same player.
+     */
+    public boolean cancel(String userId, CompletableFuture<RoomResponse> future) {
+        Ticket ticket;
+        synchronized (this) {
+            ticket = tickets.get(userId);
+            if (ticket == null || (future != null && ticket.future != future)) {
+                return false;
+            }
+            tickets.remove(userId);
+            // Left in its queue as a tombstone; the tick drops it
+            ticket.cancelled = true;
+            queues.get(ticket.key).live--;
+        }
+        ticket.future.cancel(false);
+        return true;
+    }
+
+    public synchronized int queuedCount() {
+        return tickets.size();
+    }
+
+    /**
+     * Form rooms from the queues
+     * Runs every tick (500ms by default)
+     */
+    @Scheduled(fixedDelayString = "${matchmaking.tick-ms:500}")
+    public void tick() {
+        Instant staleBefore = Instant.now().minus(maxWait);
+        List<List<Ticket>> groups = new ArrayList<>();
+        List<Ticket> stale = new ArrayList<>();
+
+        synchronized (this) {
+            Iterator<Map.Entry<QueueKey, TicketQueue>> it = queues.entrySet().iterator();
+            while (it.hasNext()) {
+                Map.Entry<QueueKey, TicketQueue> entry = it.next();
+                TicketQueue queue = entry.getValue();
+                int size = entry.getKey().maxParticipants();
+
+                while (queue.live >= size) {
+                    groups.add(take(queue, size));
+                }
+                // Leftovers that waited too long are placed on their own
+                Ticket oldest = queue.first();
+                if (oldest != null && oldest.enqueuedAt.isBefore(staleBefore)) {
+                    if (queue.live > 1) {
+                        groups.add(take(queue, queue.live));
+                    } else {
+                        stale.add(take(queue, 1).get(0));
+                    }
+                }
+                if (queue.first() == null) {
+                    it.remove();
+                }
+            }
+        }
+
+        groups.forEach(this::placeGroup);
+        stale.forEach(this::placeAlone);
+    }
+
+    // Caller holds "this" and has checked that count tickets are live
+    private List<Ticket> take(TicketQueue queue, int count) {
+        List<Ticket> group = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            Ticket ticket = queue.first();
+            queue.tickets.pollFirst();
+            queue.live--;
+            tickets.remove(ticket.userId);
+            group.add(ticket);
+        }
+        return group;
+    }
+
+    private void placeGroup(List<Ticket> group) {
+        Ticket host = group.get(0);
+        RoomResponse room;
+        try {
+            room = roomService.createRoom(host.userId, host.username, host.key.toRequest());
+        } catch (Exception e) {
+            log.error("Matchmaking failed to create room for {} players: {}", group.size(), e.getMessage());
+            group.forEach(t -> t.future.completeExceptionally(e));
+            return;
+        }
+        assign(host, room);
+
+        for (Ticket ticket : group.subList(1, group.size())) {
+            try {
+                assign(ticket, roomService.joinRoom(room.getId(), ticket.userId, ticket.username));
+            } catch (Exception e) {
+                log.warn("Matchmaking failed to seat {} in room {}: {}", ticket.userId, room.getId(), e.getMessage());
+                ticket.future.completeExceptionally(e);
+            }
+        }
+        log.info("Matchmaking formed room {} with {} players", room.getId(), group.size());
+    }
+
+    private void placeAlone(Ticket ticket) {
+        // Least crowded open room with the same preferences, any rating
+        List<RoomResponse> candidates = publicRoomIndex.snapshot().rooms().stream()
+                .filter(view -> "waiting".equals(view.getStatus()) && ticket.key.accepts(view, filterOf(view))
+                        && view.getRoomParticipants().size() < view.getMaxParticipants())
+                .sorted(Comparator.comparingInt(view -> view.getRoomParticipants().size()))
+                .toList();
+
+        for (RoomResponse candidate : candidates) {
+            try {
+                assign(ticket, roomService.joinRoom(candidate.getId(), ticket.userId, ticket.username));
+                return;
+            } catch (Exception e) {
+                // Filled up or ended since it was listed, try next room
+                log.debug("Matchmaking could not join room {}: {}", candidate.getId(), e.getMessage());
+            }
+        }
+        placeGroup(List.of(ticket));
+    }
+
+    // The filter is fixed at creation, so it can be read outside the room's mailbox
+    private ProblemFilter filterOf(RoomResponse view) {
+        return roomRegistry.find(view.getId()).map(LiveRoom::getProblemFilter).orElse(null);
+    }
+
+    private void assign(Ticket ticket, RoomResponse room) {
+        ticket.future.complete(room);
+        messagingTemplate.convertAndSend("/topic/matchmaking/" + ticket.userId,
+                Map.of("status", "MATCHED", "room", room));
+    }
+
+    private static final class Ticket {
+        final String userId;
+        final String username;
+        final QueueKey key;
+        final Instant enqueuedAt;
+        final CompletableFuture<RoomResponse> future = new CompletableFuture<>();
+        boolean cancelled; // Guarded by the service
+
+        Ticket(String userId, String username, QueueKey key, Instant enqueuedAt) {
+            this.userId = userId;
+            this.username = username;
+            this.key = key;
+            this.enqueuedAt = enqueuedAt;
+        }
+    }
+
+    /**
+     * FIFO of tickets, including cancelled ones not yet reached by the tick.
+     * Guarded by the service.
+     */
+    private static final class TicketQueue {
+        final ArrayDeque<Ticket> tickets = new ArrayDeque<>();
+        int live;
+
+        void add(Ticket ticket) {
+            tickets.addLast(ticket);
+            live++;
+        }
+
+        // Oldest live ticket, dropping cancelled ones in front of it
+        Ticket first() {
+            while (!tickets.isEmpty() && tickets.peekFirst().cancelled) {
+                tickets.pollFirst();
+            }
+            return tickets.peekFirst();
+        }
+    }
+
+    /**
+     * Players only share a room when rating band and room preferences match.
+     * Quick-match rooms are always public.
+     */
+    private record QueueKey(int band, Room.ProblemSelectionMode mode, Long problemId, ProblemFilter filter,
+            int maxParticipants) {
+
+        static QueueKey of(int band, CreateRoomRequest preferences) {
+            Room.ProblemSelectionMode mode = Room.ProblemSelectionMode.RANDOM;
+            Long problemId = null;
+            ProblemFilter filter = ProblemFilter.ANY;
+            int maxParticipants = 4;
+            if (preferences != null) {
+                if (preferences.getProblemSelectionMode() != null) {
+                    mode = Room.ProblemSelectionMode.valueOf(preferences.getProblemSelectionMode().toUpperCase());
+                }
+                if (mode == Room.ProblemSelectionMode.SINGLE) {
+                    problemId = preferences.getProblemId();
+                } else {
+                    filter = RoomService.problemFilter(preferences);
+                }
+                if (preferences.getMaxParticipants() != null) {
+                    maxParticipants = Math.min(RoomService.MAX_PARTICIPANTS,
+                            Math.max(RoomService.MIN_PARTICIPANTS, preferences.getMaxParticipants()));
+                }
+            }
+            return new QueueKey(band, mode, problemId, filter, maxParticipants);
+        }
+
+        boolean accepts(RoomResponse room, ProblemFilter roomFilter) {
+            return mode.name().equalsIgnoreCase(room.getProblemSelectionMode())
+                    && room.getMaxParticipants() == maxParticipants
+                    && (mode == Room.ProblemSelectionMode.SINGLE
+                            ? Objects.equals(room.getProblemId(), problemId)
+                            : filter.equals(roomFilter));
+        }
+
+        CreateRoomRequest toRequest() {
+            CreateRoomRequest request = new CreateRoomRequest();
+            request.setProblemId(problemId);
+            request.setProblemSelectionMode(mode.name().toLowerCase());
+            request.setMaxParticipants(maxParticipants);
+            request.setIsPrivate(false);
+            request.setProblemDifficulty(filter.difficulty() != null ? filter.difficulty().name() : null);
+            request.setProblemTag(filter.tag());
+            request.setUnsolvedOnly(filter.unsolvedOnly());
+            return request;
+        }
+    }
+}
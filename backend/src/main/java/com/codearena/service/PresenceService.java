@@ -0,0 +1,201 @@
+package com.codearena.service;
+
+import com.codearena.room.TimerWheel;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import java.security.Principal;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Who is connected, and to which rooms, from STOMP session events.
+ *
+ * Only authenticated sessions count: the user is the principal set when the
+ * JWT was verified on CONNECT, never a client-supplied header, so nobody can
+ * stand in for another user and trigger their auto-leave. Subscribing to any
+ * /topic/room/{id} destination except the spectator feed counts as being
+ * present in that room. When a user's last subscription to a room goes away -
+ * unsubscribe, tab closed, or the broker dropping a session that missed its
+ * heartbeats - a leave is scheduled after a grace period, and cancelled if the
+ * user comes back first.
+ * Reconnects and page changes therefore never touch the room, and the only
+ * write is the leave itself.
+ */
+@Service
+@Slf4j
+public class PresenceService {
+
+    private static final Pattern ROOM_TOPIC = Pattern.compile("^/topic/room/([A-Za-z0-9]+)(/(?!spectate$).*)?$");
+
+    private final RoomService roomService;
+    private final long graceMillis;
+
+    private static final class Session {
+        private final String userId;
+        private final Map<String, String> rooms = new HashMap<>(); // subscription id -> room id
+
+        private Session(String userId) {
+            this.userId = userId;
+        }
+    }
+
+    // All guarded by this
+    private final Map<String, Session> sessions = new HashMap<>();
+    private final Map<String, Set<String>> userSessions = new HashMap<>();
+    private final Map<String, Map<String, Integer>> roomUsers = new HashMap<>(); // room -> user -> subscriptions
+    private final TimerWheel<String> pendingLeaves;
+
+    public PresenceService(RoomService roomService,
+            @Value("${presence.grace-seconds:30}") long graceSeconds,
+            @Value("${presence.tick-ms:1000}") long tickMs) {
+        this.roomService = roomService;
+        this.graceMillis = graceSeconds * 1000;
+        this.pendingLeaves = new TimerWheel<>(tickMs, System.currentTimeMillis());
+    }
+
+    @EventListener
+    public void onConnect(SessionConnectEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        Principal user = accessor.getUser();
+        if (user == null || user.getName() == null || accessor.getSessionId() == null) {
+            return;
+        }
+        String userId = user.getName();
+        synchronized (this) {
+            sessions.put(accessor.getSessionId(), new Session(userId));
+            userSessions.computeIfAbsent(userId, id -> new HashSet<>()).add(accessor.getSessionId());
+        }
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        Matcher matcher = destination != null ? ROOM_TOPIC.matcher(destination) : null;
+        if (matcher == null || !matcher.matches()) {
+            return;
+        }
+        String roomId = matcher.group(1).toUpperCase();
+        synchronized (this) {
+            Session session = sessions.get(accessor.getSessionId());
+            if (session == null || accessor.getSubscriptionId() == null) {
+                return;
+            }
+            session.rooms.put(accessor.getSubscriptionId(), roomId);
+            roomUsers.computeIfAbsent(roomId, id -> new HashMap<>()).merge(session.userId, 1, Integer::sum);
+            pendingLeaves.cancel(key(roomId, session.userId));
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(event.getMessage());
+        synchronized (this) {
+            Session session = sessions.get(accessor.getSessionId());
+            if (session == null) {
+                return;
+            }
+            String roomId = session.rooms.remove(accessor.getSubscriptionId());
+            if (roomId != null) {
+                release(roomId, session.userId);
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        synchronized (this) {
+            Session session = sessions.remove(event.getSessionId());
+            if (session == null) {
+                return;
+            }
+            session.rooms.values().forEach(roomId -> release(roomId, session.userId));
+            Set<String> ids = userSessions.get(session.userId);
+            ids.remove(event.getSessionId());
+            if (ids.isEmpty()) {
+                userSessions.remove(session.userId);
+            }
+        }
+    }
+
+    /**
+     * Leave rooms whose grace period ran out
+     * Runs every tick (1s by default)
+     */
+    @Scheduled(fixedDelayString = "${presence.tick-ms:1000}")
+    public void leaveAbsentUsers() {
+        List<String> due;
+        synchronized (this) {
+            due = pendingLeaves.advance(System.currentTimeMillis());
+        }
+        for (String key : due) {
+            int separator = key.indexOf('|');
+            String roomId = key.substring(0, separator);
+            String userId = key.substring(separator + 1);
+            if (isPresent(roomId, userId)) {
+                // Came back after the timer fired
+                continue;
+            }
+            try {
+                roomService.leaveRoom(roomId, userId);
+                log.info("User {} left room {} after {} s without a connection", userId, roomId, graceMillis / 1000);
+            } catch (RuntimeException e) {
+                // Already left, or the room is gone
+                log.debug("No auto-leave for user {} in room {}: {}", userId, roomId, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Users with at least one open session
+     */
+    public synchronized int onlineUsers() {
+        return userSessions.size();
+    }
+
+    /**
+     * Users connected to at least one room
+     */
+    public synchronized long activePlayers() {
+        return roomUsers.values().stream()
+                .flatMap(users -> users.keySet().stream())
+                .distinct()
+                .count();
+    }
+
+    public synchronized boolean isPresent(String roomId, String userId) {
+        Map<String, Integer> users = roomUsers.get(roomId.toUpperCase());
+        return users != null && users.containsKey(userId);
+    }
+
+    // Caller holds the lock
+    private void release(String roomId, String userId) {
+        Map<String, Integer> users = roomUsers.get(roomId);
+        if (users == null || users.merge(userId, -1, Integer::sum) > 0) {
+            return;
+        }
+        users.remove(userId);
+        if (users.isEmpty()) {
+            roomUsers.remove(roomId);
+        }
+        pendingLeaves.schedule(key(roomId, userId), System.currentTimeMillis() + graceMillis);
+    }
+
+    private static String key(String roomId, String userId) {
+        return roomId + '|' + userId;
+    }
+}
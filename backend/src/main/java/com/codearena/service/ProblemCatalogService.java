@@ -0,0 +1,212 @@
+package com.codearena.service;
+
+import com.codearena.entity.Problem;
+import com.codearena.room.ProblemFilter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.*;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory catalog of problem IDs for random room problems.
+ *
+ * The catalog is loaded from Supabase at startup and refreshed in the
+ * background, indexed by difficulty and by tag. Picking a problem is an
+ * in-memory lookup and never waits on the network. If a refresh fails, the
+ * previous catalog stays in use. While the catalog is empty, picks start a
+ * background reload (at most one per retry interval) and find nothing until it lands.
+ */
+@Service
+@Slf4j
+public class ProblemCatalogService {
+
+    // Random probes before falling back to scanning the candidate list
+    private static final int PROBES = 8;
+
+    private final RestTemplate restTemplate = new RestTemplate();
+
+    @Value("${supabase.url}")
+    private String supabaseUrl;
+
+    @Value("${supabase.key}")
+    private String supabaseKey;
+
+    @Value("${problems.catalog.retry-ms:10000}")
+    private long retryMs;
+
+    private volatile Catalog catalog = Catalog.EMPTY;
+    private final AtomicBoolean refreshing = new AtomicBoolean();
+    private volatile long lastAttemptMillis;
+
+    private record Catalog(long[] all, Map<Problem.Difficulty, long[]> byDifficulty, Map<String, long[]> byTag,
+            Map<Long, Problem.Difficulty> difficultyOf) {
+
+        static final Catalog EMPTY = new Catalog(new long[0], Map.of(), Map.of(), Map.of());
+    }
+
+    /**
+     * Reload the catalog
+     * Runs at startup and then every 5 minutes
+     */
+    @Scheduled(fixedDelayString = "${problems.catalog.refresh-ms:300000}")
+    public void refresh() {
+        // One load at a time, whether scheduled or started by a pick
+        if (!refreshing.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            load();
+        } finally {
+            lastAttemptMillis = System.currentTimeMillis();
+            refreshing.set(false);
+        }
+    }
+
+    private void load() {
+        String url = supabaseUrl + "/rest/v1/problems?select=id,difficulty,tags";
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.set("apikey", supabaseKey);
+        headers.set("Authorization", "Bearer " + supabaseKey);
+
+        List<Map<String, Object>> rows;
+        try {
+            ResponseEntity<List> response = restTemplate.exchange(url, HttpMethod.GET, new HttpEntity<>(headers),
+                    List.class);
+            rows = response.getBody();
+        } catch (Exception e) {
+            log.error("Failed to refresh problem catalog, keeping {} cached problems: {}",
+                    catalog.all().length, e.getMessage());
+            return;
+        }
+        if (rows == null) {
+            return;
+        }
+
+        Map<Problem.Difficulty, List<Long>> byDifficulty = new EnumMap<>(Problem.Difficulty.class);
+        Map<String, List<Long>> byTag = new HashMap<>();
+        Map<Long, Problem.Difficulty> difficultyOf = new HashMap<>();
+        long[] all = new long[rows.size()];
+        int n = 0;
+
+        for (Map<String, Object> row : rows) {
+            long id = ((Number) row.get("id")).longValue();
+            all[n++] = id;
+            Problem.Difficulty difficulty = parseDifficulty(row.get("difficulty"));
+            if (difficulty != null) {
+                byDifficulty.computeIfAbsent(difficulty, d -> new ArrayList<>()).add(id);
+                difficultyOf.put(id, difficulty);
+            }
+            if (row.get("tags") instanceof List<?> tags) {
+                for (Object tag : tags) {
+                    if (tag != null) {
+                        byTag.computeIfAbsent(normalizeTag(tag.toString()), t -> new ArrayList<>()).add(id);
+                    }
+                }
+            }
+        }
+
+        Map<Problem.Difficulty, long[]> difficultyIndex = new EnumMap<>(Problem.Difficulty.class);
+        byDifficulty.forEach((d, ids) -> difficultyIndex.put(d, toArray(ids)));
+        Map<String, long[]> tagIndex = new HashMap<>();
+        byTag.forEach((t, ids) -> tagIndex.put(t, toArray(ids)));
+
+        catalog = new Catalog(all, difficultyIndex, tagIndex, difficultyOf);
+        log.info("Problem catalog refreshed: {} problems, {} tags", all.length, tagIndex.size());
+    }
+
+    /**
+     * Pick a random problem matching the filter, skipping solved problems when possible.
+     * Returns empty if no problem matches the difficulty / tag.
+     */
+    public Optional<Long> pickRandom(ProblemFilter filter, Set<Long> solved) {
+        Catalog current = catalog;
+        if (current.all().length == 0) {
+            // Nothing loaded yet (e.g. Supabase was down at startup); don't make the caller wait for it
+            refreshInBackground();
+            return Optional.empty();
+        }
+
+        long[] candidates = candidates(current, filter);
+        Problem.Difficulty difficulty = filter.tag() != null ? filter.difficulty() : null;
+        Set<Long> excluded = filter.unsolvedOnly() ? solved : Set.of();
+
+        Optional<Long> pick = pick(current, candidates, difficulty, excluded);
+        if (pick.isEmpty() && !excluded.isEmpty()) {
+            // Participants have solved everything that matches; allow repeats rather than fail
+            log.info("Every problem matching {} is solved by a participant, allowing repeats", filter);
+            pick = pick(current, candidates, difficulty, Set.of());
+        }
+        return pick;
+    }
+
+    public int size() {
+        return catalog.all().length;
+    }
+
+    private void refreshInBackground() {
+        if (!refreshing.get() && System.currentTimeMillis() - lastAttemptMillis >= retryMs) {
+            CompletableFuture.runAsync(this::refresh);
+        }
+    }
+
+    // Smallest index covering the filter; a remaining difficulty check is done per candidate
+    private static long[] candidates(Catalog catalog, ProblemFilter filter) {
+        if (filter.tag() != null) {
+            return catalog.byTag().getOrDefault(normalizeTag(filter.tag()), new long[0]);
+        }
+        if (filter.difficulty() != null) {
+            return catalog.byDifficulty().getOrDefault(filter.difficulty(), new long[0]);
+        }
+        return catalog.all();
+    }
+
+    private static Optional<Long> pick(Catalog catalog, long[] candidates, Problem.Difficulty difficulty,
+            Set<Long> excluded) {
+        if (candidates.length == 0) {
+            return Optional.empty();
+        }
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        for (int i = 0; i < PROBES; i++) {
+            long id = candidates[random.nextInt(candidates.length)];
+            if (matches(catalog, id, difficulty, excluded)) {
+                return Optional.of(id);
+            }
+        }
+        // Mostly filtered out: pick uniformly among the remaining matches
+        long[] matching = Arrays.stream(candidates)
+                .filter(id -> matches(catalog, id, difficulty, excluded))
+                .toArray();
+        return matching.length == 0 ? Optional.empty() : Optional.of(matching[random.nextInt(matching.length)]);
+    }
+
+    private static boolean matches(Catalog catalog, long id, Problem.Difficulty difficulty, Set<Long> excluded) {
+        return (difficulty == null || catalog.difficultyOf().get(id) == difficulty) && !excluded.contains(id);
+    }
+
+    private static Problem.Difficulty parseDifficulty(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Problem.Difficulty.valueOf(value.toString().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String normalizeTag(String tag) {
+        return tag.trim().toLowerCase();
+    }
+
+    private static long[] toArray(List<Long> ids) {
+        return ids.stream().mapToLong(Long::longValue).toArray();
+    }
+}
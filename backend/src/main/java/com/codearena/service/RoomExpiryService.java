@@ -0,0 +1,176 @@
+package com.codearena.service;
+
+import com.codearena.dto.RoomEvent;
+import com.codearena.dto.RoomResponse;
+import com.codearena.entity.Room;
+import com.codearena.room.LiveRoom;
+import com.codearena.room.RoomExecutor;
+import com.codearena.room.RoomListener;
+import com.codearena.room.RoomRegistry;
+import com.codearena.room.TimerWheel;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Expires rooms from a timer wheel.
+ *
+ * Whenever a room is committed its next deadline is (re)scheduled, so each
+ * tick only touches rooms that are actually due. Rules:
+ * - waiting or completed rooms live waiting-minutes from creation
+ * - active rooms run at most active-minutes from their start
+ * - a room left empty is removed after empty-minutes
+ *
+ * Participants get an EXPIRED status event before the room is removed; the
+ * database rows go out in the next batched write-behind delete.
+ */
+@Service
+@DependsOn("roomWriteBehind") // Schedules the rooms it rebuilds at startup
+@Slf4j
+public class RoomExpiryService implements RoomListener {
+
+    private final RoomRegistry roomRegistry;
+    private final RoomExecutor roomExecutor;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    private final long waitingMinutes;
+    private final long activeMinutes;
+    private final long emptyMinutes;
+
+    // Guarded by itself
+    private final TimerWheel<String> wheel;
+
+    public RoomExpiryService(RoomRegistry roomRegistry,
+            RoomExecutor roomExecutor,
+            SimpMessagingTemplate messagingTemplate,
+            @Value("${rooms.expiry.tick-ms:1000}") long tickMs,
+            @Value("${rooms.expiry.waiting-minutes:105}") long waitingMinutes,
+            @Value("${rooms.expiry.active-minutes:180}") long activeMinutes,
+            @Value("${rooms.expiry.empty-minutes:15}") long emptyMinutes) {
+        this.roomRegistry = roomRegistry;
+        this.roomExecutor = roomExecutor;
+        this.messagingTemplate = messagingTemplate;
+        this.waitingMinutes = waitingMinutes;
+        this.activeMinutes = activeMinutes;
+        this.emptyMinutes = emptyMinutes;
+        this.wheel = new TimerWheel<>(tickMs, System.currentTimeMillis());
+    }
+
+    private record Expiry(LocalDateTime deadline, String reason) {
+    }
+
+    @PostConstruct
+    public void init() {
+        roomRegistry.addListener(this);
+        // Rooms restored by RoomWriteBehind before we registered
+        for (LiveRoom room : roomRegistry.all()) {
+            roomExecutor.run(room.getId(), () -> schedule(room));
+        }
+        log.info("Room expiry scheduled for {} rooms", roomRegistry.size());
+    }
+
+    @Override
+    public void roomChanged(LiveRoom room, RoomResponse view) {
+        schedule(room);
+    }
+
+    @Override
+    public void roomRemoved(LiveRoom room) {
+        synchronized (wheel) {
+            wheel.cancel(room.getId());
+        }
+    }
+
+    /**
+     * Expire due rooms
+     * Runs every tick (1s by default)
+     */
+    @Scheduled(fixedDelayString = "${rooms.expiry.tick-ms:1000}")
+    public void expireDueRooms() {
+        List<String> due;
+        synchronized (wheel) {
+            due = wheel.advance(System.currentTimeMillis());
+        }
+        if (due.isEmpty()) {
+            return;
+        }
+
+        int expired = 0;
+        for (String roomId : due) {
+            if (!roomRegistry.contains(roomId)) {
+                continue; // Removed since it was scheduled
+            }
+            String reason;
+            try {
+                reason = roomExecutor.call(roomId, () -> expireIfDue(roomId));
+            } catch (RuntimeException e) {
+                log.debug("Skipped expiry of room {}: {}", roomId, e.getMessage());
+                continue;
+            }
+            if (reason != null) {
+                log.info("Expired room {} - Reason: {}", roomId, reason);
+                expired++;
+            }
+        }
+        if (expired > 0) {
+            log.info("Expiry tick removed {} rooms", expired);
+        }
+    }
+
+    // Runs inside the room's mailbox
+    private String expireIfDue(String roomId) {
+        LiveRoom room = roomRegistry.find(roomId).orElse(null);
+        if (room == null) {
+            return null;
+        }
+        Expiry expiry = evaluate(room);
+        if (expiry.deadline().isAfter(LocalDateTime.now())) {
+            // Fired early relative to the room clock; try again at the real deadline
+            schedule(room);
+            return null;
+        }
+
+        messagingTemplate.convertAndSend("/topic/room/" + roomId + "/status",
+                Map.of("status", "EXPIRED", "reason", expiry.reason()));
+        room.append(RoomEvent.expired(expiry.reason()));
+        roomRegistry.remove(roomId);
+        roomExecutor.retire(roomId);
+        return expiry.reason();
+    }
+
+    // Runs inside the room's mailbox
+    private void schedule(LiveRoom room) {
+        long deadline = evaluate(room).deadline().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        synchronized (wheel) {
+            wheel.schedule(room.getId(), deadline);
+        }
+    }
+
+    private Expiry evaluate(LiveRoom room) {
+        Expiry expiry;
+        if (room.getStatus() == Room.RoomStatus.ACTIVE && room.getStartedAt() != null) {
+            expiry = new Expiry(room.getStartedAt().plusMinutes(activeMinutes),
+                    "Exceeded " + activeMinutes + " minutes duration");
+        } else {
+            expiry = new Expiry(room.getCreatedAt().plusMinutes(waitingMinutes),
+                    "Older than " + waitingMinutes + " minutes");
+        }
+
+        if (room.getLastEmptyAt() != null && room.activeCount() == 0) {
+            LocalDateTime emptyDeadline = room.getLastEmptyAt().plusMinutes(emptyMinutes);
+            if (emptyDeadline.isBefore(expiry.deadline())) {
+                expiry = new Expiry(emptyDeadline, "Empty for > " + emptyMinutes + " minutes");
+            }
+        }
+        return expiry;
+    }
+}
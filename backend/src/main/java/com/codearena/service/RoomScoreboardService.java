@@ -0,0 +1,107 @@
+package com.codearena.service;
+
+import com.codearena.dto.RoomEvent;
+import com.codearena.dto.RoomResponse;
+import com.codearena.dto.RoomScoreResponse;
+import com.codearena.entity.Room;
+import com.codearena.entity.Submission;
+import com.codearena.room.LiveRoom;
+import com.codearena.room.LiveScore;
+import com.codearena.room.RoomExecutor;
+import com.codearena.room.RoomRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Live per-room scoreboard fed by the judge.
+ *
+ * Each verdict of a room submission updates the submitter's row in memory
+ * inside the room's mailbox and is pushed as a SCORE_UPDATED room event; the
+ * first ACCEPTED verdict to arrive completes the room with that user as winner.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class RoomScoreboardService {
+
+    // Verdicts that count as an attempt (compile errors are free)
+    private static final Set<Submission.Status> SCORED = Set.of(
+            Submission.Status.ACCEPTED,
+            Submission.Status.WRONG_ANSWER,
+            Submission.Status.TIME_LIMIT_EXCEEDED,
+            Submission.Status.MEMORY_LIMIT_EXCEEDED,
+            Submission.Status.RUNTIME_ERROR);
+
+    private final RoomRegistry roomRegistry;
+    private final RoomExecutor roomExecutor;
+    private final RoomService roomService;
+
+    /**
+     * Reject a room submission unless the room is running this problem and the user is in it
+     */
+    public void checkCanSubmit(String roomId, String userId, Long problemId) {
+        RoomResponse view = roomRegistry.get(roomId.toUpperCase()).getView();
+        if (!"active".equals(view.getStatus())) {
+            throw new RuntimeException("Cannot submit: room is not active");
+        }
+        if (!problemId.equals(view.getProblemId())) {
+            throw new RuntimeException("Cannot submit: problem does not belong to this room");
+        }
+        if (view.getRoomParticipants().stream().noneMatch(p -> p.getUserId().equals(userId))) {
+            throw new RuntimeException("Cannot submit: not a participant of this room");
+        }
+    }
+
+    /**
+     * Apply a judged room submission to the scoreboard
+     */
+    public void recordVerdict(Submission submission) {
+        String roomId = submission.getRoomId();
+        if (roomId == null || !SCORED.contains(submission.getStatus())) {
+            return;
+        }
+        String userId = submission.getUser().getId();
+        String username = submission.getUser().getUsername();
+        boolean accepted = submission.getStatus() == Submission.Status.ACCEPTED;
+
+        Boolean won;
+        try {
+            won = roomExecutor.call(roomId, () -> {
+                LiveRoom room = roomRegistry.find(roomId).orElse(null);
+                if (room == null || room.getStatus() != Room.RoomStatus.ACTIVE) {
+                    return false; // Verdict landed after the room ended
+                }
+                LiveScore score = room.score(userId, username);
+                if (score.isSolved()) {
+                    return false;
+                }
+                score.record(accepted, submission.getTestCasesPassed(), submission.getTotalTestCases(),
+                        submission.getSubmittedAt(), room.getStartedAt());
+                List<RoomScoreResponse> scoreboard = RoomScoreResponse.scoreboard(room);
+                room.append(RoomEvent.scoreUpdated(userId, scoreboard));
+                roomRegistry.commit(room);
+                return accepted && room.getWinnerId() == null;
+            });
+        } catch (RuntimeException e) {
+            log.warn("Could not record verdict of submission {} in room {}: {}", submission.getId(), roomId,
+                    e.getMessage());
+            return;
+        }
+
+        if (won) {
+            log.info("Room {} won by {} (submission {})", roomId, userId, submission.getId());
+            roomService.completeRoom(roomId, userId);
+        }
+    }
+
+    /**
+     * Get a room's scoreboard, best first
+     */
+    public List<RoomScoreResponse> getScoreboard(String roomId) {
+        return roomRegistry.get(roomId.toUpperCase()).getView().getScoreboard();
+    }
+}
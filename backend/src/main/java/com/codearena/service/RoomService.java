@@ -1,27 +1,34 @@
 package com.codearena.service;
 
 import com.codearena.dto.CreateRoomRequest;
+import com.codearena.dto.RoomEvent;
+import com.codearena.dto.RoomEventsResponse;
+import com.codearena.dto.RoomParticipantResponse;
 import com.codearena.dto.RoomResponse;
 import com.codearena.entity.Problem;
 import com.codearena.entity.Room;
-import com.codearena.entity.RoomParticipant;
-import com.codearena.repository.ProblemRepository;
-import com.codearena.repository.RoomParticipantRepository;
-import com.codearena.repository.RoomRepository;
+import com.codearena.repository.SubmissionRepository;
+import com.codearena.room.LiveParticipant;
+import com.codearena.room.LiveRoom;
+import com.codearena.room.ProblemFilter;
+import com.codearena.room.PublicRoomIndex;
+import com.codearena.room.RoomExecutor;
+import com.codearena.room.RoomIdAllocator;
+import com.codearena.room.RoomRegistry;
+import com.codearena.room.Seat;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.http.*;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestTemplate;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.scheduling.annotation.Scheduled;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
 import java.util.List;
 import java.util.Map;
-import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
 @Service
@@ -29,425 +36,405 @@ public class RoomService {
 
     private static final Logger log = LoggerFactory.getLogger(RoomService.class);
 
-    private final RoomRepository roomRepository;
-    private final RoomParticipantRepository participantRepository;
-    private final ProblemRepository problemRepository;
-    private final RestTemplate restTemplate;
+    private static final int MAX_COALESCE_MS = 1000;
+    // Widths of room_participants.username and rooms.problem_tag; longer values would fail every flush
+    private static final int USERNAME_LENGTH = 50;
+    private static final int TAG_LENGTH = 50;
+    // Matches the largest lobby the client offers (99 = "unlimited")
+    static final int MIN_PARTICIPANTS = 2;
+    static final int MAX_PARTICIPANTS = 99;
+
+    private final RoomRegistry roomRegistry;
+    private final RoomExecutor roomExecutor;
+    private final RoomIdAllocator roomIdAllocator;
+    private final PublicRoomIndex publicRoomIndex;
+    private final ProblemCatalogService problemCatalogService;
+    private final SubmissionRepository submissionRepository;
     private final SimpMessagingTemplate messagingTemplate;
-
-    @Value("${supabase.url}")
-    private String supabaseUrl;
-
-    @Value("${supabase.key}")
-    private String supabaseKey;
-
-    private static final String ROOM_ID_CHARS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
-    private static final int ROOM_ID_LENGTH = 6;
-    private final Random random = new Random();
-
-    public RoomService(RoomRepository roomRepository,
-            RoomParticipantRepository participantRepository,
-            ProblemRepository problemRepository,
-            SimpMessagingTemplate messagingTemplate) {
-        this.roomRepository = roomRepository;
-        this.participantRepository = participantRepository;
-        this.problemRepository = problemRepository;
+    private final int defaultCoalesceMs;
+
+    public RoomService(RoomRegistry roomRegistry,
+            RoomExecutor roomExecutor,
+            RoomIdAllocator roomIdAllocator,
+            PublicRoomIndex publicRoomIndex,
+            ProblemCatalogService problemCatalogService,
+            SubmissionRepository submissionRepository,
+            SimpMessagingTemplate messagingTemplate,
+            @Value("${rooms.coalesce.default-tick-ms:0}") int defaultCoalesceMs) {
+        this.roomRegistry = roomRegistry;
+        this.roomExecutor = roomExecutor;
+        this.roomIdAllocator = roomIdAllocator;
+        this.publicRoomIndex = publicRoomIndex;
         this.messagingTemplate = messagingTemplate;
-        this.restTemplate = new RestTemplate();
-    }
-
-    private HttpHeaders createSupabaseHeaders() {
-        HttpHeaders headers = new HttpHeaders();
-        headers.setContentType(MediaType.APPLICATION_JSON);
-        headers.set("apikey", supabaseKey);
-        headers.set("Authorization", "Bearer " + supabaseKey);
-        return headers;
+        this.problemCatalogService = problemCatalogService;
+        this.submissionRepository = submissionRepository;
+        this.defaultCoalesceMs = defaultCoalesceMs;
     }
 
     /**
-     * Fetch all problem IDs from Supabase
+     * Create a new room
      */
-    private List<Long> fetchProblemIdsFromSupabase() {
-        String url = supabaseUrl + "/rest/v1/problems?select=id";
-        HttpEntity<String> entity = new HttpEntity<>(createSupabaseHeaders());
-
-        try {
-            ResponseEntity<List> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.GET,
-                    entity,
-                    List.class);
-
-            List<Map<String, Object>> problems = response.getBody();
-            if (problems == null || problems.isEmpty()) {
-                return List.of();
-            }
-
-            return problems.stream()
-                    .map(p -> ((Number) p.get("id")).longValue())
-                    .collect(Collectors.toList());
-        } catch (Exception e) {
-            log.error("Failed to fetch problems from Supabase: {}", e.getMessage());
-            return List.of();
+    public RoomResponse createRoom(String userId, String username, CreateRoomRequest request) {
+        LocalDateTime now = LocalDateTime.now();
+        Room.ProblemSelectionMode mode = Room.ProblemSelectionMode
+                .valueOf(request.getProblemSelectionMode().toUpperCase());
+        int maxParticipants = request.getMaxParticipants() != null ? request.getMaxParticipants() : 4;
+        if (maxParticipants < MIN_PARTICIPANTS || maxParticipants > MAX_PARTICIPANTS) {
+            throw new RuntimeException("Max participants must be between " + MIN_PARTICIPANTS + " and "
+                    + MAX_PARTICIPANTS);
         }
+        boolean isPrivate = request.getIsPrivate() != null ? request.getIsPrivate() : false;
+        ProblemFilter problemFilter = problemFilter(request);
+        int coalesceMs = coalesceMs(request.getCoalesceMs() != null ? request.getCoalesceMs() : defaultCoalesceMs);
+
+        // Codes from the allocator are unique; the registry check only guards against
+        // rooms created before it (random codes) that are still alive
+        LiveRoom room;
+        do {
+            room = new LiveRoom(roomIdAllocator.next(), userId, mode, maxParticipants, isPrivate, now, problemFilter);
+        } while (!roomRegistry.add(room));
+
+        LiveRoom created = room;
+        return roomExecutor.call(room.getId(), () -> {
+            created.setProblemId(request.getProblemId());
+            created.setCoalesceMillis(coalesceMs);
+            // Add creator as first participant
+            created.append(RoomEvent.joined(created.addParticipant(userId, username(username), now)));
+            return roomRegistry.commit(created);
+        });
     }
 
     /**
-     * Generate a unique 6-character room ID
+     * Create a batch of private rooms that start right away with their participants
+     * seated, one room per group (tournament rounds).
+     *
+     * Problems are picked and validated for every group before any room is created,
+     * so a failure creates nothing. All rooms are marked dirty together and go out
+     * in the same write-behind flush.
      */
-    private String generateRoomId() {
-        StringBuilder sb = new StringBuilder(ROOM_ID_LENGTH);
-        for (int i = 0; i < ROOM_ID_LENGTH; i++) {
-            sb.append(ROOM_ID_CHARS.charAt(random.nextInt(ROOM_ID_CHARS.length())));
+    public List<RoomResponse> provisionRooms(String createdBy, CreateRoomRequest settings, List<List<Seat>> groups) {
+        Room.ProblemSelectionMode mode = Room.ProblemSelectionMode
+                .valueOf(settings.getProblemSelectionMode().toUpperCase());
+        ProblemFilter problemFilter = problemFilter(settings);
+
+        List<Long> problemIds = new ArrayList<>(groups.size());
+        if (mode == Room.ProblemSelectionMode.RANDOM) {
+            Set<Long> solved = Set.of();
+            if (problemFilter.unsolvedOnly()) {
+                // One query for the whole batch; a problem solved by anyone in the batch is skipped
+                solved = submissionRepository.findSolvedProblemIds(groups.stream()
+                        .flatMap(List::stream)
+                        .map(Seat::userId)
+                        .collect(Collectors.toList()));
+            }
+            for (int i = 0; i < groups.size(); i++) {
+                problemIds.add(problemCatalogService.pickRandom(problemFilter, solved)
+                        .orElseThrow(() -> new RuntimeException("No problems available in the database")));
+            }
+        } else {
+            if (settings.getProblemId() == null) {
+                throw new RuntimeException("Could not determine problem for this room");
+            }
+            groups.forEach(group -> problemIds.add(settings.getProblemId()));
         }
-        return sb.toString();
-    }
 
-    /**
-     * Create a new room
-     */
-    @Transactional
-    public RoomResponse createRoom(String userId, String username, CreateRoomRequest request) {
-        // Generate unique room ID
-        String roomId;
-        do {
-            roomId = generateRoomId();
-        } while (roomRepository.existsById(roomId));
-
-        Room room = new Room();
-        room.setId(roomId);
-        room.setCreatedBy(userId);
-        room.setProblemId(request.getProblemId());
-        room.setProblemSelectionMode(
-                Room.ProblemSelectionMode.valueOf(request.getProblemSelectionMode().toUpperCase()));
-        room.setMaxParticipants(request.getMaxParticipants() != null ? request.getMaxParticipants() : 4);
-        room.setIsPrivate(request.getIsPrivate() != null ? request.getIsPrivate() : false);
-        room.setStatus(Room.RoomStatus.WAITING);
-
-        room = roomRepository.save(room);
-
-        // Add creator as first participant
-        RoomParticipant participant = new RoomParticipant();
-        participant.setRoom(room);
-        participant.setUserId(userId);
-        participant.setUsername(username);
-        participant.setIsReady(false);
-        participantRepository.save(participant);
-
-        // Fetch with participants for response
-        Room savedRoom = roomRepository.findByIdWithParticipants(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found after creation"));
-
-        return RoomResponse.fromEntity(savedRoom);
+        LocalDateTime now = LocalDateTime.now();
+        List<CompletableFuture<RoomResponse>> started = new ArrayList<>(groups.size());
+        for (int i = 0; i < groups.size(); i++) {
+            List<Seat> seats = groups.get(i);
+            Long problemId = problemIds.get(i);
+
+            LiveRoom room;
+            do {
+                room = new LiveRoom(roomIdAllocator.next(), createdBy, mode, seats.size(), true, now, problemFilter);
+            } while (!roomRegistry.add(room));
+
+            LiveRoom created = room;
+            started.add(roomExecutor.submit(room.getId(), () -> {
+                for (Seat seat : seats) {
+                    LiveParticipant participant = created.addParticipant(seat.userId(), username(seat.username()), now);
+                    participant.setReady(true);
+                    created.append(RoomEvent.joined(participant));
+                }
+                created.setProblemId(problemId);
+                created.append(RoomEvent.problemAssigned(problemId));
+                created.setStatus(Room.RoomStatus.ACTIVE);
+                created.setStartedAt(now);
+                created.append(RoomEvent.started(now));
+                return roomRegistry.commit(created);
+            }));
+        }
+
+        List<RoomResponse> rooms = started.stream().map(CompletableFuture::join).collect(Collectors.toList());
+        log.info("Provisioned {} rooms for {}", rooms.size(), createdBy);
+        return rooms;
     }
 
     /**
      * Complete a room
      */
-    @Transactional
     public void completeRoom(String roomId, String winnerId) {
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
-
-        if (room.getStatus() == Room.RoomStatus.COMPLETED) {
-            return; // Already completed
+        boolean completed = roomExecutor.call(roomId, () -> {
+            LiveRoom room = roomRegistry.get(roomId);
+            if (room.getStatus() == Room.RoomStatus.COMPLETED) {
+                return false; // Already completed
+            }
+            room.setStatus(Room.RoomStatus.COMPLETED);
+            room.setWinnerId(winnerId);
+            room.append(RoomEvent.completed(winnerId));
+            roomRegistry.commit(room);
+            return true;
+        });
+
+        if (completed) {
+            // Notify participants
+            messagingTemplate.convertAndSend("/topic/room/" + roomId + "/status",
+                    Map.of("status", "COMPLETED", "winnerId", winnerId));
         }
-
-        room.setStatus(Room.RoomStatus.COMPLETED);
-        room.setWinnerId(winnerId);
-        roomRepository.save(room);
-
-        // Notify participants
-        messagingTemplate.convertAndSend("/topic/room/" + roomId + "/status",
-                Map.of("status", "COMPLETED", "winnerId", winnerId));
     }
 
     /**
      * Join an existing room
      */
-    @Transactional
     public RoomResponse joinRoom(String roomId, String userId, String username) {
-        roomId = roomId.toUpperCase();
+        String id = roomId.toUpperCase();
 
-        Room room = roomRepository.findByIdWithParticipants(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
+        return roomExecutor.call(id, () -> {
+            LiveRoom room = roomRegistry.get(id);
 
-        if (room.getStatus() == Room.RoomStatus.COMPLETED) {
-            throw new RuntimeException("Room has already ended");
-        }
+            if (room.getStatus() == Room.RoomStatus.COMPLETED) {
+                throw new RuntimeException("Room has already ended");
+            }
 
-        // Check if already joined
-        if (participantRepository.existsByRoomIdAndUserIdAndLeftAtIsNull(roomId, userId)) {
-            return RoomResponse.fromEntity(room);
-        }
+            // Check if already joined
+            if (room.findActive(userId).isPresent()) {
+                return room.getView();
+            }
 
-        // Check if room is full
-        long activeCount = participantRepository.countByRoomIdAndLeftAtIsNull(roomId);
-        if (activeCount >= room.getMaxParticipants()) {
-            throw new RuntimeException("Room is full");
-        }
+            // Check if room is full; the mailbox serializes joins, so this holds
+            if (room.activeCount() >= room.getMaxParticipants()) {
+                throw new RuntimeException("Room is full");
+            }
 
-        // Add participant
-        RoomParticipant participant = new RoomParticipant();
-        participant.setRoom(room);
-        participant.setUserId(userId);
-        participant.setUsername(username);
-        participant.setIsReady(false);
-        participantRepository.save(participant);
-
-        // Refresh room data
-        Room updatedRoom = roomRepository.findByIdWithParticipants(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
-
-        // Clear empty flag if it was set
-        if (updatedRoom.getLastEmptyAt() != null) {
-            updatedRoom.setLastEmptyAt(null);
-            updatedRoom = roomRepository.save(updatedRoom);
-        }
+            room.append(RoomEvent.joined(room.addParticipant(userId, username(username), LocalDateTime.now())));
+
+            // Clear empty flag if it was set
+            room.setLastEmptyAt(null);
 
-        return RoomResponse.fromEntity(updatedRoom);
+            return roomRegistry.commit(room);
+        });
     }
 
     /**
      * Leave a room
      */
-    @Transactional
     public void leaveRoom(String roomId, String userId) {
-        roomId = roomId.toUpperCase();
+        String id = roomId.toUpperCase();
 
-        RoomParticipant participant = participantRepository
-                .findByRoomIdAndUserIdAndLeftAtIsNull(roomId, userId)
-                .orElseThrow(() -> new RuntimeException("Participant not found in room"));
+        roomExecutor.run(id, () -> {
+            LiveRoom room = roomRegistry.get(id);
+            LiveParticipant participant = room.findActive(userId)
+                    .orElseThrow(() -> new RuntimeException("Participant not found in room"));
 
-        participant.setLeftAt(LocalDateTime.now());
-        participantRepository.save(participant);
+            LocalDateTime now = LocalDateTime.now();
+            participant.setLeftAt(now);
+            room.append(RoomEvent.left(userId));
 
-        // Check if room is empty
-        long activeCount = participantRepository.countByRoomIdAndLeftAtIsNull(roomId);
-        if (activeCount == 0) {
-            Room room = roomRepository.findById(roomId).orElseThrow();
-            room.setLastEmptyAt(LocalDateTime.now());
-            roomRepository.save(room);
-        }
+            // Check if room is empty
+            if (room.activeCount() == 0) {
+                room.setLastEmptyAt(now);
+            }
+            roomRegistry.commit(room);
+        });
     }
 
     /**
      * Delete a room (creator only, waiting status only)
      */
-    @Transactional
     public void deleteRoom(String roomId, String userId) {
-        roomId = roomId.toUpperCase();
+        String id = roomId.toUpperCase();
 
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
+        roomExecutor.run(id, () -> {
+            LiveRoom room = roomRegistry.get(id);
 
-        if (!room.getCreatedBy().equals(userId)) {
-            throw new RuntimeException("Only room creator can delete the room");
-        }
+            if (!room.getCreatedBy().equals(userId)) {
+                throw new RuntimeException("Only room creator can delete the room");
+            }
 
-        // Allow deletion regardless of status
-        // if (room.getStatus() != Room.RoomStatus.WAITING) {
-        // throw new RuntimeException("Cannot delete room that has already started");
-        // }
+            // Allow deletion regardless of status
+            // if (room.getStatus() != Room.RoomStatus.WAITING) {
+            // throw new RuntimeException("Cannot delete room that has already started");
+            // }
 
-        roomRepository.delete(room);
+            room.append(RoomEvent.deleted());
+            removeRoom(id);
+        });
     }
 
     /**
      * Get room details
      */
-    @Transactional(readOnly = true)
     public RoomResponse getRoomDetails(String roomId) {
         roomId = roomId.toUpperCase();
 
-        Room room = roomRepository.findByIdWithParticipants(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
+        return roomRegistry.get(roomId).getView();
+    }
 
-        return RoomResponse.fromEntity(room);
+    /**
+     * Get the lobby events after a version, or a full snapshot if they are no longer retained
+     */
+    public RoomEventsResponse getRoomEvents(String roomId, long since) {
+        String id = roomId.toUpperCase();
+
+        return roomExecutor.call(id, () -> {
+            LiveRoom room = roomRegistry.get(id);
+            List<RoomEvent> events = room.eventsSince(since);
+            if (events == null) {
+                return new RoomEventsResponse(room.getVersion(), List.of(), room.getView());
+            }
+            return new RoomEventsResponse(room.getVersion(), events, null);
+        });
     }
 
     /**
      * Update ready status
      */
-    @Transactional
     public void updateReadyStatus(String roomId, String userId, Boolean isReady) {
-        roomId = roomId.toUpperCase();
+        String id = roomId.toUpperCase();
+
+        roomExecutor.run(id, () -> {
+            LiveRoom room = roomRegistry.get(id);
+            LiveParticipant participant = room.findActive(userId)
+                    .orElseThrow(() -> new RuntimeException("Participant not found in room"));
 
-        RoomParticipant participant = participantRepository
-                .findByRoomIdAndUserIdAndLeftAtIsNull(roomId, userId)
-                .orElseThrow(() -> new RuntimeException("Participant not found in room"));
+            participant.setReady(isReady);
+            room.append(RoomEvent.readyChanged(userId, isReady));
+            roomRegistry.commit(room);
+        });
+    }
 
-        participant.setIsReady(isReady);
-        participantRepository.save(participant);
+    /**
+     * Change how a room's chat and events are batched (creator only).
+     * 0 sends every message as its own frame.
+     */
+    public RoomResponse setCoalescing(String roomId, String userId, int tickMs) {
+        String id = roomId.toUpperCase();
+        int coalesceMs = coalesceMs(tickMs);
+
+        return roomExecutor.call(id, () -> {
+            LiveRoom room = roomRegistry.get(id);
+            if (!room.getCreatedBy().equals(userId)) {
+                throw new RuntimeException("Only room creator can change coalescing");
+            }
+            room.setCoalesceMillis(coalesceMs);
+            return roomRegistry.commit(room);
+        });
     }
 
     /**
      * Start a room (creator only)
      */
-    @Transactional
     public RoomResponse startRoom(String roomId, String userId) {
-        roomId = roomId.toUpperCase();
+        String id = roomId.toUpperCase();
 
-        Room room = roomRepository.findById(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
+        LiveRoom room = roomRegistry.get(id);
 
         if (!room.getCreatedBy().equals(userId)) {
             throw new RuntimeException("Only room creator can start the room");
         }
 
-        if (room.getStatus() != Room.RoomStatus.WAITING) {
-            throw new RuntimeException("Room has already started");
-        }
-
-        // If random mode, select a random problem from Supabase
-        Long problemId = room.getProblemId();
+        // If random mode, pick from the cached catalog (outside the mailbox)
+        Long randomProblemId = null;
         if (room.getProblemSelectionMode() == Room.ProblemSelectionMode.RANDOM) {
-            log.info("Fetching problems from Supabase for random selection...");
-            List<Long> problemIds = fetchProblemIdsFromSupabase();
-            log.info("Found {} problems from Supabase", problemIds.size());
-            if (problemIds.isEmpty()) {
-                throw new RuntimeException("No problems available in the database");
+            ProblemFilter filter = room.getProblemFilter();
+            Set<Long> solved = Set.of();
+            if (filter.unsolvedOnly()) {
+                List<String> userIds = room.getView().getRoomParticipants().stream()
+                        .map(RoomParticipantResponse::getUserId)
+                        .collect(Collectors.toList());
+                solved = submissionRepository.findSolvedProblemIds(userIds);
             }
-            problemId = problemIds.get(random.nextInt(problemIds.size()));
-            log.info("Selected random problem ID: {}", problemId);
-        }
-
-        if (problemId == null) {
-            throw new RuntimeException("Could not determine problem for this room");
+            randomProblemId = problemCatalogService.pickRandom(filter, solved)
+                    .orElseThrow(() -> new RuntimeException("No problems available in the database"));
+            log.info("Selected random problem ID: {} ({})", randomProblemId, filter);
         }
 
-        room.setProblemId(problemId);
-        room.setStatus(Room.RoomStatus.ACTIVE);
-        room.setStartedAt(LocalDateTime.now());
-        roomRepository.save(room);
+        Long selectedProblemId = randomProblemId;
+        return roomExecutor.call(id, () -> {
+            LiveRoom current = roomRegistry.get(id);
+            if (current.getStatus() != Room.RoomStatus.WAITING) {
+                throw new RuntimeException("Room has already started");
+            }
 
-        // Fetch updated room with problem info
-        Room updatedRoom = roomRepository.findByIdWithParticipants(roomId)
-                .orElseThrow(() -> new RuntimeException("Room not found"));
+            Long problemId = selectedProblemId != null ? selectedProblemId : current.getProblemId();
+            if (problemId == null) {
+                throw new RuntimeException("Could not determine problem for this room");
+            }
 
-        return RoomResponse.fromEntity(updatedRoom);
+            if (!problemId.equals(current.getProblemId())) {
+                current.append(RoomEvent.problemAssigned(problemId));
+            }
+            current.setProblemId(problemId);
+            current.setStatus(Room.RoomStatus.ACTIVE);
+            current.setStartedAt(LocalDateTime.now());
+            current.append(RoomEvent.started(current.getStartedAt()));
+            return roomRegistry.commit(current);
+        });
     }
 
     /**
      * Get user's active rooms
      */
-    @Transactional(readOnly = true)
     public List<RoomResponse> getUserRooms(String userId) {
-        List<RoomParticipant> participations = participantRepository.findActiveRoomsByUserId(userId);
-
-        return participations.stream()
-                .map(RoomParticipant::getRoom)
-                .distinct()
-                .map(RoomResponse::fromEntity)
+        return roomRegistry.all().stream()
+                .map(LiveRoom::getView)
+                .filter(view -> view.getRoomParticipants().stream().anyMatch(p -> p.getUserId().equals(userId)))
+                .sorted(Comparator.comparing(RoomResponse::getCreatedAt).reversed())
                 .collect(Collectors.toList());
     }
 
     /**
-     * Get all available public rooms (Waiting or Active)
+     * Get all available public rooms (Waiting or Active), newest first
      */
-    @Transactional(readOnly = true)
-    public List<RoomResponse> getPublicRooms() {
-        // Return both WAITING and ACTIVE public rooms
-        // We can reuse findAvailablePublicRooms for WAITING ones, but we need ACTIVE
-        // ones too.
-        List<Room> rooms = roomRepository.findAll().stream()
-                .filter(r -> !r.getIsPrivate())
-                .filter(r -> r.getStatus() == Room.RoomStatus.WAITING || r.getStatus() == Room.RoomStatus.ACTIVE)
-                .sorted((r1, r2) -> r2.getCreatedAt().compareTo(r1.getCreatedAt())) // Newest first
-                .collect(Collectors.toList());
-
-        return rooms.stream()
-                .map(RoomResponse::fromEntity)
-                .collect(Collectors.toList());
+    public PublicRoomIndex.Snapshot getPublicRooms() {
+        return publicRoomIndex.snapshot();
     }
 
-    /**
-     * Random join room
-     */
-    @Transactional
-    public RoomResponse randomJoinRoom(String userId, String username, CreateRoomRequest preferences) {
-        // 1. Find candidate rooms
-        List<Room> availableRooms = roomRepository.findAvailablePublicRooms();
-
-        // 2. Try to join first available
-        for (Room room : availableRooms) {
-            try {
-                // Double check constraints
-                if (room.getParticipants().size() >= room.getMaxParticipants()) {
-                    continue;
-                }
-
-                return joinRoom(room.getId(), userId, username);
-            } catch (Exception e) {
-                // Optimistic locking or other failure, try next room
-                log.warn("Failed to random join room {}: {}", room.getId(), e.getMessage());
-            }
+    // Also used by matchmaking to key its queues
+    static ProblemFilter problemFilter(CreateRoomRequest request) {
+        String tag = request.getProblemTag() != null && !request.getProblemTag().isBlank()
+                ? request.getProblemTag()
+                : null;
+        if (tag != null && tag.length() > TAG_LENGTH) {
+            throw new RuntimeException("Problem tag must be between 1 and " + TAG_LENGTH + " characters");
         }
+        return new ProblemFilter(
+                request.getProblemDifficulty() != null
+                        ? Problem.Difficulty.valueOf(request.getProblemDifficulty().toUpperCase())
+                        : null,
+                tag,
+                Boolean.TRUE.equals(request.getUnsolvedOnly()));
+    }
 
-        // 3. If no room found, create new one
-        if (preferences == null) {
-            preferences = new CreateRoomRequest();
-            preferences.setProblemSelectionMode("random");
-            preferences.setMaxParticipants(4);
-            preferences.setIsPrivate(false);
-        } else {
-            // Ensure forced public
-            preferences.setIsPrivate(false);
+    private static String username(String username) {
+        if (username == null || username.isBlank()) {
+            return "User";
         }
+        return username.length() > USERNAME_LENGTH ? username.substring(0, USERNAME_LENGTH) : username;
+    }
 
-        return createRoom(userId, username, preferences);
+    private static int coalesceMs(int tickMs) {
+        if (tickMs < 0 || tickMs > MAX_COALESCE_MS) {
+            throw new RuntimeException("Coalescing tick must be between 0 and " + MAX_COALESCE_MS + " ms");
+        }
+        return tickMs;
     }
 
     /**
-     * Cleanup expired or empty rooms
-     * Runs every minute
+     * Remove a room from the registry. Must run inside the room's mailbox.
      */
-    @Scheduled(fixedRate = 60000, initialDelay = 60000)
-    @Transactional
-    public void cleanupRooms() {
-        LocalDateTime now = LocalDateTime.now();
-        List<Room> rooms = roomRepository.findAll();
-        int deletedCount = 0;
-
-        for (Room room : rooms) {
-            boolean shouldDelete = false;
-            String reason = "";
-
-            // Rule 1: Exceeds 3 hours duration (180 minutes)
-            if (room.getStatus() == Room.RoomStatus.ACTIVE && room.getStartedAt() != null) {
-                if (room.getStartedAt().plusMinutes(180).isBefore(now)) {
-                    shouldDelete = true;
-                    reason = "Exceeded 180 minutes duration";
-                }
-            }
-
-            // Rule 2: Empty for more than 15 minutes
-            // If lastEmptyAt is set, check if 15 mins have passed
-            if (!shouldDelete && room.getLastEmptyAt() != null) {
-                if (room.getLastEmptyAt().plusMinutes(15).isBefore(now)) {
-                    // Double check if actually empty to be safe (though lastEmptyAt should be
-                    // reliable)
-                    long activeCount = participantRepository.countByRoomIdAndLeftAtIsNull(room.getId());
-                    if (activeCount == 0) {
-                        shouldDelete = true;
-                        reason = "Empty for > 5 minutes";
-                    } else {
-                        // Inconsistency found, reset flag
-                        room.setLastEmptyAt(null);
-                        roomRepository.save(room);
-                    }
-                }
-            }
-
-            if (shouldDelete) {
-                log.info("Deleting room {} - Reason: {}", room.getId(), reason);
-                roomRepository.delete(room);
-                deletedCount++;
-            }
-        }
-
-        if (deletedCount > 0) {
-            log.info("Cleanup completed. Deleted {} rooms.", deletedCount);
-        }
+    private void removeRoom(String roomId) {
+        roomRegistry.remove(roomId);
+        roomExecutor.retire(roomId);
     }
 }
@@ -0,0 +1,173 @@
+package com.codearena.service;
+
+import com.codearena.dto.EditorEdit;
+import com.codearena.dto.EditorFrame;
+import com.codearena.dto.RoomResponse;
+import com.codearena.room.EditorMirror;
+import com.codearena.room.LiveRoom;
+import com.codearena.room.RoomListener;
+import com.codearena.room.RoomRegistry;
+import com.codearena.room.SpectatorGuard;
+import com.codearena.security.StompPrincipal;
+import com.codearena.websocket.TopicCoalescer;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.security.Principal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Live view of the participants' editors for spectators of public rooms.
+ *
+ * Participants send their edits as small splices; each applied edit is
+ * broadcast on /topic/room/{id}/spectate as a numbered delta, batched per
+ * room tick so a viewer gets at most one frame per tick however fast people
+ * type. Every keyframe interval, editors that changed are broadcast whole
+ * (gzipped), which also heals viewers that missed a frame. A viewer joining
+ * mid-match subscribes to the topic, then to /app/spectate.state/{id} for the
+ * last keyframe and the deltas since.
+ *
+ * Participants of a room cannot watch it; see {@link SpectatorGuard}.
+ */
+@Service
+@Slf4j
+public class SpectatorService implements RoomListener {
+
+    private final RoomRegistry roomRegistry;
+    private final TopicCoalescer coalescer;
+    private final int tickMillis;
+    private final int maxChars;
+    private final int maxDeltas;
+
+    private final Map<String, Map<String, EditorMirror>> mirrors = new ConcurrentHashMap<>();
+    private final LongAdder edits = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder keyframes = new LongAdder();
+
+    public SpectatorService(RoomRegistry roomRegistry,
+            TopicCoalescer coalescer,
+            @Value("${rooms.spectate.tick-ms:250}") int tickMillis,
+            @Value("${rooms.spectate.max-chars:65536}") int maxChars,
+            @Value("${rooms.spectate.max-deltas:200}") int maxDeltas) {
+        this.roomRegistry = roomRegistry;
+        this.coalescer = coalescer;
+        this.tickMillis = tickMillis;
+        this.maxChars = maxChars;
+        this.maxDeltas = maxDeltas;
+    }
+
+    /**
+     * Editors mirrored, edits applied and refused, keyframes broadcast
+     */
+    public record SpectatorStats(int rooms, long editors, long edits, long rejectedEdits, long keyframes) {
+    }
+
+    @PostConstruct
+    public void init() {
+        roomRegistry.addListener(this);
+    }
+
+    @Override
+    public void roomChanged(LiveRoom room, RoomResponse view) {
+        if (!"active".equals(view.getStatus()) && mirrors.containsKey(room.getId())) {
+            // Final state for anyone still watching, then stop mirroring
+            keyframes(room.getId());
+            mirrors.remove(room.getId());
+        }
+    }
+
+    @Override
+    public void roomRemoved(LiveRoom room) {
+        mirrors.remove(room.getId());
+    }
+
+    /**
+     * Apply an edit from a participant and broadcast it to spectators.
+     * Edits from anonymous sessions, non-participants, private or idle rooms are ignored.
+     */
+    public void edit(String roomId, Principal principal, EditorEdit edit) {
+        String id = roomId.toUpperCase();
+        if (!(principal instanceof StompPrincipal user)) {
+            rejected.increment();
+            return;
+        }
+        Optional<RoomResponse> view = roomRegistry.find(id).map(LiveRoom::getView);
+        if (view.isEmpty() || Boolean.TRUE.equals(view.get().getIsPrivate())
+                || !SpectatorGuard.isPlaying(view.get(), user.userId())) {
+            rejected.increment();
+            return;
+        }
+
+        EditorMirror mirror = mirrors.computeIfAbsent(id, key -> new ConcurrentHashMap<>())
+                .computeIfAbsent(user.userId(), key -> new EditorMirror(user.userId(), user.username(), maxChars));
+        // Published under the mirror's lock so frames leave in seq order
+        synchronized (mirror) {
+            EditorFrame delta = mirror.apply(edit);
+            if (delta == null) {
+                rejected.increment();
+                return;
+            }
+            edits.increment();
+            coalescer.send(destination(id), delta, tickMillis);
+            if (mirror.pendingDeltas() >= maxDeltas) {
+                sendKeyframe(id, mirror);
+            }
+        }
+    }
+
+    /**
+     * Last keyframe and the deltas since, for every participant's editor
+     */
+    public List<EditorFrame> state(String roomId) {
+        Map<String, EditorMirror> room = mirrors.get(roomId.toUpperCase());
+        if (room == null) {
+            return List.of();
+        }
+        List<EditorFrame> frames = new ArrayList<>();
+        room.values().forEach(mirror -> frames.addAll(mirror.state()));
+        return frames;
+    }
+
+    /**
+     * Broadcast a keyframe of every editor that changed since its last one
+     * Runs every keyframe interval (10s by default)
+     */
+    @Scheduled(fixedDelayString = "${rooms.spectate.keyframe-interval-ms:10000}")
+    public void keyframes() {
+        mirrors.keySet().forEach(this::keyframes);
+    }
+
+    public SpectatorStats stats() {
+        long editors = mirrors.values().stream().mapToLong(Map::size).sum();
+        return new SpectatorStats(mirrors.size(), editors, edits.sum(), rejected.sum(), keyframes.sum());
+    }
+
+    private void keyframes(String roomId) {
+        Map<String, EditorMirror> room = mirrors.get(roomId);
+        if (room != null) {
+            room.values().forEach(mirror -> sendKeyframe(roomId, mirror));
+        }
+    }
+
+    private void sendKeyframe(String roomId, EditorMirror mirror) {
+        synchronized (mirror) {
+            EditorFrame keyframe = mirror.takeKeyframe();
+            if (keyframe != null) {
+                keyframes.increment();
+                coalescer.send(destination(roomId), keyframe, tickMillis);
+            }
+        }
+    }
+
+    private static String destination(String roomId) {
+        return "/topic/room/" + roomId + "/spectate";
+    }
+}
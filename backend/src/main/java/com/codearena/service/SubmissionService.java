@@ -1,15 +1,25 @@
 package com.codearena.service;
 
+import com.codearena.dto.SubmissionCodeResponse;
+import com.codearena.dto.SubmissionPageResponse;
 import com.codearena.dto.SubmissionRequest;
 import com.codearena.dto.SubmissionResponse;
+import com.codearena.dto.SubmissionSummaryResponse;
 import com.codearena.entity.Problem;
+import com.codearena.entity.Room;
 import com.codearena.entity.Submission;
 import com.codearena.entity.User;
 import com.codearena.repository.ProblemRepository;
+import com.codearena.repository.RoomParticipantRepository;
+import com.codearena.repository.RoomRepository;
 import com.codearena.repository.SubmissionRepository;
 import com.codearena.repository.UserRepository;
+import com.codearena.room.LiveRoom;
+import com.codearena.room.RoomExecutor;
+import com.codearena.room.RoomRegistry;
 import lombok.RequiredArgsConstructor;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.http.*;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
@@ -17,6 +27,7 @@ import org.springframework.web.client.RestTemplate;
 
 import java.io.ByteArrayInputStream;
 import java.io.ByteArrayOutputStream;
+import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
@@ -28,9 +39,19 @@ import java.util.zip.ZipInputStream;
 @RequiredArgsConstructor
 public class SubmissionService {
 
+    private static final int MAX_HISTORY_PAGE_SIZE = 100;
+
     private final SubmissionRepository submissionRepository;
     private final ProblemRepository problemRepository;
     private final UserRepository userRepository;
+    private final LeaderboardService leaderboardService;
+    private final UserStatsService userStatsService;
+    private final RoomScoreboardService roomScoreboardService;
+    private final CodeStorageService codeStorageService;
+    private final RoomRegistry roomRegistry;
+    private final RoomExecutor roomExecutor;
+    private final RoomRepository roomRepository;
+    private final RoomParticipantRepository roomParticipantRepository;
 
     @Value("${judge0.api.url:https://ce.judge0.com}")
     private String judge0Url;
@@ -60,14 +81,21 @@ public class SubmissionService {
                 .orElseThrow(() -> new RuntimeException("User not found"));
         Problem problem = problemRepository.findById(request.getProblemId())
                 .orElseThrow(() -> new RuntimeException("Problem not found"));
+        String roomId = request.getRoomId() != null && !request.getRoomId().isBlank()
+                ? request.getRoomId().toUpperCase()
+                : null;
+        if (roomId != null) {
+            roomScoreboardService.checkCanSubmit(roomId, user.getId(), problem.getId());
+        }
 
         // Just queue it — return immediately
         Submission submission = new Submission();
         submission.setUser(user);
         submission.setProblem(problem);
-        submission.setCode(request.getCode());
+        submission.setCodeHash(codeStorageService.store(request.getCode()));
         submission.setLanguage(request.getLanguage());
         submission.setStatus(Submission.Status.PENDING);
+        submission.setRoomId(roomId);
         submission.setTestCasesPassed(0);
         submission.setTotalTestCases(0);
 
@@ -92,10 +120,11 @@ public class SubmissionService {
         User user = submission.getUser();
 
         try {
+            String code = codeStorageService.load(submission);
             if (problem.getTestCasesUrl() != null && !problem.getTestCasesUrl().isEmpty()) {
-                evaluateUsingZip(submission, problem.getTestCasesUrl());
+                evaluateUsingZip(submission, code, problem.getTestCasesUrl());
             } else {
-                evaluateSingleTest(submission, problem.getSampleInput(), problem.getSampleOutput());
+                evaluateSingleTest(submission, code, problem.getSampleInput(), problem.getSampleOutput());
             }
         } catch (Exception e) {
             submission.setStatus(Submission.Status.RUNTIME_ERROR);
@@ -108,28 +137,84 @@ public class SubmissionService {
         submissionRepository.save(submission);
 
         // Update statistics
+        boolean firstSolve = false;
         if (submission.getStatus() == Submission.Status.ACCEPTED) {
-            if (!hasUserSolvedProblem(user, problem)) {
+            firstSolve = !hasUserSolvedProblem(submission);
+            if (firstSolve) {
                 user.setProblemsSolved(user.getProblemsSolved() + 1);
                 user.setRating(user.getRating() + 10);
                 userRepository.save(user);
+                leaderboardService.recordSolve(user.getId(), user.getUsername(), submission.getSubmittedAt());
             }
             problem.setAcceptedSubmissions(problem.getAcceptedSubmissions() + 1);
         }
+        userStatsService.recordVerdict(submission, firstSolve);
         problem.setTotalSubmissions(problem.getTotalSubmissions() + 1);
         if (problem.getTotalSubmissions() > 0) {
             problem.setAcceptanceRate((double) problem.getAcceptedSubmissions() / problem.getTotalSubmissions() * 100);
         }
         problemRepository.save(problem);
 
+        // Room scoreboard (may complete the room on the first AC)
+        roomScoreboardService.recordVerdict(submission);
+
         System.out.println("[Worker] Submission " + submissionId + " processed → " + submission.getStatus());
     }
 
+    /**
+     * One page of a user's history, newest first. Pass the previous page's
+     * nextCursor as before to continue; rows carry no code or outputs.
+     */
+    @Transactional(readOnly = true)
+    public SubmissionPageResponse getUserSubmissions(String userId, LocalDateTime beforeAt, Long beforeId,
+            int limit) {
+        int pageSize = Math.min(Math.max(limit, 1), MAX_HISTORY_PAGE_SIZE);
+        // Fetch one extra row to learn whether another page exists
+        List<SubmissionSummaryResponse> rows = beforeAt == null
+                ? submissionRepository.findHistoryPage(userId, Limit.of(pageSize + 1))
+                : submissionRepository.findHistoryPageBefore(userId, beforeAt, beforeId, Limit.of(pageSize + 1));
+
+        String nextCursor = null;
+        if (rows.size() > pageSize) {
+            rows = rows.subList(0, pageSize);
+            SubmissionSummaryResponse last = rows.get(pageSize - 1);
+            nextCursor = last.getSubmittedAt() + "," + last.getId();
+        }
+        return new SubmissionPageResponse(rows, nextCursor);
+    }
+
     @Transactional(readOnly = true)
-    public List<SubmissionResponse> getUserSubmissions(String userId) {
-        return submissionRepository.findByUserId(userId).stream()
-                .map(this::mapToResponse)
-                .collect(Collectors.toList());
+    public SubmissionCodeResponse getSubmissionCode(Long id, String userId) {
+        Submission submission = submissionRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Submission not found"));
+        if (!submission.getUser().getId().equals(userId) && !sharedFinishedRoom(submission.getRoomId(), userId)) {
+            throw new RuntimeException("Not allowed to view this submission's code");
+        }
+        return new SubmissionCodeResponse(submission.getId(), submission.getLanguage(),
+                codeStorageService.load(submission));
+    }
+
+    /**
+     * Whether the user played in the given room and that room has finished. The live
+     * room is authoritative while it is loaded, since write-behind may not have caught up.
+     */
+    private boolean sharedFinishedRoom(String roomId, String userId) {
+        if (roomId == null) {
+            return false;
+        }
+        Optional<LiveRoom> live = roomRegistry.find(roomId);
+        if (live.isPresent()) {
+            try {
+                return roomExecutor.call(roomId, () -> live.get().getStatus() == Room.RoomStatus.COMPLETED
+                        && live.get().hasJoined(userId));
+            } catch (RuntimeException e) {
+                // Removed since we looked it up; the database has its final state
+            }
+        }
+        return roomRepository.findById(roomId)
+                .filter(room -> room.getStatus() == Room.RoomStatus.COMPLETED)
+                .isPresent()
+                && roomParticipantRepository.existsByRoomIdAndUserId(roomId, userId);
     }
 
     @Transactional(readOnly = true)
@@ -141,7 +226,7 @@ public class SubmissionService {
 
     // ─── ZIP Evaluation ───
 
-    private void evaluateUsingZip(Submission submission, String zipUrl) throws Exception {
+    private void evaluateUsingZip(Submission submission, String code, String zipUrl) throws Exception {
         Long problemId = submission.getProblem().getId();
 
         // Check cache first
@@ -158,7 +243,6 @@ public class SubmissionService {
         Map<String, String> expectedOutputs = bundle.expectedOutputs;
 
         int totalCases = inputs.size();
-        String code = submission.getCode();
         String language = submission.getLanguage();
 
         // Run ALL test cases in parallel
@@ -221,8 +305,8 @@ public class SubmissionService {
 
     // ─── Single Test Fallback ───
 
-    private void evaluateSingleTest(Submission submission, String input, String expected) {
-        JudgeResult result = runAgainstJudge0(submission.getCode(), submission.getLanguage(), input);
+    private void evaluateSingleTest(Submission submission, String code, String input, String expected) {
+        JudgeResult result = runAgainstJudge0(code, submission.getLanguage(), input);
         submission.setExecutionTime((int) result.time);
         if (result.statusEnum == Submission.Status.COMPILATION_ERROR
                 || result.statusEnum == Submission.Status.RUNTIME_ERROR) {
@@ -351,10 +435,11 @@ public class SubmissionService {
         }
     }
 
-    private boolean hasUserSolvedProblem(User user, Problem problem) {
-        return submissionRepository.findByUserId(user.getId()).stream()
-                .anyMatch(s -> s.getProblem().getId().equals(problem.getId())
-                        && s.getStatus() == Submission.Status.ACCEPTED);
+    // Excludes the submission being judged, which is already saved as ACCEPTED
+    private boolean hasUserSolvedProblem(Submission submission) {
+        return submissionRepository.existsByUserIdAndProblemIdAndStatusAndIdNot(
+                submission.getUser().getId(), submission.getProblem().getId(),
+                Submission.Status.ACCEPTED, submission.getId());
     }
 
     private SubmissionResponse mapToResponse(Submission s) {
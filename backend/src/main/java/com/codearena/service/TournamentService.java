@@ -0,0 +1,406 @@
+package com.codearena.service;
+
+import com.codearena.dto.CreateRoomRequest;
+import com.codearena.dto.CreateTournamentRequest;
+import com.codearena.dto.RoomResponse;
+import com.codearena.dto.TournamentResponse;
+import com.codearena.entity.Problem;
+import com.codearena.entity.Room;
+import com.codearena.entity.Tournament;
+import com.codearena.entity.TournamentPlayer;
+import com.codearena.repository.TournamentPlayerRepository;
+import com.codearena.repository.TournamentRepository;
+import com.codearena.room.LiveRoom;
+import com.codearena.room.LiveScore;
+import com.codearena.room.RoomExecutor;
+import com.codearena.room.RoomListener;
+import com.codearena.room.RoomRegistry;
+import com.codearena.room.Seat;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.stream.Collectors;
+
+/**
+ * Single-elimination tournaments played in rounds of private rooms.
+ *
+ * A round is provisioned in one batch: its rooms are created already started
+ * with the players seated, the player rows are saved in one batched
+ * transaction, and the round is announced as a single message on
+ * /topic/tournament/{id}. When every room of the round has a winner (the first
+ * accepted submission, or the scoreboard leader if the room ends without one)
+ * the winners are grouped into the next round automatically.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TournamentService implements RoomListener {
+
+    private final RoomService roomService;
+    private final RoomRegistry roomRegistry;
+    private final RoomExecutor roomExecutor;
+    private final TournamentRepository tournamentRepository;
+    private final TournamentPlayerRepository playerRepository;
+    private final SimpMessagingTemplate messagingTemplate;
+
+    // Round bookkeeping runs here rather than inside the room mailboxes that report results
+    private final ExecutorService rounds = Executors.newSingleThreadExecutor(r -> new Thread(r, "tournament-rounds"));
+
+    // Running tournaments, and the tournament of each undecided room
+    private final Map<Long, Bracket> brackets = new ConcurrentHashMap<>();
+    private final Map<String, Long> roomTournaments = new ConcurrentHashMap<>();
+
+    // Guarded by itself
+    private static final class Bracket {
+        final Tournament tournament;
+        final List<TournamentPlayer> players; // Seed order
+        final Set<String> openRooms = new HashSet<>();
+
+        Bracket(Tournament tournament, List<TournamentPlayer> players) {
+            this.tournament = tournament;
+            this.players = players;
+        }
+    }
+
+    @PostConstruct
+    public void init() {
+        roomRegistry.addListener(this);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        rounds.shutdown();
+    }
+
+    /**
+     * Pick up running tournaments once the room registry has been restored
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void resume() {
+        List<Tournament> running = tournamentRepository.findByStatus(Tournament.Status.RUNNING);
+        if (running.isEmpty()) {
+            return;
+        }
+        Map<Long, List<TournamentPlayer>> players = playerRepository
+                .findByTournamentIdInOrderBySeed(running.stream().map(Tournament::getId).collect(Collectors.toList()))
+                .stream()
+                .collect(Collectors.groupingBy(TournamentPlayer::getTournamentId));
+
+        for (Tournament tournament : running) {
+            Bracket bracket = new Bracket(tournament,
+                    new ArrayList<>(players.getOrDefault(tournament.getId(), List.of())));
+            brackets.put(tournament.getId(), bracket);
+            synchronized (bracket) {
+                int round = tournament.getCurrentRound();
+                // Winners of this round have moved on but still point at the room they won
+                Set<String> decided = bracket.players.stream()
+                        .filter(p -> p.getRound() > round && p.getRoomId() != null)
+                        .map(TournamentPlayer::getRoomId)
+                        .collect(Collectors.toSet());
+                bracket.players.stream()
+                        .filter(p -> p.getRound() == round && p.getRoomId() != null
+                                && !decided.contains(p.getRoomId()))
+                        .forEach(p -> bracket.openRooms.add(p.getRoomId()));
+                if (bracket.openRooms.isEmpty()) {
+                    // Stopped between the last result and the next round
+                    rounds.execute(() -> advanceSafely(bracket));
+                } else {
+                    watch(tournament.getId(), bracket.openRooms);
+                }
+            }
+        }
+        log.info("Resumed {} running tournaments", running.size());
+    }
+
+    /**
+     * Create a tournament and start its first round
+     */
+    public TournamentResponse createTournament(String userId, CreateTournamentRequest request) {
+        List<CreateTournamentRequest.Player> entrants = request.getPlayers() != null ? request.getPlayers()
+                : List.of();
+        if (entrants.size() < 2) {
+            throw new RuntimeException("A tournament needs at least 2 players");
+        }
+        Set<String> seen = new HashSet<>();
+        for (CreateTournamentRequest.Player entrant : entrants) {
+            if (entrant.getUserId() == null || entrant.getUserId().isBlank()) {
+                throw new RuntimeException("Every player needs a userId");
+            }
+            if (!seen.add(entrant.getUserId())) {
+                throw new RuntimeException("Player " + entrant.getUserId() + " is listed twice");
+            }
+        }
+        int roomSize = request.getRoomSize() != null ? request.getRoomSize() : 4;
+        if (roomSize < 2) {
+            throw new RuntimeException("Rooms need at least 2 players");
+        }
+
+        Tournament tournament = new Tournament();
+        tournament.setName(request.getName() != null && !request.getName().isBlank() ? request.getName()
+                : "Tournament");
+        tournament.setCreatedBy(userId);
+        tournament.setRoomSize(roomSize);
+        tournament.setProblemSelectionMode(Room.ProblemSelectionMode.valueOf(
+                request.getProblemSelectionMode() != null ? request.getProblemSelectionMode().toUpperCase()
+                        : "RANDOM"));
+        tournament.setProblemId(request.getProblemId());
+        tournament.setProblemDifficulty(request.getProblemDifficulty() != null
+                ? Problem.Difficulty.valueOf(request.getProblemDifficulty().toUpperCase())
+                : null);
+        tournament.setProblemTag(request.getProblemTag());
+        tournament.setUnsolvedOnly(Boolean.TRUE.equals(request.getUnsolvedOnly()));
+        tournament = tournamentRepository.save(tournament);
+
+        List<TournamentPlayer> players = new ArrayList<>(entrants.size());
+        for (int i = 0; i < entrants.size(); i++) {
+            CreateTournamentRequest.Player entrant = entrants.get(i);
+            String username = entrant.getUsername() != null && !entrant.getUsername().isEmpty()
+                    ? entrant.getUsername()
+                    : "User";
+            players.add(new TournamentPlayer(null, tournament.getId(), entrant.getUserId(), username, i + 1, 1,
+                    null));
+        }
+
+        Bracket bracket = new Bracket(tournament, players);
+        synchronized (bracket) {
+            brackets.put(tournament.getId(), bracket);
+            List<RoomResponse> rooms;
+            try {
+                rooms = startRound(bracket, players);
+            } catch (RuntimeException e) {
+                brackets.remove(tournament.getId());
+                tournamentRepository.delete(tournament);
+                throw e;
+            }
+            TournamentResponse response = TournamentResponse.from(tournament, players, rooms);
+            announce(response);
+            log.info("Tournament {} started with {} players in {} rooms", tournament.getId(), players.size(),
+                    rooms.size());
+            return response;
+        }
+    }
+
+    /**
+     * Get tournament details with the rooms of its current round
+     */
+    public TournamentResponse getTournament(Long tournamentId) {
+        Bracket bracket = brackets.get(tournamentId);
+        if (bracket != null) {
+            synchronized (bracket) {
+                return TournamentResponse.from(bracket.tournament, bracket.players, currentRooms(bracket));
+            }
+        }
+        Tournament tournament = tournamentRepository.findById(tournamentId)
+                .orElseThrow(() -> new RuntimeException("Tournament not found"));
+        return TournamentResponse.from(tournament, playerRepository.findByTournamentIdOrderBySeed(tournamentId),
+                List.of());
+    }
+
+    @Override
+    public void roomChanged(LiveRoom room, RoomResponse view) {
+        if (room.getStatus() == Room.RoomStatus.COMPLETED && roomTournaments.containsKey(room.getId())) {
+            String winnerId = room.getWinnerId();
+            rounds.execute(() -> roomFinished(room.getId(), winnerId));
+        }
+    }
+
+    @Override
+    public void roomRemoved(LiveRoom room) {
+        if (roomTournaments.containsKey(room.getId())) {
+            // Ended without an accepted submission (expired or deleted): the scoreboard leader advances
+            String winnerId = room.getWinnerId() != null ? room.getWinnerId() : leader(room);
+            rounds.execute(() -> roomFinished(room.getId(), winnerId));
+        }
+    }
+
+    // Runs on the rounds thread
+    private void roomFinished(String roomId, String winnerId) {
+        Long tournamentId = roomTournaments.remove(roomId);
+        Bracket bracket = tournamentId != null ? brackets.get(tournamentId) : null;
+        if (bracket == null) {
+            return;
+        }
+        try {
+            synchronized (bracket) {
+                if (!bracket.openRooms.remove(roomId)) {
+                    return;
+                }
+                int round = bracket.tournament.getCurrentRound();
+                List<TournamentPlayer> inRoom = bracket.players.stream()
+                        .filter(p -> p.getRound() == round && roomId.equals(p.getRoomId()))
+                        .collect(Collectors.toList());
+                // Fall back to the best seed if nobody in the room has a result
+                TournamentPlayer winner = inRoom.stream()
+                        .filter(p -> p.getUserId().equals(winnerId))
+                        .findFirst()
+                        .orElse(inRoom.isEmpty() ? null : inRoom.get(0));
+                if (winner != null) {
+                    winner.setRound(round + 1);
+                    playerRepository.save(winner);
+                    log.info("Tournament {} round {}: {} won room {}", tournamentId, round, winner.getUserId(),
+                            roomId);
+                }
+                if (bracket.openRooms.isEmpty()) {
+                    advance(bracket);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Tournament {} failed to record room {}: {}", tournamentId, roomId, e.getMessage());
+        }
+    }
+
+    private void advanceSafely(Bracket bracket) {
+        try {
+            synchronized (bracket) {
+                advance(bracket);
+            }
+        } catch (Exception e) {
+            log.error("Tournament {} failed to advance: {}", bracket.tournament.getId(), e.getMessage());
+        }
+    }
+
+    // Caller holds the bracket lock
+    private void advance(Bracket bracket) {
+        Tournament tournament = bracket.tournament;
+        int next = tournament.getCurrentRound() + 1;
+        List<TournamentPlayer> advancing = bracket.players.stream()
+                .filter(p -> p.getRound() == next)
+                .collect(Collectors.toList());
+
+        if (advancing.size() <= 1) {
+            tournament.setStatus(Tournament.Status.COMPLETED);
+            tournament.setWinnerId(advancing.isEmpty() ? null : advancing.get(0).getUserId());
+            tournament.setCompletedAt(LocalDateTime.now());
+            tournamentRepository.save(tournament);
+            brackets.remove(tournament.getId());
+            announce(TournamentResponse.from(tournament, bracket.players, List.of()));
+            log.info("Tournament {} completed, winner {}", tournament.getId(), tournament.getWinnerId());
+            return;
+        }
+
+        tournament.setCurrentRound(next);
+        tournamentRepository.save(tournament);
+        List<RoomResponse> rooms = startRound(bracket, advancing);
+        announce(TournamentResponse.from(tournament, bracket.players, rooms));
+        log.info("Tournament {} round {} started with {} players in {} rooms", tournament.getId(), next,
+                advancing.size(), rooms.size());
+    }
+
+    /**
+     * Seat the round's players and provision all of its rooms at once.
+     * Seeds are dealt across rooms (room k gets seeds k, k + rooms, ...) so top
+     * seeds meet late and room sizes differ by at most one. A player left alone
+     * gets a bye. Caller holds the bracket lock.
+     */
+    private List<RoomResponse> startRound(Bracket bracket, List<TournamentPlayer> players) {
+        Tournament tournament = bracket.tournament;
+        int round = tournament.getCurrentRound();
+        int roomCount = (players.size() + tournament.getRoomSize() - 1) / tournament.getRoomSize();
+
+        List<List<TournamentPlayer>> groups = new ArrayList<>(roomCount);
+        for (int i = 0; i < roomCount; i++) {
+            groups.add(new ArrayList<>());
+        }
+        for (int i = 0; i < players.size(); i++) {
+            groups.get(i % roomCount).add(players.get(i));
+        }
+
+        List<List<TournamentPlayer>> playing = new ArrayList<>();
+        for (List<TournamentPlayer> group : groups) {
+            if (group.size() > 1) {
+                playing.add(group);
+            } else {
+                group.get(0).setRound(round + 1);
+                group.get(0).setRoomId(null);
+            }
+        }
+
+        List<RoomResponse> rooms = roomService.provisionRooms(tournament.getCreatedBy(), toRoomRequest(tournament),
+                playing.stream()
+                        .map(group -> group.stream()
+                                .map(p -> new Seat(p.getUserId(), p.getUsername()))
+                                .collect(Collectors.toList()))
+                        .collect(Collectors.toList()));
+
+        for (int i = 0; i < rooms.size(); i++) {
+            String roomId = rooms.get(i).getId();
+            playing.get(i).forEach(p -> p.setRoomId(roomId));
+            bracket.openRooms.add(roomId);
+        }
+        // One batched transaction for the whole round
+        playerRepository.saveAll(players);
+        watch(tournament.getId(), bracket.openRooms);
+        return rooms;
+    }
+
+    // Map rooms to their tournament, then catch results that landed before the mapping did
+    private void watch(Long tournamentId, Collection<String> roomIds) {
+        List<String> ids = new ArrayList<>(roomIds);
+        ids.forEach(roomId -> roomTournaments.put(roomId, tournamentId));
+        for (String roomId : ids) {
+            LiveRoom room = roomRegistry.find(roomId).orElse(null);
+            if (room == null) {
+                rounds.execute(() -> roomFinished(roomId, null));
+                continue;
+            }
+            try {
+                roomExecutor.run(roomId, () -> {
+                    if (room.getStatus() == Room.RoomStatus.COMPLETED) {
+                        String winnerId = room.getWinnerId();
+                        rounds.execute(() -> roomFinished(roomId, winnerId));
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Removed since we looked it up
+                rounds.execute(() -> roomFinished(roomId, null));
+            }
+        }
+    }
+
+    // Caller holds the bracket lock
+    private List<RoomResponse> currentRooms(Bracket bracket) {
+        int round = bracket.tournament.getCurrentRound();
+        return bracket.players.stream()
+                .filter(p -> p.getRound() >= round && p.getRoomId() != null)
+                .map(TournamentPlayer::getRoomId)
+                .distinct()
+                .map(roomRegistry::find)
+                .flatMap(Optional::stream)
+                .map(LiveRoom::getView)
+                .collect(Collectors.toList());
+    }
+
+    private void announce(TournamentResponse response) {
+        messagingTemplate.convertAndSend("/topic/tournament/" + response.getId(), response);
+    }
+
+    // Runs inside the room's mailbox
+    private static String leader(LiveRoom room) {
+        List<LiveScore> scores = room.rankedScores();
+        return scores.isEmpty() ? null : scores.get(0).getUserId();
+    }
+
+    private static CreateRoomRequest toRoomRequest(Tournament tournament) {
+        CreateRoomRequest request = new CreateRoomRequest();
+        request.setProblemSelectionMode(tournament.getProblemSelectionMode().name().toLowerCase());
+        request.setProblemId(tournament.getProblemId());
+        request.setProblemDifficulty(tournament.getProblemDifficulty() != null
+                ? tournament.getProblemDifficulty().name()
+                : null);
+        request.setProblemTag(tournament.getProblemTag());
+        request.setUnsolvedOnly(tournament.getUnsolvedOnly());
+        request.setIsPrivate(true);
+        return request;
+    }
+}
@@ -0,0 +1,150 @@
+package com.codearena.service;
+
+import com.codearena.dto.UserStatsResponse;
+import com.codearena.entity.Problem;
+import com.codearena.entity.Submission;
+import com.codearena.entity.UserActivityDay;
+import com.codearena.entity.UserStats;
+import com.codearena.repository.ProblemRepository;
+import com.codearena.repository.UserActivityDayRepository;
+import com.codearena.repository.UserStatsRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Profile analytics served from materialized counters instead of the raw
+ * submission history. The judge updates the counters as each verdict lands.
+ */
+@Service
+@RequiredArgsConstructor
+public class UserStatsService {
+
+    // Matches the heatmap span on the profile page
+    private static final int ACTIVITY_DAYS = 365;
+
+    private final UserStatsRepository userStatsRepository;
+    private final UserActivityDayRepository activityDayRepository;
+    private final ProblemRepository problemRepository;
+
+    /**
+     * Fold a finalized verdict into the user's counters.
+     * Runs inside the judge's transaction so counters commit with the verdict.
+     */
+    @Transactional
+    public void recordVerdict(Submission submission, boolean firstSolve) {
+        String userId = submission.getUser().getId();
+        LocalDate day = submission.getSubmittedAt().toLocalDate();
+        boolean accepted = submission.getStatus() == Submission.Status.ACCEPTED;
+
+        UserActivityDay activity = activityDayRepository.findById(new UserActivityDay.Key(userId, day))
+                .orElseGet(() -> new UserActivityDay(userId, day, 0, 0));
+        activity.setSubmissions(activity.getSubmissions() + 1);
+        if (accepted) {
+            activity.setAccepted(activity.getAccepted() + 1);
+        }
+        activityDayRepository.save(activity);
+
+        UserStats stats = userStatsRepository.findById(userId).orElseGet(() -> {
+            UserStats s = new UserStats();
+            s.setUserId(userId);
+            return s;
+        });
+        stats.setTotalSubmissions(stats.getTotalSubmissions() + 1);
+        if (accepted) {
+            stats.setAcceptedSubmissions(stats.getAcceptedSubmissions() + 1);
+            advanceStreak(stats, day);
+        }
+        if (firstSolve) {
+            incrementSolved(stats, submission.getProblem().getDifficulty());
+        }
+        userStatsRepository.save(stats);
+    }
+
+    @Transactional(readOnly = true)
+    public UserStatsResponse getStats(String userId) {
+        UserStats stats = userStatsRepository.findById(userId).orElseGet(() -> {
+            UserStats s = new UserStats();
+            s.setUserId(userId);
+            s.setVersion(0L);
+            return s;
+        });
+
+        LocalDate today = LocalDate.now();
+        List<UserStatsResponse.ActivityDay> activity = activityDayRepository
+                .findByUserIdAndDayGreaterThanEqualOrderByDayAsc(userId, today.minusDays(ACTIVITY_DAYS - 1))
+                .stream()
+                .map(d -> new UserStatsResponse.ActivityDay(d.getDay(), d.getSubmissions(), d.getAccepted()))
+                .collect(Collectors.toList());
+
+        Map<String, Integer> solvedByDifficulty = new LinkedHashMap<>();
+        solvedByDifficulty.put("cakewalk", stats.getCakewalkSolved());
+        solvedByDifficulty.put("easy", stats.getEasySolved());
+        solvedByDifficulty.put("medium", stats.getMediumSolved());
+        solvedByDifficulty.put("hard", stats.getHardSolved());
+        int solved = solvedByDifficulty.values().stream().mapToInt(Integer::intValue).sum();
+
+        Map<String, Integer> totalByDifficulty = new LinkedHashMap<>();
+        for (Problem.Difficulty d : Problem.Difficulty.values()) {
+            totalByDifficulty.put(d.name().toLowerCase(), 0);
+        }
+        for (Object[] row : problemRepository.countByDifficulty()) {
+            totalByDifficulty.put(((Problem.Difficulty) row[0]).name().toLowerCase(), ((Long) row[1]).intValue());
+        }
+
+        // A streak only stays current while the last solve was today or yesterday
+        LocalDate last = stats.getLastAcceptedOn();
+        int currentStreak = last != null && !last.isBefore(today.minusDays(1)) ? stats.getCurrentStreak() : 0;
+
+        double acceptanceRate = stats.getTotalSubmissions() > 0
+                ? (double) stats.getAcceptedSubmissions() / stats.getTotalSubmissions() * 100
+                : 0.0;
+
+        return new UserStatsResponse(
+                userId,
+                stats.getTotalSubmissions(),
+                stats.getAcceptedSubmissions(),
+                acceptanceRate,
+                solved,
+                solvedByDifficulty,
+                totalByDifficulty,
+                currentStreak,
+                stats.getMaxStreak(),
+                activity,
+                stats.getVersion());
+    }
+
+    private void advanceStreak(UserStats stats, LocalDate day) {
+        LocalDate last = stats.getLastAcceptedOn();
+        if (last != null && !day.isAfter(last)) {
+            return; // Already counted this day
+        }
+        int streak = last != null && last.plusDays(1).equals(day) ? stats.getCurrentStreak() + 1 : 1;
+        stats.setCurrentStreak(streak);
+        stats.setMaxStreak(Math.max(stats.getMaxStreak(), streak));
+        stats.setLastAcceptedOn(day);
+    }
+
+    private void incrementSolved(UserStats stats, Problem.Difficulty difficulty) {
+        switch (difficulty) {
+            case CAKEWALK:
+                stats.setCakewalkSolved(stats.getCakewalkSolved() + 1);
+                break;
+            case EASY:
+                stats.setEasySolved(stats.getEasySolved() + 1);
+                break;
+            case MEDIUM:
+                stats.setMediumSolved(stats.getMediumSolved() + 1);
+                break;
+            case HARD:
+                stats.setHardSolved(stats.getHardSolved() + 1);
+                break;
+        }
+    }
+}
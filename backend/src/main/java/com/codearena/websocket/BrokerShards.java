@@ -0,0 +1,264 @@
+package com.codearena.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.broker.DefaultSubscriptionRegistry;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.broker.SubscriptionRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+import org.springframework.util.PathMatcher;
+
+import jakarta.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Shards of the in-process STOMP broker, selected by destination hash.
+ *
+ * Each shard owns a single-thread lane with a bounded queue and its own
+ * subscription registry. Every message for a destination (e.g. one room's
+ * topics) is matched and fanned out on the same lane, in publish order, and
+ * only looks at that shard's subscriptions. Rooms on other shards are not
+ * held up by a busy one. Wildcard subscriptions cannot be hashed and live in
+ * a shared registry that is only consulted once one exists.
+ *
+ * Installed as the {@link SimpleBrokerMessageHandler}'s registry; the lanes
+ * run the broker channel through {@link ShardedBrokerExecutor}.
+ */
+@Component
+@Slf4j
+public class BrokerShards implements SubscriptionRegistry, SmartInitializingSingleton {
+
+    private static final int PATTERNS = -1;
+
+    private final ApplicationContext applicationContext;
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final Shard[] shards;
+    private final DefaultSubscriptionRegistry patterns = newRegistry();
+    private volatile boolean hasPatterns;
+
+    // Session -> subscription ID -> shard, since UNSUBSCRIBE frames carry no destination
+    private final Map<String, Map<String, Integer>> sessions = new ConcurrentHashMap<>();
+
+    private volatile List<ShardStats> lastStats = List.of();
+
+    public BrokerShards(ApplicationContext applicationContext,
+            @Value("${websocket.broker.shards:0}") int shardCount,
+            @Value("${websocket.broker.shard-queue-capacity:10000}") int queueCapacity) {
+        this.applicationContext = applicationContext;
+        int size = shardCount > 0 ? shardCount : Runtime.getRuntime().availableProcessors();
+        this.shards = new Shard[size];
+        for (int i = 0; i < size; i++) {
+            shards[i] = new Shard(i, queueCapacity);
+        }
+    }
+
+    /**
+     * Per-shard counters. Fan-out latency runs from publish to the last
+     * subscriber send being queued, over the last reporting window.
+     */
+    public record ShardStats(int shard, int queued, long handled, long dropped, long windowMessages,
+            long avgFanOutMicros, long maxFanOutMicros) {
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        applicationContext.getBean(SimpleBrokerMessageHandler.class).setSubscriptionRegistry(this);
+        log.info("STOMP broker sharded {} ways", shards.length);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Shard shard : shards) {
+            shard.lane.shutdown();
+        }
+    }
+
+    /**
+     * Run a broker task on the lane of its destination
+     */
+    void dispatch(String destination, Runnable task) {
+        Shard shard = destination != null ? shards[shardOf(destination)] : shards[0];
+        long enqueuedAt = System.nanoTime();
+        shard.lane.execute(() -> {
+            try {
+                task.run();
+            } finally {
+                shard.record(System.nanoTime() - enqueuedAt);
+            }
+        });
+    }
+
+    private int shardOf(String destination) {
+        return Math.floorMod(destination.hashCode(), shards.length);
+    }
+
+    @Override
+    public void registerSubscription(Message<?> message) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders());
+        if (destination == null || sessionId == null || subscriptionId == null) {
+            return;
+        }
+        int index;
+        if (pathMatcher.isPattern(destination)) {
+            index = PATTERNS;
+            hasPatterns = true;
+        } else {
+            index = shardOf(destination);
+        }
+        registry(index).registerSubscription(message);
+        sessions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>()).put(subscriptionId, index);
+    }
+
+    @Override
+    public void unregisterSubscription(Message<?> message) {
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        String subscriptionId = SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders());
+        Map<String, Integer> subscriptions = sessionId != null ? sessions.get(sessionId) : null;
+        Integer index = subscriptions != null && subscriptionId != null ? subscriptions.remove(subscriptionId) : null;
+        if (index != null) {
+            registry(index).unregisterSubscription(message);
+        }
+    }
+
+    @Override
+    public void unregisterAllSubscriptions(String sessionId) {
+        Map<String, Integer> subscriptions = sessions.remove(sessionId);
+        if (subscriptions != null) {
+            subscriptions.values().stream().distinct()
+                    .forEach(index -> registry(index).unregisterAllSubscriptions(sessionId));
+        }
+    }
+
+    @Override
+    public MultiValueMap<String, String> findSubscriptions(Message<?> message) {
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null) {
+            return new LinkedMultiValueMap<>();
+        }
+        MultiValueMap<String, String> found = shards[shardOf(destination)].registry.findSubscriptions(message);
+        if (!hasPatterns) {
+            return found;
+        }
+        MultiValueMap<String, String> merged = new LinkedMultiValueMap<>(found);
+        patterns.findSubscriptions(message).forEach(merged::addAll);
+        return merged;
+    }
+
+    /**
+     * Counters as of the last report, with live queue depths
+     */
+    public List<ShardStats> stats() {
+        List<ShardStats> last = lastStats;
+        List<ShardStats> current = new ArrayList<>(shards.length);
+        for (Shard shard : shards) {
+            ShardStats window = shard.index < last.size() ? last.get(shard.index) : null;
+            current.add(new ShardStats(shard.index, shard.lane.getQueue().size(), shard.handled.sum(),
+                    shard.dropped.sum(), window != null ? window.windowMessages() : 0,
+                    window != null ? window.avgFanOutMicros() : 0, window != null ? window.maxFanOutMicros() : 0));
+        }
+        return current;
+    }
+
+    /**
+     * Close the reporting window
+     * Runs every minute by default
+     */
+    @Scheduled(fixedDelayString = "${websocket.broker.stats-interval-ms:60000}")
+    public void report() {
+        List<ShardStats> stats = new ArrayList<>(shards.length);
+        long messages = 0;
+        long max = 0;
+        for (Shard shard : shards) {
+            ShardStats window = shard.closeWindow();
+            stats.add(window);
+            messages += window.windowMessages();
+            max = Math.max(max, window.maxFanOutMicros());
+        }
+        lastStats = stats;
+        if (messages > 0) {
+            log.info("Broker fan-out: {} messages, max {}us, per shard (messages/avg us): {}", messages, max,
+                    stats.stream().map(s -> s.windowMessages() + "/" + s.avgFanOutMicros()).toList());
+        }
+    }
+
+    private DefaultSubscriptionRegistry newRegistry() {
+        DefaultSubscriptionRegistry registry = new DefaultSubscriptionRegistry();
+        registry.setPathMatcher(pathMatcher);
+        return registry;
+    }
+
+    private SubscriptionRegistry registry(int index) {
+        return index == PATTERNS ? patterns : shards[index].registry;
+    }
+
+    private final class Shard {
+        final int index;
+        final ThreadPoolExecutor lane;
+        final DefaultSubscriptionRegistry registry = newRegistry();
+        final LongAdder handled = new LongAdder();
+        final LongAdder dropped = new LongAdder();
+        final AtomicLong windowDropped = new AtomicLong();
+        final AtomicLong windowMessages = new AtomicLong();
+        final AtomicLong windowNanos = new AtomicLong();
+        final AtomicLong windowMax = new AtomicLong();
+
+        Shard(int index, int queueCapacity) {
+            this.index = index;
+            AtomicInteger threads = new AtomicInteger();
+            this.lane = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<>(queueCapacity),
+                    r -> {
+                        Thread thread = new Thread(r, "broker-shard-" + index + "-" + threads.incrementAndGet());
+                        thread.setDaemon(true);
+                        return thread;
+                    },
+                    (task, executor) -> drop());
+        }
+
+        // Queue full: drop at once. Publishers include room mailboxes, which must never wait on a shard
+        private void drop() {
+            dropped.increment();
+            if (windowDropped.getAndIncrement() == 0) {
+                log.warn("Broker shard {} is full, dropping messages", index);
+            }
+        }
+
+        void record(long nanos) {
+            handled.increment();
+            windowMessages.incrementAndGet();
+            windowNanos.addAndGet(nanos);
+            windowMax.accumulateAndGet(nanos, Math::max);
+        }
+
+        ShardStats closeWindow() {
+            long messages = windowMessages.getAndSet(0);
+            long nanos = windowNanos.getAndSet(0);
+            long max = windowMax.getAndSet(0);
+            long drops = windowDropped.getAndSet(0);
+            if (drops > 1) {
+                log.warn("Broker shard {} dropped {} messages in the last window", index, drops);
+            }
+            return new ShardStats(index, lane.getQueue().size(), handled.sum(), dropped.sum(), messages,
+                    messages > 0 ? nanos / messages / 1000 : 0, max / 1000);
+        }
+    }
+}
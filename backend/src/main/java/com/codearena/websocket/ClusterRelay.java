@@ -0,0 +1,29 @@
+package com.codearena.websocket;
+
+import java.util.function.Consumer;
+
+/**
+ * Transport between backend nodes for {@link RelayBridge} frames.
+ * Frames are broadcast to every node; a node may get its own back and must
+ * ignore them.
+ */
+public interface ClusterRelay {
+
+    /**
+     * Start receiving; frames are handed to receiver on the relay's own thread
+     */
+    void start(Consumer<byte[]> receiver);
+
+    /**
+     * Broadcast a frame. Returns false if it was over {@link #maxFrameBytes()}
+     * and the transport has no way to carry it, or if it could not be sent.
+     */
+    boolean send(byte[] frame);
+
+    void stop();
+
+    /**
+     * Largest frame this transport sends in one piece
+     */
+    int maxFrameBytes();
+}
@@ -0,0 +1,242 @@
+package com.codearena.websocket;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.converter.DefaultContentTypeResolver;
+import org.springframework.messaging.converter.MappingJackson2MessageConverter;
+import org.springframework.messaging.converter.MessageConverter;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.messaging.support.MessageHeaderAccessor;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.server.HandshakeInterceptor;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional CBOR payloads for WebSocket subscribers.
+ *
+ * A client connected to the raw /ws-binary endpoint (SockJS only carries
+ * text) asks for it with a "payload-encoding: cbor" header on CONNECT. JSON
+ * message bodies to that session are then re-encoded as CBOR and sent as
+ * binary frames (content-type application/octet-stream, the frame marked
+ * "payload-encoding: cbor"). Everyone else keeps JSON.
+ *
+ * While any CBOR session is connected, the broker message converter
+ * ({@link #messageConverter()}) serializes each published object to CBOR as
+ * well as JSON and carries the CBOR bytes in a message header. The broker
+ * copies headers to every subscriber's message, so an object is encoded once
+ * per broadcast in each format, and both encodings are timed on the same
+ * object for the stats. Messages without the header (relayed from another
+ * node, or published before the first CBOR session) are transcoded from their
+ * JSON once per payload array, via a small identity-keyed cache.
+ */
+@Component
+@Slf4j
+public class PayloadEncoding implements ChannelInterceptor {
+
+    public static final String HEADER = "payload-encoding";
+    public static final String CBOR = "cbor";
+    private static final String BINARY_CAPABLE = "binaryCapable";
+    private static final String CBOR_PAYLOAD = "cborPayload";
+    private static final int CACHE_SLOTS = 256;
+
+    private final ObjectMapper jsonMapper;
+    private final ObjectMapper cborMapper;
+    private final Map<String, Boolean> cborSessions = new ConcurrentHashMap<>();
+    private final AtomicReferenceArray<Encoded> cache = new AtomicReferenceArray<>(CACHE_SLOTS);
+
+    private final LongAdder frames = new LongAdder();
+    private final LongAdder encodings = new LongAdder();
+    private final LongAdder transcodings = new LongAdder();
+    private final LongAdder jsonBytes = new LongAdder();
+    private final LongAdder cborBytes = new LongAdder();
+    private final LongAdder jsonNanos = new LongAdder();
+    private final LongAdder cborNanos = new LongAdder();
+
+    public PayloadEncoding(ObjectMapper jsonMapper) {
+        this.jsonMapper = jsonMapper;
+        // Same modules and settings as JSON, so both encodings carry the same values
+        this.cborMapper = jsonMapper.copyWith(new CBORFactory());
+    }
+
+    private record Encoded(byte[] json, byte[] cbor) {
+    }
+
+    /**
+     * Frames sent as CBOR and how many payloads were encoded for them. Sizes and
+     * average encode times compare JSON and CBOR serialization of the same
+     * published objects; transcoded payloads are counted but not in the comparison.
+     */
+    public record EncodingStats(long cborSessions, long cborFrames, long encodedPayloads, long transcodedPayloads,
+            long jsonBytes, long cborBytes, double cborToJsonRatio, long avgJsonEncodeNanos,
+            long avgCborEncodeNanos) {
+    }
+
+    /**
+     * Broker message converter: Jackson JSON as usual, plus the CBOR form of the
+     * same object while any session wants it
+     */
+    public MessageConverter messageConverter() {
+        MappingJackson2MessageConverter converter = new MappingJackson2MessageConverter() {
+            @Override
+            protected boolean supports(Class<?> clazz) {
+                // Left to the String and byte[] converters, as with the default converter order
+                return clazz != String.class && clazz != byte[].class;
+            }
+
+            @Override
+            protected Object convertToInternal(Object payload, MessageHeaders headers, Object conversionHint) {
+                // The messaging template hands over headers that are still mutable
+                MessageHeaderAccessor accessor = headers != null
+                        ? MessageHeaderAccessor.getAccessor(headers, MessageHeaderAccessor.class) : null;
+                if (cborSessions.isEmpty() || accessor == null || !accessor.isMutable()) {
+                    return super.convertToInternal(payload, headers, conversionHint);
+                }
+                long start = System.nanoTime();
+                Object converted = super.convertToInternal(payload, headers, conversionHint);
+                long jsonDone = System.nanoTime();
+                if (!(converted instanceof byte[] json)) {
+                    return converted;
+                }
+                byte[] cbor;
+                try {
+                    cbor = cborMapper.writeValueAsBytes(payload);
+                } catch (IOException e) {
+                    log.warn("Could not encode payload as CBOR, subscribers will transcode: {}", e.getMessage());
+                    return converted;
+                }
+                cborNanos.add(System.nanoTime() - jsonDone);
+                jsonNanos.add(jsonDone - start);
+                encodings.increment();
+                jsonBytes.add(json.length);
+                cborBytes.add(cbor.length);
+                accessor.setHeader(CBOR_PAYLOAD, cbor);
+                return json;
+            }
+        };
+        converter.setObjectMapper(jsonMapper);
+        DefaultContentTypeResolver resolver = new DefaultContentTypeResolver();
+        resolver.setDefaultMimeType(MimeTypeUtils.APPLICATION_JSON);
+        converter.setContentTypeResolver(resolver);
+        return converter;
+    }
+
+    /**
+     * Marks sessions opened on the raw WebSocket endpoint as able to take binary frames
+     */
+    public HandshakeInterceptor binaryEndpoint() {
+        return new HandshakeInterceptor() {
+            @Override
+            public boolean beforeHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                    WebSocketHandler wsHandler, Map<String, Object> attributes) {
+                attributes.put(BINARY_CAPABLE, Boolean.TRUE);
+                return true;
+            }
+
+            @Override
+            public void afterHandshake(ServerHttpRequest request, ServerHttpResponse response,
+                    WebSocketHandler wsHandler, Exception exception) {
+            }
+        };
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        SimpMessageType type = SimpMessageHeaderAccessor.getMessageType(message.getHeaders());
+        if (type == SimpMessageType.CONNECT) {
+            negotiate(message);
+            return message;
+        }
+        // Client SENDs on the inbound channel are MESSAGEs too, but only broker deliveries carry a subscription
+        if (type != SimpMessageType.MESSAGE || cborSessions.isEmpty()
+                || SimpMessageHeaderAccessor.getSubscriptionId(message.getHeaders()) == null) {
+            return message;
+        }
+        String sessionId = SimpMessageHeaderAccessor.getSessionId(message.getHeaders());
+        if (sessionId == null || !cborSessions.containsKey(sessionId)
+                || !(message.getPayload() instanceof byte[] json)) {
+            return message;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        MimeType contentType = accessor.getContentType();
+        if (contentType == null || !MimeTypeUtils.APPLICATION_JSON.isCompatibleWith(contentType)) {
+            return message;
+        }
+
+        byte[] cbor = message.getHeaders().get(CBOR_PAYLOAD) instanceof byte[] encoded ? encoded : transcode(json);
+        if (cbor == null) {
+            return message;
+        }
+        // octet-stream makes the STOMP handler send a binary WebSocket frame
+        accessor.setContentType(MimeTypeUtils.APPLICATION_OCTET_STREAM);
+        accessor.setNativeHeader(HEADER, CBOR);
+        frames.increment();
+        return MessageBuilder.createMessage(cbor, accessor.getMessageHeaders());
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        cborSessions.remove(event.getSessionId());
+    }
+
+    public EncodingStats stats() {
+        long json = jsonBytes.sum();
+        long cbor = cborBytes.sum();
+        long encoded = encodings.sum();
+        return new EncodingStats(cborSessions.size(), frames.sum(), encoded, transcodings.sum(), json, cbor,
+                json > 0 ? (double) cbor / json : 0, encoded > 0 ? jsonNanos.sum() / encoded : 0,
+                encoded > 0 ? cborNanos.sum() / encoded : 0);
+    }
+
+    private void negotiate(Message<?> message) {
+        StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+        if (!CBOR.equalsIgnoreCase(accessor.getFirstNativeHeader(HEADER))) {
+            return;
+        }
+        Map<String, Object> attributes = accessor.getSessionAttributes();
+        if (attributes == null || !Boolean.TRUE.equals(attributes.get(BINARY_CAPABLE))) {
+            log.debug("Session {} asked for CBOR over a text-only transport; keeping JSON", accessor.getSessionId());
+            return;
+        }
+        cborSessions.put(accessor.getSessionId(), Boolean.TRUE);
+    }
+
+    // Same payload array -> same CBOR bytes; a slot collision only costs a re-encode
+    private byte[] transcode(byte[] json) {
+        int slot = System.identityHashCode(json) & (CACHE_SLOTS - 1);
+        Encoded cached = cache.get(slot);
+        if (cached != null && cached.json() == json) {
+            return cached.cbor();
+        }
+        try {
+            JsonNode tree = jsonMapper.readTree(json);
+            byte[] cbor = cborMapper.writeValueAsBytes(tree);
+            transcodings.increment();
+            cache.set(slot, new Encoded(json, cbor));
+            return cbor;
+        } catch (IOException e) {
+            log.warn("Could not re-encode payload as CBOR, sending JSON: {}", e.getMessage());
+            return null;
+        }
+    }
+}
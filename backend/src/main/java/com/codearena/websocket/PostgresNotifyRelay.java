@@ -0,0 +1,191 @@
+package com.codearena.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.function.Consumer;
+
+/**
+ * Relay over Postgres LISTEN/NOTIFY on the application database, so a second
+ * node needs no extra infrastructure.
+ *
+ * Listening and publishing each hold one dedicated connection outside the
+ * pool (a LISTEN is tied to its session). Either is reopened after a failure.
+ * NOTIFY payloads are text and capped at 8000 bytes, so a bigger frame is
+ * written to ws_relay_payloads and the NOTIFY carries only its id. Those rows
+ * are purged once every node has had time to read them.
+ */
+@Slf4j
+public class PostgresNotifyRelay implements ClusterRelay {
+
+    private static final int MAX_PAYLOAD = 7_900;
+    private static final long RETRY_MS = 2_000;
+    // NOTIFY payload pointing at a ws_relay_payloads row; frames themselves are JSON objects
+    private static final String REF_PREFIX = "ref:";
+    private static final long PAYLOAD_TTL_MS = 60_000;
+
+    private final String url;
+    private final String username;
+    private final String password;
+    private final String channel;
+
+    private volatile boolean running;
+    private Thread listenerThread;
+
+    // Guarded by this
+    private Connection publisher;
+    private PreparedStatement notify;
+    private PreparedStatement store;
+    private long lastPurge;
+
+    public PostgresNotifyRelay(String url, String username, String password, String channel) {
+        if (!channel.matches("[a-z_][a-z0-9_]*")) {
+            throw new IllegalArgumentException("Relay channel must be a lower-case SQL identifier: " + channel);
+        }
+        this.url = url;
+        this.username = username;
+        this.password = password;
+        this.channel = channel;
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) {
+        running = true;
+        listenerThread = new Thread(() -> listen(receiver), "ws-relay-pg");
+        listenerThread.setDaemon(true);
+        listenerThread.start();
+        log.info("Postgres relay listening on channel {}", channel);
+    }
+
+    @Override
+    public synchronized boolean send(byte[] frame) {
+        try {
+            if (notify == null) {
+                publisher = DriverManager.getConnection(url, username, password);
+                notify = publisher.prepareStatement("SELECT pg_notify(?, ?)");
+                store = publisher.prepareStatement("INSERT INTO ws_relay_payloads (payload) VALUES (?) RETURNING id");
+            }
+            String payload = new String(frame, StandardCharsets.UTF_8);
+            if (frame.length > MAX_PAYLOAD) {
+                payload = REF_PREFIX + storePayload(payload);
+            }
+            notify.setString(1, channel);
+            notify.setString(2, payload);
+            notify.execute();
+            return true;
+        } catch (SQLException e) {
+            log.warn("Relay NOTIFY failed, reconnecting on next send: {}", e.getMessage());
+            closePublisher();
+            return false;
+        }
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (listenerThread != null) {
+            listenerThread.interrupt();
+        }
+        synchronized (this) {
+            closePublisher();
+        }
+    }
+
+    @Override
+    public int maxFrameBytes() {
+        return MAX_PAYLOAD;
+    }
+
+    private void listen(Consumer<byte[]> receiver) {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(url, username, password)) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + channel);
+                }
+                PGConnection pg = connection.unwrap(PGConnection.class);
+                PreparedStatement load = connection.prepareStatement("SELECT payload FROM ws_relay_payloads WHERE id = ?");
+                while (running) {
+                    PGNotification[] notifications = pg.getNotifications(1000);
+                    if (notifications == null) {
+                        continue;
+                    }
+                    for (PGNotification notification : notifications) {
+                        try {
+                            String payload = notification.getParameter();
+                            if (payload.startsWith(REF_PREFIX)) {
+                                payload = loadPayload(load, Long.parseLong(payload.substring(REF_PREFIX.length())));
+                                if (payload == null) {
+                                    continue;
+                                }
+                            }
+                            receiver.accept(payload.getBytes(StandardCharsets.UTF_8));
+                        } catch (RuntimeException e) {
+                            log.error("Relay frame could not be handled: {}", e.getMessage());
+                        }
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Relay LISTEN connection lost, retrying in {} ms: {}", RETRY_MS, e.getMessage());
+                try {
+                    Thread.sleep(RETRY_MS);
+                } catch (InterruptedException interrupted) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Caller holds the lock
+    private long storePayload(String payload) throws SQLException {
+        long now = System.currentTimeMillis();
+        if (now - lastPurge > PAYLOAD_TTL_MS) {
+            try (Statement purge = publisher.createStatement()) {
+                purge.executeUpdate("DELETE FROM ws_relay_payloads WHERE created_at < NOW() - INTERVAL '"
+                        + PAYLOAD_TTL_MS / 1000 + " seconds'");
+            }
+            lastPurge = now;
+        }
+        store.setString(1, payload);
+        try (ResultSet keys = store.executeQuery()) {
+            keys.next();
+            return keys.getLong(1);
+        }
+    }
+
+    // Runs on the listener thread
+    private String loadPayload(PreparedStatement load, long id) throws SQLException {
+        load.setLong(1, id);
+        try (ResultSet row = load.executeQuery()) {
+            if (!row.next()) {
+                log.warn("Relay payload {} was already purged, dropping the frame", id);
+                return null;
+            }
+            return row.getString(1);
+        }
+    }
+
+    // Caller holds the lock
+    private void closePublisher() {
+        try {
+            if (publisher != null) {
+                publisher.close();
+            }
+        } catch (SQLException ignored) {
+            // Already broken
+        }
+        publisher = null;
+        notify = null;
+        store = null;
+    }
+}
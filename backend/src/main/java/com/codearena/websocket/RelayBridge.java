@@ -0,0 +1,357 @@
+package com.codearena.websocket;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.SmartInitializingSingleton;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.event.EventListener;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.web.socket.messaging.SessionDisconnectEvent;
+import org.springframework.web.socket.messaging.SessionSubscribeEvent;
+import org.springframework.web.socket.messaging.SessionUnsubscribeEvent;
+
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Fans out broker messages across backend nodes.
+ *
+ * Messages the application publishes (SimpMessagingTemplate, on the broker
+ * channel) are delivered locally as before and, when another node has a
+ * subscriber for the destination, also sent over a {@link ClusterRelay};
+ * the receiving node re-publishes them into its own broker. Nodes announce
+ * the destinations they have subscribers for, so with a load balancer that
+ * keeps a room's players on one node, room traffic never leaves that node.
+ *
+ * Transports: none (single node, the default), postgres (LISTEN/NOTIFY on the
+ * application database) or udp (static peer list, a local stand-in for tests
+ * and development).
+ */
+@Component
+@Slf4j
+public class RelayBridge implements ChannelInterceptor, SmartInitializingSingleton {
+
+    static final String RELAYED_FROM = "relayedFrom";
+    private static final String ALL = "*";
+
+    private final ApplicationContext applicationContext;
+    private final ObjectMapper objectMapper;
+    private final ClusterRelay relay;
+    private final String nodeId;
+    private final long refreshMs;
+    private final ThreadPoolExecutor sender;
+
+    private MessageChannel brokerChannel;
+
+    // Destination -> local subscriptions; session -> subscription ID -> destination
+    private final Map<String, Integer> localInterest = new HashMap<>();
+    private final Map<String, Map<String, String>> sessions = new HashMap<>();
+
+    private final Map<String, RemoteNode> remoteNodes = new ConcurrentHashMap<>();
+    private long epoch;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder received = new LongAdder();
+    private final LongAdder keptLocal = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+
+    public RelayBridge(ApplicationContext applicationContext,
+            ObjectMapper objectMapper,
+            @Value("${websocket.relay.type:none}") String type,
+            @Value("${websocket.relay.node-id:}") String nodeId,
+            @Value("${websocket.relay.interest-refresh-ms:5000}") long refreshMs,
+            @Value("${websocket.relay.queue-capacity:10000}") int queueCapacity,
+            @Value("${websocket.relay.channel:codearena_ws}") String channel,
+            @Value("${websocket.relay.udp-bind:127.0.0.1}") String udpBind,
+            @Value("${websocket.relay.udp-port:0}") int udpPort,
+            @Value("${websocket.relay.peers:}") String peers,
+            @Value("${websocket.relay.secret:}") String secret,
+            @Value("${spring.datasource.url}") String dbUrl,
+            @Value("${spring.datasource.username:}") String dbUsername,
+            @Value("${spring.datasource.password:}") String dbPassword) {
+        this.applicationContext = applicationContext;
+        this.objectMapper = objectMapper;
+        this.nodeId = nodeId != null && !nodeId.isEmpty() ? nodeId : UUID.randomUUID().toString();
+        this.refreshMs = refreshMs;
+        this.relay = switch (type.toLowerCase()) {
+            case "none" -> null;
+            case "postgres" -> new PostgresNotifyRelay(dbUrl, dbUsername, dbPassword, channel);
+            case "udp" -> new UdpPeerRelay(udpBind, udpPort, peers, secret);
+            default -> throw new IllegalStateException("Unknown websocket.relay.type: " + type);
+        };
+        // One sender thread keeps publish order; a full queue drops rather than stall publishers
+        this.sender = new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread thread = new Thread(r, "ws-relay-send");
+                    thread.setDaemon(true);
+                    return thread;
+                },
+                (task, executor) -> dropped.increment());
+    }
+
+    /**
+     * A frame between nodes. MESSAGE carries one broker message; INTEREST
+     * lists destinations the node has subscribers for (a new epoch replaces
+     * the previous list, the same epoch adds to it).
+     */
+    record Frame(String node, String kind, long epoch, String destination, String contentType,
+            Map<String, String> headers, String body, List<String> destinations) {
+    }
+
+    public record RelayStats(String nodeId, String transport, List<String> remoteNodes, long sent,
+            long received, long keptLocal, long dropped) {
+    }
+
+    private static final class RemoteNode {
+        private long epoch;
+        private final Set<String> destinations = ConcurrentHashMap.newKeySet();
+        private volatile long lastSeen;
+    }
+
+    @Override
+    public void afterSingletonsInstantiated() {
+        if (relay == null) {
+            return;
+        }
+        brokerChannel = applicationContext.getBean("brokerChannel", MessageChannel.class);
+        relay.start(this::receive);
+        log.info("WebSocket relay started as node {} over {}", nodeId, relay.getClass().getSimpleName());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (relay != null) {
+            sender.shutdown();
+            relay.stop();
+        }
+    }
+
+    @Override
+    public Message<?> preSend(Message<?> message, MessageChannel channel) {
+        if (relay == null || message.getHeaders().containsKey(RELAYED_FROM)
+                || SimpMessageHeaderAccessor.getMessageType(message.getHeaders()) != SimpMessageType.MESSAGE
+                || !(message.getPayload() instanceof byte[] body)) {
+            return message;
+        }
+        String destination = SimpMessageHeaderAccessor.getDestination(message.getHeaders());
+        if (destination == null || !remoteInterest(destination)) {
+            keptLocal.increment();
+            return message;
+        }
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(message);
+        Map<String, String> headers = new HashMap<>();
+        accessor.toNativeHeaderMap().forEach((name, values) -> {
+            if (!values.isEmpty()) {
+                headers.put(name, values.get(0));
+            }
+        });
+        MimeType contentType = accessor.getContentType();
+        Frame frame = new Frame(nodeId, "MESSAGE", 0, destination,
+                contentType != null ? contentType.toString() : null, headers,
+                Base64.getEncoder().encodeToString(body), null);
+        send(frame);
+        return message;
+    }
+
+    @EventListener
+    public void onSubscribe(SessionSubscribeEvent event) {
+        if (relay == null) {
+            return;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        String destination = accessor.getDestination();
+        if (destination == null || accessor.getSessionId() == null || accessor.getSubscriptionId() == null) {
+            return;
+        }
+        String key = destination.contains("*") || destination.contains("{") ? ALL : destination;
+        boolean first;
+        long currentEpoch;
+        synchronized (this) {
+            sessions.computeIfAbsent(accessor.getSessionId(), id -> new HashMap<>())
+                    .put(accessor.getSubscriptionId(), key);
+            first = localInterest.merge(key, 1, Integer::sum) == 1;
+            currentEpoch = epoch;
+        }
+        if (first) {
+            // Announce right away; the periodic refresh would take up to one interval
+            send(new Frame(nodeId, "INTEREST", currentEpoch, null, null, null, null, List.of(key)));
+        }
+    }
+
+    @EventListener
+    public void onUnsubscribe(SessionUnsubscribeEvent event) {
+        if (relay == null) {
+            return;
+        }
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(event.getMessage());
+        synchronized (this) {
+            Map<String, String> subscriptions = sessions.get(accessor.getSessionId());
+            if (subscriptions != null) {
+                release(subscriptions.remove(accessor.getSubscriptionId()));
+            }
+        }
+    }
+
+    @EventListener
+    public void onDisconnect(SessionDisconnectEvent event) {
+        if (relay == null) {
+            return;
+        }
+        synchronized (this) {
+            Map<String, String> subscriptions = sessions.remove(event.getSessionId());
+            if (subscriptions != null) {
+                subscriptions.values().forEach(this::release);
+            }
+        }
+    }
+
+    /**
+     * Re-announce local interest under a new epoch and forget silent nodes
+     * Runs every refresh interval (5s by default)
+     */
+    @Scheduled(fixedDelayString = "${websocket.relay.interest-refresh-ms:5000}")
+    public void announce() {
+        if (relay == null) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        remoteNodes.values().removeIf(node -> node.lastSeen < now - 3 * refreshMs);
+
+        List<String> destinations;
+        long currentEpoch;
+        synchronized (this) {
+            destinations = new ArrayList<>(localInterest.keySet());
+            currentEpoch = ++epoch;
+        }
+        // Chunked to the transport's frame size; an empty list still announces the node
+        int budget = relay.maxFrameBytes() / 2;
+        List<String> chunk = new ArrayList<>();
+        int size = 0;
+        for (String destination : destinations) {
+            if (size + destination.length() > budget && !chunk.isEmpty()) {
+                send(new Frame(nodeId, "INTEREST", currentEpoch, null, null, null, null, chunk));
+                chunk = new ArrayList<>();
+                size = 0;
+            }
+            chunk.add(destination);
+            size += destination.length() + 3;
+        }
+        send(new Frame(nodeId, "INTEREST", currentEpoch, null, null, null, null, chunk));
+    }
+
+    public RelayStats stats() {
+        return new RelayStats(nodeId, relay != null ? relay.getClass().getSimpleName() : "none",
+                new ArrayList<>(remoteNodes.keySet()), sent.sum(), received.sum(), keptLocal.sum(), dropped.sum());
+    }
+
+    private boolean remoteInterest(String destination) {
+        for (RemoteNode node : remoteNodes.values()) {
+            if (node.destinations.contains(destination) || node.destinations.contains(ALL)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void send(Frame frame) {
+        sender.execute(() -> transmit(frame));
+    }
+
+    // Runs on the sender thread
+    private void transmit(Frame frame) {
+        try {
+            byte[] bytes = objectMapper.writeValueAsBytes(frame);
+            if (relay.send(bytes)) {
+                if ("MESSAGE".equals(frame.kind())) {
+                    sent.increment();
+                }
+            } else if (bytes.length > relay.maxFrameBytes()) {
+                // Peers' subscribers silently miss this one, so make it visible
+                dropped.increment();
+                log.warn("Dropped {} relay frame for {}: {} bytes is over the {}-byte transport limit",
+                        frame.kind(), frame.destination(), bytes.length, relay.maxFrameBytes());
+            } else {
+                dropped.increment();
+                log.debug("Relay did not send {} frame for {}", frame.kind(), frame.destination());
+            }
+        } catch (IOException e) {
+            dropped.increment();
+            log.error("Failed to encode relay frame: {}", e.getMessage());
+        }
+    }
+
+    // Runs on the relay's receiver thread
+    private void receive(byte[] bytes) {
+        Frame frame;
+        try {
+            frame = objectMapper.readValue(bytes, Frame.class);
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable relay frame: {}", e.getMessage());
+            return;
+        }
+        if (nodeId.equals(frame.node())) {
+            return;
+        }
+        RemoteNode node = remoteNodes.computeIfAbsent(frame.node(), id -> {
+            log.info("WebSocket relay peer {} joined", id);
+            return new RemoteNode();
+        });
+        node.lastSeen = System.currentTimeMillis();
+
+        if ("INTEREST".equals(frame.kind())) {
+            synchronized (node) {
+                if (frame.epoch() > node.epoch) {
+                    node.epoch = frame.epoch();
+                    node.destinations.retainAll(new HashSet<>(frame.destinations()));
+                }
+                node.destinations.addAll(frame.destinations());
+            }
+            return;
+        }
+
+        SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+        accessor.setDestination(frame.destination());
+        if (frame.contentType() != null) {
+            accessor.setContentType(MimeType.valueOf(frame.contentType()));
+        }
+        if (frame.headers() != null) {
+            frame.headers().forEach(accessor::setNativeHeader);
+        }
+        accessor.setHeader(RELAYED_FROM, frame.node());
+        brokerChannel.send(MessageBuilder.createMessage(Base64.getDecoder().decode(frame.body()),
+                accessor.getMessageHeaders()));
+        received.increment();
+    }
+
+    // Caller holds the lock
+    private void release(String destination) {
+        if (destination != null && localInterest.merge(destination, -1, Integer::sum) <= 0) {
+            // Peers drop it at the next refresh
+            localInterest.remove(destination);
+        }
+    }
+}
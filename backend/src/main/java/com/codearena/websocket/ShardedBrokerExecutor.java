@@ -0,0 +1,32 @@
+package com.codearena.websocket;
+
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.support.MessageHandlingRunnable;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Broker channel executor that hands each message to the {@link BrokerShards}
+ * lane of its destination instead of a shared pool, so messages for one
+ * destination are fanned out in publish order.
+ *
+ * Extends ThreadPoolTaskExecutor only because that is what the broker channel
+ * registration accepts; the inherited pool is never used.
+ */
+public class ShardedBrokerExecutor extends ThreadPoolTaskExecutor {
+
+    private final BrokerShards shards;
+
+    public ShardedBrokerExecutor(BrokerShards shards) {
+        this.shards = shards;
+        setCorePoolSize(1);
+        setMaxPoolSize(1);
+    }
+
+    @Override
+    public void execute(Runnable task) {
+        String destination = task instanceof MessageHandlingRunnable runnable
+                ? SimpMessageHeaderAccessor.getDestination(runnable.getMessage().getHeaders())
+                : null;
+        shards.dispatch(destination, task);
+    }
+}
@@ -0,0 +1,121 @@
+package com.codearena.websocket;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Optional per-destination batching of outbound messages.
+ *
+ * With a tick of 0 a message is sent as its own frame right away. Otherwise
+ * the first message opens a batch for its destination, later messages join
+ * it, and one tick later the whole batch goes out as a single frame: a JSON
+ * array in arrival order, marked with a "coalesced: true" header. A batch is
+ * sent before anything published after it, so ordering per destination holds.
+ */
+@Component
+@Slf4j
+public class TopicCoalescer {
+
+    public static final String HEADER = "coalesced";
+
+    private final SimpMessagingTemplate messagingTemplate;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(r -> {
+        Thread thread = new Thread(r, "topic-coalescer");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final Map<String, Batch> batches = new ConcurrentHashMap<>();
+    private final LongAdder messages = new LongAdder();
+    private final LongAdder frames = new LongAdder();
+
+    public TopicCoalescer(SimpMessagingTemplate messagingTemplate) {
+        this.messagingTemplate = messagingTemplate;
+    }
+
+    // Guarded by itself
+    private static final class Batch {
+        List<Object> payloads = new ArrayList<>();
+        boolean closed;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        ticker.shutdown();
+        batches.forEach(this::flush);
+    }
+
+    /**
+     * Send now, or with the destination's pending batch when tickMillis is positive
+     */
+    public void send(String destination, Object payload, int tickMillis) {
+        messages.increment();
+        while (true) {
+            Batch batch = tickMillis > 0
+                    ? batches.computeIfAbsent(destination, d -> open(d, tickMillis))
+                    : batches.get(destination);
+            if (batch == null) {
+                // Not coalescing and nothing pending that this could overtake
+                frames.increment();
+                messagingTemplate.convertAndSend(destination, payload);
+                return;
+            }
+            synchronized (batch) {
+                if (!batch.closed) {
+                    batch.payloads.add(payload);
+                    return;
+                }
+            }
+            // Flushed while we were looking; try again
+        }
+    }
+
+    /**
+     * Messages accepted and frames sent since startup
+     */
+    public long messageCount() {
+        return messages.sum();
+    }
+
+    public long frameCount() {
+        return frames.sum();
+    }
+
+    private Batch open(String destination, int tickMillis) {
+        Batch batch = new Batch();
+        ticker.schedule(() -> flush(destination, batch), tickMillis, TimeUnit.MILLISECONDS);
+        return batch;
+    }
+
+    private void flush(String destination, Batch batch) {
+        try {
+            synchronized (batch) {
+                if (batch.closed) {
+                    return;
+                }
+                batch.closed = true;
+                try {
+                    // Sent before the batch is unlisted, so a direct send cannot slip in ahead of it
+                    frames.increment();
+                    messagingTemplate.convertAndSend(destination, batch.payloads, Map.of(HEADER, "true"));
+                } finally {
+                    batches.remove(destination, batch);
+                }
+            }
+        } catch (Exception e) {
+            log.error("Failed to flush {} coalesced messages to {}: {}", batch.payloads.size(), destination,
+                    e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,144 @@
+package com.codearena.websocket;
+
+import lombok.extern.slf4j.Slf4j;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
+import java.net.DatagramPacket;
+import java.net.DatagramSocket;
+import java.net.InetSocketAddress;
+import java.net.SocketException;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Relay over UDP datagrams to a fixed list of peers.
+ *
+ * Meant as a stand-in backplane for running several nodes on one machine or
+ * in tests: no broker to install, but no delivery guarantee either, so it is
+ * not for production traffic.
+ *
+ * The socket binds to a configured address (loopback by default) and every
+ * datagram starts with an HMAC-SHA256 of the frame under a secret shared by
+ * all nodes; datagrams without a valid MAC are dropped.
+ */
+@Slf4j
+public class UdpPeerRelay implements ClusterRelay {
+
+    private static final int MAX_DATAGRAM = 65_507;
+    private static final String MAC_ALGORITHM = "HmacSHA256";
+    private static final int MAC_BYTES = 32;
+
+    private final InetSocketAddress bindAddress;
+    private final List<InetSocketAddress> peers = new ArrayList<>();
+    // Mac is not thread-safe: one for the sender thread, one for the receiver
+    private final Mac sendMac;
+    private final Mac receiveMac;
+    private DatagramSocket socket;
+    private Thread receiverThread;
+
+    public UdpPeerRelay(String bindAddress, int port, String peers, String secret) {
+        if (secret == null || secret.isBlank()) {
+            throw new IllegalStateException(
+                    "websocket.relay.secret is not set; set WS_RELAY_SECRET to a random secret shared by all nodes");
+        }
+        this.bindAddress = new InetSocketAddress(bindAddress, port);
+        this.sendMac = newMac(secret);
+        this.receiveMac = newMac(secret);
+        Arrays.stream(peers.split(","))
+                .map(String::trim)
+                .filter(peer -> !peer.isEmpty())
+                .forEach(peer -> {
+                    int colon = peer.lastIndexOf(':');
+                    this.peers.add(new InetSocketAddress(peer.substring(0, colon),
+                            Integer.parseInt(peer.substring(colon + 1))));
+                });
+    }
+
+    @Override
+    public void start(Consumer<byte[]> receiver) {
+        try {
+            socket = new DatagramSocket(bindAddress);
+        } catch (SocketException e) {
+            throw new IllegalStateException("Cannot bind relay UDP socket to " + bindAddress, e);
+        }
+        receiverThread = new Thread(() -> receive(receiver), "ws-relay-udp");
+        receiverThread.setDaemon(true);
+        receiverThread.start();
+        log.info("UDP relay listening on {} with peers {}", socket.getLocalSocketAddress(), peers);
+    }
+
+    @Override
+    public synchronized boolean send(byte[] frame) {
+        if (frame.length > maxFrameBytes()) {
+            return false;
+        }
+        byte[] datagram = Arrays.copyOf(sendMac.doFinal(frame), MAC_BYTES + frame.length);
+        System.arraycopy(frame, 0, datagram, MAC_BYTES, frame.length);
+        boolean sent = true;
+        for (InetSocketAddress peer : peers) {
+            try {
+                socket.send(new DatagramPacket(datagram, datagram.length, peer));
+            } catch (IOException e) {
+                log.debug("Relay send to {} failed: {}", peer, e.getMessage());
+                sent = false;
+            }
+        }
+        return sent;
+    }
+
+    @Override
+    public void stop() {
+        if (socket != null) {
+            socket.close();
+        }
+    }
+
+    @Override
+    public int maxFrameBytes() {
+        return MAX_DATAGRAM - MAC_BYTES;
+    }
+
+    private void receive(Consumer<byte[]> receiver) {
+        byte[] buffer = new byte[MAX_DATAGRAM];
+        while (!socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                socket.receive(packet);
+                if (packet.getLength() < MAC_BYTES) {
+                    log.debug("Dropping short relay datagram from {}", packet.getSocketAddress());
+                    continue;
+                }
+                byte[] frame = Arrays.copyOfRange(packet.getData(), MAC_BYTES, packet.getLength());
+                byte[] mac = Arrays.copyOf(packet.getData(), MAC_BYTES);
+                if (!MessageDigest.isEqual(mac, receiveMac.doFinal(frame))) {
+                    log.debug("Dropping relay datagram with a bad MAC from {}", packet.getSocketAddress());
+                    continue;
+                }
+                receiver.accept(frame);
+            } catch (IOException e) {
+                if (!socket.isClosed()) {
+                    log.warn("Relay receive failed: {}", e.getMessage());
+                }
+            } catch (RuntimeException e) {
+                log.error("Relay frame could not be handled: {}", e.getMessage());
+            }
+        }
+    }
+
+    private static Mac newMac(String secret) {
+        try {
+            Mac mac = Mac.getInstance(MAC_ALGORITHM);
+            mac.init(new SecretKeySpec(secret.getBytes(StandardCharsets.UTF_8), MAC_ALGORITHM));
+            return mac;
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot initialise relay " + MAC_ALGORITHM, e);
+        }
+    }
+}
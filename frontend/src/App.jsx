@@ -17,6 +17,7 @@ import Profile from './pages/Profile';
 import Rooms from './pages/Rooms';
 import RoomLobby from './pages/RoomLobby';
 import RoomProblem from './pages/RoomProblem';
+import SpectateRoom from './pages/SpectateRoom';
 import AdminDashboard from './pages/AdminDashboard';
 import Discuss from './pages/Discuss';
 
@@ -193,6 +194,14 @@ function AppContent() {
                             </ProtectedRoute>
                         }
                     />
+                    <Route
+                        path="/rooms/:roomId/spectate"
+                        element={
+                            <ProtectedRoute>
+                                <SpectateRoom />
+                            </ProtectedRoute>
+                        }
+                    />
 
                     {/* Admin Route */}
                     <Route
@@ -2,7 +2,7 @@ import { useEffect } from 'react';
 import Editor from '@monaco-editor/react';
 import { useTheme } from '../context/ThemeContext';
 
-const CodeEditor = ({ code, onChange, language, onCursorChange }) => {
+const CodeEditor = ({ code, onChange, language, onCursorChange, readOnly = false }) => {
     const { theme } = useTheme();
     const monacoTheme = theme === 'dark' ? 'vs-dark' : 'light';
     const editorOptions = {
@@ -13,7 +13,7 @@ const CodeEditor = ({ code, onChange, language, onCursorChange }) => {
         roundedSelection: false,
         scrollBeyondLastLine: false,
         automaticLayout: true,
-        readOnly: false,
+        readOnly,
         // Force color scheme
         'semanticHighlighting.enabled': true,
     };
@@ -1,6 +1,7 @@
 import { useState, useEffect, useRef } from 'react';
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
+import { stompConnectHeaders } from '../services/stompAuth';
 import { useSelector } from 'react-redux';
 
 const BACKEND_URL = import.meta.env.VITE_BACKEND_URL || 'http://localhost:8080';
@@ -28,8 +29,30 @@ const DiscussPanel = ({ roomId }) => {
         console.log('Attempting to connect to WebSocket for room:', roomId);
         setConnectionError('');
 
+        const mergeMessages = (chatMessages, history = false) => {
+            setMessages((prev) => {
+                const next = [...prev];
+                for (const chatMessage of chatMessages) {
+                    // Avoid duplicates if we optimistically added it
+                    const isDuplicate = next.some(m =>
+                        m.senderName === chatMessage.senderName &&
+                        m.content === chatMessage.content &&
+                        Math.abs(new Date(m.timestamp) - new Date(chatMessage.timestamp)) < 1000
+                    );
+                    if (!isDuplicate) next.push(chatMessage);
+                }
+                if (history) {
+                    next.sort((a, b) => new Date(a.timestamp) - new Date(b.timestamp));
+                }
+                return next.length === prev.length ? prev : next;
+            });
+        };
+
         const client = new Client({
             webSocketFactory: () => new SockJS(`${BACKEND_URL}/ws`),
+            beforeConnect: async () => {
+                client.connectHeaders = await stompConnectHeaders();
+            },
             reconnectDelay: 5000,
             heartbeatIncoming: 4000,
             heartbeatOutgoing: 4000,
@@ -41,18 +64,14 @@ const DiscussPanel = ({ roomId }) => {
                 // Subscribe to room messages
                 client.subscribe(`/topic/room/${roomId}`, (message) => {
                     console.log('Received message:', message.body);
-                    const chatMessage = JSON.parse(message.body);
-
-                    setMessages((prev) => {
-                        // Avoid duplicates if we optimistically added it
-                        const isDuplicate = prev.some(m =>
-                            m.senderName === chatMessage.senderName &&
-                            m.content === chatMessage.content &&
-                            Math.abs(new Date(m.timestamp) - new Date(chatMessage.timestamp)) < 1000
-                        );
-                        if (isDuplicate) return prev;
-                        return [...prev, chatMessage];
-                    });
+                    const body = JSON.parse(message.body);
+                    // Rooms with coalescing on send one array of messages per tick
+                    mergeMessages(message.headers.coalesced ? body : [body]);
+                });
+
+                // Recent history, replayed once per (re)connect
+                client.subscribe(`/app/chat.history/${roomId}`, (message) => {
+                    mergeMessages(JSON.parse(message.body), true);
                 });
             },
             onDisconnect: () => {
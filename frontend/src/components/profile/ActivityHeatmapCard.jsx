@@ -1,6 +1,6 @@
 import { useMemo, useState } from 'react';
 
-const ActivityHeatmapCard = ({ submissions = [] }) => {
+const ActivityHeatmapCard = ({ activity = [] }) => {
     const [hoveredDay, setHoveredDay] = useState(null);
 
     // Generate last 365 days of activity data
@@ -8,12 +8,10 @@ const ActivityHeatmapCard = ({ submissions = [] }) => {
         const today = new Date();
         const days = [];
 
-        // Create a map of submission counts by date
+        // Daily submission counts, already aggregated by the backend
         const submissionMap = {};
-        submissions.forEach(s => {
-            const date = new Date(s.submittedAt || s.createdAt);
-            const dateStr = date.toISOString().split('T')[0];
-            submissionMap[dateStr] = (submissionMap[dateStr] || 0) + 1;
+        (activity || []).forEach(d => {
+            submissionMap[d.date] = d.submissions;
         });
 
         // Generate last 365 days
@@ -35,7 +33,7 @@ const ActivityHeatmapCard = ({ submissions = [] }) => {
         }
 
         return days;
-    }, [submissions]);
+    }, [activity]);
 
     // Group days into weeks
     const weeks = useMemo(() => {
@@ -1,6 +1,6 @@
 import { useEffect, useState } from 'react';
 
-const DifficultyBreakdownCard = ({ submissions = [], problems = [] }) => {
+const DifficultyBreakdownCard = ({ stats: userStats }) => {
     const [animated, setAnimated] = useState(false);
 
     useEffect(() => {
@@ -8,74 +8,17 @@ const DifficultyBreakdownCard = ({ submissions = [], problems = [] }) => {
         return () => clearTimeout(timer);
     }, []);
 
-    // Calculate stats from actual problems and submissions data
-    const calculateDifficultyStats = () => {
-        // Count total problems by difficulty
-        const totalByDifficulty = {
-            cakewalk: 0,
-            easy: 0,
-            medium: 0,
-            hard: 0
-        };
+    const countsFor = (key) => ({
+        solved: userStats?.solvedByDifficulty?.[key] || 0,
+        total: userStats?.totalByDifficulty?.[key] || 0
+    });
 
-        // Map problem IDs to their difficulties (convert to string for consistent comparison)
-        const problemDifficultyMap = {};
-        problems.forEach(problem => {
-            const difficulty = (problem.difficulty || '').toLowerCase();
-            const problemId = String(problem.id); // Convert to string for consistent comparison
-            problemDifficultyMap[problemId] = difficulty;
-
-            if (difficulty === 'cakewalk') totalByDifficulty.cakewalk++;
-            else if (difficulty === 'easy') totalByDifficulty.easy++;
-            else if (difficulty === 'medium') totalByDifficulty.medium++;
-            else if (difficulty === 'hard') totalByDifficulty.hard++;
-        });
-
-        console.log('DifficultyBreakdown - Problem map:', problemDifficultyMap);
-        console.log('DifficultyBreakdown - Total by difficulty:', totalByDifficulty);
-
-        // Get unique accepted problem IDs and their difficulties
-        const acceptedProblemIds = new Set();
-        submissions.forEach(s => {
-            if (s.status === 'Accepted' || s.status === 'ACCEPTED') {
-                const problemId = String(s.problemId || s.problem_id); // Convert to string
-                if (problemId && problemId !== 'undefined') {
-                    acceptedProblemIds.add(problemId);
-                }
-            }
-        });
-
-        console.log('DifficultyBreakdown - Accepted problem IDs:', [...acceptedProblemIds]);
-        console.log('DifficultyBreakdown - Submissions sample:', submissions.slice(0, 3));
-
-        // Count solved problems by difficulty
-        const solvedByDifficulty = {
-            cakewalk: 0,
-            easy: 0,
-            medium: 0,
-            hard: 0
-        };
-
-        acceptedProblemIds.forEach(problemId => {
-            const difficulty = problemDifficultyMap[problemId];
-            console.log(`DifficultyBreakdown - Problem ${problemId} has difficulty: ${difficulty}`);
-            if (difficulty === 'cakewalk') solvedByDifficulty.cakewalk++;
-            else if (difficulty === 'easy') solvedByDifficulty.easy++;
-            else if (difficulty === 'medium') solvedByDifficulty.medium++;
-            else if (difficulty === 'hard') solvedByDifficulty.hard++;
-        });
-
-        console.log('DifficultyBreakdown - Solved by difficulty:', solvedByDifficulty);
-
-        return {
-            cakewalk: { solved: solvedByDifficulty.cakewalk, total: totalByDifficulty.cakewalk },
-            easy: { solved: solvedByDifficulty.easy, total: totalByDifficulty.easy },
-            medium: { solved: solvedByDifficulty.medium, total: totalByDifficulty.medium },
-            hard: { solved: solvedByDifficulty.hard, total: totalByDifficulty.hard }
-        };
+    const stats = {
+        cakewalk: countsFor('cakewalk'),
+        easy: countsFor('easy'),
+        medium: countsFor('medium'),
+        hard: countsFor('hard')
     };
-
-    const stats = calculateDifficultyStats();
     const totalSolved = stats.cakewalk.solved + stats.easy.solved + stats.medium.solved + stats.hard.solved;
     const totalProblems = stats.cakewalk.total + stats.easy.total + stats.medium.total + stats.hard.total;
 
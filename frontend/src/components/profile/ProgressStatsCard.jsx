@@ -1,92 +1,15 @@
 import { useEffect, useState } from 'react';
 
-const ProgressStatsCard = ({ submissions = [], problems = [] }) => {
+const ProgressStatsCard = ({ stats }) => {
     const [animatedSolved, setAnimatedSolved] = useState(0);
     const [animatedRate, setAnimatedRate] = useState(0);
 
-    console.log('ProgressStatsCard - Submissions received:', submissions.length);
-    console.log('ProgressStatsCard - Problems received:', problems.length);
-    console.log('ProgressStatsCard - Sample submission:', submissions[0]);
-
-    // Calculate stats from actual data
-    const totalSubmissions = submissions.length;
-    const acceptedSubmissions = submissions.filter(s => s.status === 'Accepted' || s.status === 'ACCEPTED').length;
-    const acceptanceRate = totalSubmissions > 0 ? Math.round((acceptedSubmissions / totalSubmissions) * 100) : 0;
-
-    // Get unique accepted problem IDs for accurate solved count
-    const acceptedProblemIds = new Set();
-    submissions.forEach(s => {
-        if (s.status === 'Accepted' || s.status === 'ACCEPTED') {
-            const problemId = s.problemId || s.problem_id;
-            console.log('ProgressStatsCard - Accepted submission problemId:', problemId);
-            if (problemId) {
-                acceptedProblemIds.add(String(problemId));
-            }
-        }
-    });
-    const problemsSolved = acceptedProblemIds.size;
-    const totalProblemsCount = problems.length;
-
-    console.log('ProgressStatsCard - Accepted problem IDs:', [...acceptedProblemIds]);
-    console.log('ProgressStatsCard - Problems solved:', problemsSolved);
-
-    // Calculate streak
-    const calculateStreak = () => {
-        if (submissions.length === 0) return { current: 0, max: 0 };
-
-        const sortedSubmissions = [...submissions]
-            .filter(s => s.status === 'Accepted' || s.status === 'ACCEPTED')
-            .sort((a, b) => new Date(b.submittedAt || b.createdAt) - new Date(a.submittedAt || a.createdAt));
-
-        if (sortedSubmissions.length === 0) return { current: 0, max: 0 };
-
-        const dates = [...new Set(sortedSubmissions.map(s => {
-            const d = new Date(s.submittedAt || s.createdAt);
-            return `${d.getFullYear()}-${d.getMonth()}-${d.getDate()}`;
-        }))];
-
-        let currentStreak = 0;
-        let maxStreak = 0;
-        let tempStreak = 1;
-
-        const today = new Date();
-        const todayStr = `${today.getFullYear()}-${today.getMonth()}-${today.getDate()}`;
-        const yesterday = new Date(today);
-        yesterday.setDate(yesterday.getDate() - 1);
-        const yesterdayStr = `${yesterday.getFullYear()}-${yesterday.getMonth()}-${yesterday.getDate()}`;
-
-        if (dates[0] === todayStr || dates[0] === yesterdayStr) {
-            currentStreak = 1;
-            for (let i = 1; i < dates.length; i++) {
-                const curr = new Date(dates[i - 1].split('-').join('/'));
-                const prev = new Date(dates[i].split('-').join('/'));
-                const diff = (curr - prev) / (1000 * 60 * 60 * 24);
-                if (diff === 1) {
-                    currentStreak++;
-                } else {
-                    break;
-                }
-            }
-        }
-
-        for (let i = 1; i < dates.length; i++) {
-            const curr = new Date(dates[i - 1].split('-').join('/'));
-            const prev = new Date(dates[i].split('-').join('/'));
-            const diff = (curr - prev) / (1000 * 60 * 60 * 24);
-            if (diff === 1) {
-                tempStreak++;
-                maxStreak = Math.max(maxStreak, tempStreak);
-            } else {
-                tempStreak = 1;
-            }
-        }
-
-        maxStreak = Math.max(maxStreak, currentStreak, 1);
-
-        return { current: currentStreak, max: maxStreak };
-    };
-
-    const streak = calculateStreak();
+    // Counters are maintained by the backend as verdicts land
+    const totalSubmissions = stats?.totalSubmissions || 0;
+    const acceptanceRate = Math.round(stats?.acceptanceRate || 0);
+    const problemsSolved = stats?.problemsSolved || 0;
+    const totalProblemsCount = Object.values(stats?.totalByDifficulty || {}).reduce((acc, n) => acc + n, 0);
+    const streak = { current: stats?.currentStreak || 0, max: stats?.maxStreak || 0 };
 
     // Animate numbers on mount and when data changes
     useEffect(() => {
@@ -125,7 +48,7 @@ const ProgressStatsCard = ({ submissions = [], problems = [] }) => {
             clearInterval(solvedInterval);
             clearInterval(rateInterval);
         };
-    }, [problemsSolved, acceptanceRate, submissions.length]);
+    }, [problemsSolved, acceptanceRate, totalSubmissions]);
 
     // SVG circle properties
     const radius = 45;
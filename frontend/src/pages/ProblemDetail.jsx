@@ -4,12 +4,18 @@ import { useDispatch, useSelector } from 'react-redux';
 import { Client } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
 import { getProblem, getSampleTestCases } from '../services/problemService';
+import { stompConnectHeaders } from '../services/stompAuth';
+import { diffSplice } from '../services/editorMirror';
 import { getUserSolvedProblemIds, getUserSubmissions } from '../services/submissionService';
 import { submitCodeThunk, runCodeThunk } from '../store/submissionSlice';
 import CodeEditor from '../components/CodeEditor';
 import DiscussPanel from '../components/DiscussPanel';
 
 // Default code templates for each language
+// Spectator mirror: edits go out at most this often, with a full checkpoint now and then
+const MIRROR_THROTTLE_MS = 150;
+const MIRROR_CHECKPOINT_MS = 15000;
+
 const CODE_TEMPLATES = {
     javascript: `// JavaScript Solution
 // Write your code here
@@ -47,25 +53,44 @@ const ProblemDetail = ({ problemIdProp, roomId, roomData }) => {
     // Timer Logic
     const [elapsedTime, setElapsedTime] = useState('00:00:00');
 
+    // Room STOMP client, also used to mirror the editor to spectators
+    const stompRef = useRef(null);
+    const mirrorRef = useRef({ rev: 0, sent: null, timer: null, checkpointAt: 0 });
+    const [mirrorEpoch, setMirrorEpoch] = useState(0);
+
     // WebSocket for Room Status
     useEffect(() => {
         if (!roomData || roomData.status === 'COMPLETED' || !roomId) return;
 
         const client = new Client({
             webSocketFactory: () => new SockJS(`${import.meta.env.VITE_BACKEND_URL || 'http://localhost:8080'}/ws`),
+            // Keeps the player present in the room while the arena is open
+            beforeConnect: async () => {
+                client.connectHeaders = await stompConnectHeaders();
+            },
             onConnect: () => {
+                stompRef.current = client;
+                // Fresh session: the next mirror update is a full checkpoint
+                mirrorRef.current.sent = null;
+                setMirrorEpoch((epoch) => epoch + 1);
                 client.subscribe(`/topic/room/${roomId}/status`, (message) => {
                     const update = JSON.parse(message.body);
                     if (update.status === 'COMPLETED') {
                         alert(`Room Ended! Winner: ${update.winnerId}`);
                     }
+                    if (update.status === 'EXPIRED') {
+                        alert(`Room Expired: ${update.reason}`);
+                    }
                 });
             },
             debug: () => { }
         });
 
         client.activate();
-        return () => { client.deactivate(); };
+        return () => {
+            stompRef.current = null;
+            client.deactivate();
+        };
     }, [roomId, roomData?.status]);
 
     useEffect(() => {
@@ -178,6 +203,37 @@ const ProblemDetail = ({ problemIdProp, roomId, roomData }) => {
     // Update code template when language changes
     useEffect(() => { setCode(CODE_TEMPLATES[language]); }, [language]);
 
+    // Mirror the editor to spectators of a running public match
+    const mirrorEnabled = !!roomId && roomData?.status === 'active' && !roomData?.isPrivate;
+    const codeRef = useRef(code);
+    codeRef.current = code;
+
+    const publishEdit = useCallback(() => {
+        const mirror = mirrorRef.current;
+        mirror.timer = null;
+        const client = stompRef.current;
+        if (!client?.connected) return;
+        const text = codeRef.current;
+        let body;
+        if (mirror.sent === null || Date.now() - mirror.checkpointAt > MIRROR_CHECKPOINT_MS) {
+            body = { rev: ++mirror.rev, text };
+            mirror.checkpointAt = Date.now();
+        } else if (text !== mirror.sent) {
+            body = { rev: ++mirror.rev, ...diffSplice(mirror.sent, text) };
+        } else {
+            return;
+        }
+        mirror.sent = text;
+        client.publish({ destination: `/app/spectate.edit/${roomId}`, body: JSON.stringify(body) });
+    }, [roomId]);
+
+    useEffect(() => {
+        if (!mirrorEnabled || mirrorRef.current.timer) return;
+        mirrorRef.current.timer = setTimeout(publishEdit, MIRROR_THROTTLE_MS);
+    }, [code, mirrorEpoch, mirrorEnabled, publishEdit]);
+
+    useEffect(() => () => clearTimeout(mirrorRef.current.timer), []);
+
     // Check if user solved this problem
     useEffect(() => {
         const checkIfSolved = async () => {
@@ -273,7 +329,7 @@ const ProblemDetail = ({ problemIdProp, roomId, roomData }) => {
             setIsBottomCollapsed(false);
             setBottomPanelHeight(prevBottomHeight);
         }
-        dispatch(submitCodeThunk({ problemId: parseInt(id), code, language, isSubmit: true, testCasesUrl: problem?.testCasesUrl }));
+        dispatch(submitCodeThunk({ problemId: parseInt(id), code, language, isSubmit: true, testCasesUrl: problem?.testCasesUrl, roomId }));
     };
 
     const handleRun = () => {
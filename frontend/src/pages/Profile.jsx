@@ -4,13 +4,14 @@ import { useNavigate } from 'react-router-dom';
 import { supabase } from '../services/supabaseClient';
 import * as userService from '../services/userService';
 import { getUserSubmissions } from '../services/submissionService';
-import { getProblems } from '../services/problemService';
 import { logout } from '../store/authSlice';
 import ActivityHeatmapCard from '../components/profile/ActivityHeatmapCard';
 import RecentActivityCard from '../components/profile/RecentActivityCard';
 import ProgressStatsCard from '../components/profile/ProgressStatsCard';
 import DifficultyBreakdownCard from '../components/profile/DifficultyBreakdownCard';
 
+const RECENT_SUBMISSIONS = 10;
+
 const Profile = () => {
     const { user, isAuthenticated } = useSelector((state) => state.auth);
     const dispatch = useDispatch();
@@ -21,7 +22,7 @@ const Profile = () => {
     const [loading, setLoading] = useState(true);
     const [saving, setSaving] = useState(false);
     const [submissions, setSubmissions] = useState([]);
-    const [problems, setProblems] = useState([]);
+    const [stats, setStats] = useState(null);
     const [profileData, setProfileData] = useState({
         name: '',
         bio: '',
@@ -42,8 +43,8 @@ const Profile = () => {
             return;
         }
         fetchProfileData();
+        fetchStats();
         fetchSubmissions();
-        fetchProblemsList();
     }, [isAuthenticated, user, navigate]);
 
     const fetchProfileData = async () => {
@@ -69,22 +70,24 @@ const Profile = () => {
         }
     };
 
-    const fetchSubmissions = async () => {
+    const fetchStats = async () => {
         if (!user?.id) return;
         try {
-            const response = await getUserSubmissions(user.id);
-            setSubmissions(response.data || []);
+            const response = await userService.getUserStats(user.id);
+            setStats(response.data);
         } catch (error) {
-            console.error('Failed to fetch submissions:', error);
+            console.error('Failed to fetch stats:', error);
         }
     };
 
-    const fetchProblemsList = async () => {
+    // Only the recent activity list needs raw submissions
+    const fetchSubmissions = async () => {
+        if (!user?.id) return;
         try {
-            const response = await getProblems();
-            setProblems(response.data || []);
+            const response = await getUserSubmissions(user.id, RECENT_SUBMISSIONS);
+            setSubmissions(response.data || []);
         } catch (error) {
-            console.error('Failed to fetch problems:', error);
+            console.error('Failed to fetch submissions:', error);
         }
     };
 
@@ -393,13 +396,13 @@ const Profile = () => {
 
                 {/* Stats Grid */}
                 <div className="grid grid-cols-1 lg:grid-cols-2 gap-6 mb-8">
-                    <ProgressStatsCard submissions={submissions} />
-                    <DifficultyBreakdownCard submissions={submissions} problems={problems} />
+                    <ProgressStatsCard stats={stats} />
+                    <DifficultyBreakdownCard stats={stats} />
                 </div>
 
                 {/* Activity & Recent */}
                 <div className="grid grid-cols-1 gap-6">
-                    <ActivityHeatmapCard submissions={submissions} />
+                    <ActivityHeatmapCard activity={stats?.activity} />
                     <RecentActivityCard submissions={submissions} />
                 </div>
             </div>
@@ -1,8 +1,13 @@
-import { useState, useEffect } from 'react';
+import { useState, useEffect, useRef } from 'react';
 import { useParams, useNavigate } from 'react-router-dom';
-import { getRoomDetails, leaveRoom, updateReadyStatus, startRoom, subscribeToRoom } from '../services/roomService';
+import { Client } from '@stomp/stompjs';
+import SockJS from 'sockjs-client';
+import { stompConnectHeaders } from '../services/stompAuth';
+import { getRoomDetails, getRoomEvents, leaveRoom, updateReadyStatus, startRoom } from '../services/roomService';
 import { useSelector } from 'react-redux';
 
+const BACKEND_URL = import.meta.env.VITE_BACKEND_URL || 'http://localhost:8080';
+
 const RoomLobby = () => {
     const { roomId } = useParams();
     const navigate = useNavigate();
@@ -13,27 +18,105 @@ const RoomLobby = () => {
     const [loading, setLoading] = useState(true);
     const [isReady, setIsReady] = useState(false);
     const [starting, setStarting] = useState(false);
+    // Version of the last lobby event applied to room / participants
+    const versionRef = useRef(0);
 
     useEffect(() => {
         fetchRoomDetails();
 
-        // Subscribe to real-time updates (Supabase)
-        const channel = subscribeToRoom(roomId, () => {
-            fetchRoomDetails();
+        // Lobby events replace polling; a version gap is filled from the events endpoint
+        const client = new Client({
+            webSocketFactory: () => new SockJS(`${BACKEND_URL}/ws`),
+            // Presence: a user with no open connection to the room leaves it after a grace period
+            beforeConnect: async () => {
+                client.connectHeaders = await stompConnectHeaders();
+            },
+            reconnectDelay: 5000,
+            onConnect: () => {
+                client.subscribe(`/topic/room/${roomId}/events`, (message) => {
+                    // Rooms with coalescing on send one array of events per tick
+                    const body = JSON.parse(message.body);
+                    const events = message.headers.coalesced ? body : [body];
+                    for (const event of events) {
+                        if (event.version <= versionRef.current) continue;
+                        if (event.version > versionRef.current + 1) {
+                            catchUp();
+                            return;
+                        }
+                        applyEvent(event);
+                    }
+                });
+                // Catch up on anything missed while connecting
+                catchUp();
+            },
         });
-
-        // POLLING: Fetch updates every 3 seconds to sync with backend (H2)
-        // This is necessary because Supabase Realtime doesn't see H2 updates
-        const pollInterval = setInterval(() => {
-            fetchRoomDetails();
-        }, 3000);
+        client.activate();
 
         return () => {
-            channel.unsubscribe();
-            clearInterval(pollInterval);
+            client.deactivate();
         };
     }, [roomId]);
 
+    const catchUp = async () => {
+        try {
+            const result = await getRoomEvents(roomId, versionRef.current);
+            if (result.room) {
+                // Missed events are gone, reload the snapshot
+                await fetchRoomDetails();
+                return;
+            }
+            result.events.forEach((event) => {
+                if (event.version === versionRef.current + 1) applyEvent(event);
+            });
+        } catch (error) {
+            console.error('Failed to catch up on room events:', error);
+        }
+    };
+
+    const applyEvent = (event) => {
+        versionRef.current = event.version;
+        switch (event.type) {
+            case 'PARTICIPANT_JOINED':
+                setParticipants((prev) => [
+                    ...prev.filter((p) => p.user_id !== event.userId),
+                    {
+                        userId: event.userId,
+                        username: event.username,
+                        isReady: event.ready,
+                        joinedAt: event.at,
+                        user_id: event.userId,
+                        is_ready: event.ready,
+                        joined_at: event.at
+                    }
+                ]);
+                break;
+            case 'PARTICIPANT_LEFT':
+                setParticipants((prev) => prev.filter((p) => p.user_id !== event.userId));
+                break;
+            case 'READY_CHANGED':
+                setParticipants((prev) => prev.map((p) => (p.user_id === event.userId
+                    ? { ...p, isReady: event.ready, is_ready: event.ready }
+                    : p)));
+                if (event.userId === user?.id) setIsReady(event.ready);
+                break;
+            case 'PROBLEM_ASSIGNED':
+                setRoom((prev) => ({ ...prev, problemId: event.problemId, problem_id: event.problemId }));
+                break;
+            case 'ROOM_STARTED':
+                setRoom((prev) => ({ ...prev, status: 'active', startedAt: event.at, started_at: event.at }));
+                break;
+            case 'ROOM_COMPLETED':
+                setRoom((prev) => ({ ...prev, status: 'completed', winnerId: event.winnerId }));
+                break;
+            case 'ROOM_DELETED':
+            case 'ROOM_EXPIRED':
+                navigate('/rooms');
+                break;
+            default:
+                break;
+        }
+    };
+
     useEffect(() => {
         // Redirect to problem if room becomes active
         if (room?.status === 'active') {
@@ -45,6 +128,7 @@ const RoomLobby = () => {
         // ... existing code ...
         try {
             const response = await getRoomDetails(roomId);
+            versionRef.current = response.data.version || 0;
             setRoom(response.data);
             setParticipants(response.data.room_participants || []);
 
@@ -220,7 +304,7 @@ const RoomLobby = () => {
                     <div className="space-y-3">
                         {participants.map((participant) => (
                             <div
-                                key={participant.id}
+                                key={participant.user_id}
                                 className="bg-white/5 border border-white/5 rounded-xl p-4 flex items-center justify-between group hover:border-white/10 transition-all"
                             >
                                 <div className="flex items-center gap-4">
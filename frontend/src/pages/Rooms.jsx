@@ -1,15 +1,21 @@
-import { useState, useEffect } from 'react';
+import { useState, useEffect, useRef } from 'react';
+import { Client } from '@stomp/stompjs';
+import SockJS from 'sockjs-client';
 import { useNavigate } from 'react-router-dom';
 import { useSelector } from 'react-redux';
-import { getUserRooms, deleteRoom, randomJoinRoom, getPublicRooms, joinRoom } from '../services/roomService';
+import { getUserRooms, deleteRoom, randomJoinRoom, getPublicRooms, joinRoom, toPublicRoom } from '../services/roomService';
+import { stompConnectHeaders } from '../services/stompAuth';
 import CreateRoomModal from '../components/CreateRoomModal';
 import JoinRoomModal from '../components/JoinRoomModal';
 
+const BACKEND_URL = import.meta.env.VITE_BACKEND_URL || 'http://localhost:8080';
+
 const Rooms = () => {
     const navigate = useNavigate();
     const { isAuthenticated, user } = useSelector((state) => state.auth);
     const [rooms, setRooms] = useState([]);
     const [publicRooms, setPublicRooms] = useState([]);
+    const publicVersionRef = useRef(0);
     const [activeTab, setActiveTab] = useState('my');
     const [loading, setLoading] = useState(true);
     const [showCreateModal, setShowCreateModal] = useState(false);
@@ -33,6 +39,44 @@ const Rooms = () => {
         fetchData();
     }, [isAuthenticated, user, navigate]);
 
+    useEffect(() => {
+        if (!isAuthenticated) return;
+
+        // Keep the public list live from listing deltas instead of polling
+        const client = new Client({
+            webSocketFactory: () => new SockJS(`${BACKEND_URL}/ws`),
+            beforeConnect: async () => {
+                client.connectHeaders = await stompConnectHeaders();
+            },
+            reconnectDelay: 5000,
+            onConnect: () => {
+                client.subscribe('/topic/rooms/public', (message) => {
+                    const delta = JSON.parse(message.body);
+                    if (delta.version <= publicVersionRef.current) return;
+                    if (delta.version > publicVersionRef.current + 1) {
+                        // Missed a delta, reload the snapshot
+                        fetchPublicRooms();
+                        return;
+                    }
+                    publicVersionRef.current = delta.version;
+                    setPublicRooms((prev) => {
+                        const rest = prev.filter((r) => r.id !== delta.roomId);
+                        if (delta.type === 'REMOVE') return rest;
+                        return [toPublicRoom(delta.room), ...rest]
+                            .sort((a, b) => (a.createdAt < b.createdAt ? 1 : a.createdAt > b.createdAt ? -1 : 0));
+                    });
+                });
+                // Catch up on anything that changed while connecting
+                fetchPublicRooms();
+            },
+        });
+        client.activate();
+
+        return () => {
+            client.deactivate();
+        };
+    }, [isAuthenticated]);
+
     const getExpiryTime = (createdAt) => {
         if (!createdAt) return null;
 
@@ -72,6 +116,7 @@ const Rooms = () => {
     const fetchPublicRooms = async () => {
         try {
             const response = await getPublicRooms();
+            publicVersionRef.current = response.version || 0;
             setPublicRooms(response.data || []);
         } catch (error) {
             console.error('Failed to fetch public rooms:', error);
@@ -408,6 +453,14 @@ const Rooms = () => {
                                                         >
                                                             Open
                                                         </button>
+                                                    ) : room.status === 'active' ? (
+                                                        <button
+                                                            onClick={() => navigate(`/rooms/${room.id}/spectate`)}
+                                                            className="px-3 py-1.5 rounded-lg text-xs font-medium transition-all"
+                                                            style={{ background: 'var(--bg-tertiary)', border: '1px solid var(--border-subtle)', color: 'var(--text-primary)' }}
+                                                        >
+                                                            Watch
+                                                        </button>
                                                     ) : (
                                                         <button
                                                             onClick={() => handleJoinPublicRoom(room.id)}
@@ -0,0 +1,101 @@
+import { useEffect, useRef, useState } from 'react';
+import { useParams, Link } from 'react-router-dom';
+import { Client } from '@stomp/stompjs';
+import SockJS from 'sockjs-client';
+import { getRoomDetails } from '../services/roomService';
+import { stompConnectHeaders } from '../services/stompAuth';
+import { applyFrames } from '../services/editorMirror';
+import CodeEditor from '../components/CodeEditor';
+
+const BACKEND_URL = import.meta.env.VITE_BACKEND_URL || 'http://localhost:8080';
+
+const SpectateRoom = () => {
+    const { roomId } = useParams();
+    const [room, setRoom] = useState(null);
+    const [editors, setEditors] = useState({});
+    const [connected, setConnected] = useState(false);
+
+    // Frames are applied one batch at a time; keyframes decode asynchronously
+    const editorsRef = useRef({});
+    const chainRef = useRef(Promise.resolve());
+
+    useEffect(() => {
+        getRoomDetails(roomId)
+            .then(({ data }) => setRoom(data))
+            .catch((error) => console.error('Failed to fetch room details:', error));
+    }, [roomId]);
+
+    useEffect(() => {
+        const enqueue = (frames) => {
+            chainRef.current = chainRef.current
+                .then(() => applyFrames(editorsRef.current, frames))
+                .then((next) => {
+                    editorsRef.current = next;
+                    setEditors(next);
+                })
+                .catch((error) => console.error('Failed to apply editor frames:', error));
+        };
+
+        const client = new Client({
+            webSocketFactory: () => new SockJS(`${BACKEND_URL}/ws`),
+            beforeConnect: async () => {
+                client.connectHeaders = await stompConnectHeaders();
+            },
+            reconnectDelay: 5000,
+            onConnect: () => {
+                setConnected(true);
+                // Live frames first, then the catch-up state; frames already covered are skipped
+                client.subscribe(`/topic/room/${roomId}/spectate`, (message) => {
+                    const body = JSON.parse(message.body);
+                    enqueue(message.headers.coalesced ? body : [body]);
+                });
+                client.subscribe(`/app/spectate.state/${roomId}`, (message) => {
+                    enqueue(JSON.parse(message.body));
+                });
+            },
+            onWebSocketClose: () => setConnected(false),
+            debug: () => { }
+        });
+
+        client.activate();
+        return () => { client.deactivate(); };
+    }, [roomId]);
+
+    const players = Object.entries(editors);
+
+    return (
+        <div className="min-h-screen p-6" style={{ background: 'var(--bg-primary)' }}>
+            <div className="flex items-center justify-between mb-4">
+                <div>
+                    <h1 className="text-lg font-semibold" style={{ color: 'var(--text-primary)' }}>
+                        Watching {room?.problems?.title || `room ${roomId}`}
+                    </h1>
+                    <p className="text-xs" style={{ color: 'var(--text-tertiary)' }}>
+                        {connected ? 'Live' : 'Connecting...'} · {players.length} editor{players.length === 1 ? '' : 's'}
+                    </p>
+                </div>
+                <Link to="/rooms" className="text-sm" style={{ color: 'var(--text-secondary)' }}>Back to rooms</Link>
+            </div>
+
+            {players.length === 0 ? (
+                <div className="text-center py-12 rounded-xl" style={{ background: 'var(--bg-secondary)', border: '1px solid var(--border-subtle)' }}>
+                    <p className="text-sm" style={{ color: 'var(--text-tertiary)' }}>Nobody has typed yet.</p>
+                </div>
+            ) : (
+                <div className="grid grid-cols-1 lg:grid-cols-2 gap-4">
+                    {players.map(([userId, editor]) => (
+                        <div key={userId} className="flex flex-col h-[60vh]">
+                            <div className="flex items-center justify-between mb-2 text-sm" style={{ color: 'var(--text-secondary)' }}>
+                                <span>{editor.username}</span>
+                                {editor.stale && <span className="text-xs text-orange-400">Resyncing...</span>}
+                            </div>
+                            <CodeEditor code={editor.text} language="plaintext" readOnly />
+                        </div>
+                    ))}
+                </div>
+            )}
+        </div>
+    );
+};
+
+export default SpectateRoom;
@@ -0,0 +1,56 @@
+// Spectator mirror of participants' editors; see SpectatorService on the backend.
+//
+// Authors send splices { rev, at, del, ins } to /app/spectate.edit/{roomId},
+// plus a full-text checkpoint { rev, text } on connect and every so often.
+// Viewers get numbered DELTA frames and gzipped KEYFRAME frames on
+// /topic/room/{roomId}/spectate.
+
+// Smallest single splice turning prev into next
+export const diffSplice = (prev, next) => {
+    const max = Math.min(prev.length, next.length);
+    let prefix = 0;
+    while (prefix < max && prev.charCodeAt(prefix) === next.charCodeAt(prefix)) prefix++;
+    let suffix = 0;
+    while (suffix < max - prefix
+        && prev.charCodeAt(prev.length - 1 - suffix) === next.charCodeAt(next.length - 1 - suffix)) suffix++;
+    return {
+        at: prefix,
+        del: prev.length - prefix - suffix,
+        ins: next.slice(prefix, next.length - suffix),
+    };
+};
+
+const decodeKeyframe = async (data) => {
+    const bytes = Uint8Array.from(atob(data), (c) => c.charCodeAt(0));
+    const stream = new Blob([bytes]).stream().pipeThrough(new DecompressionStream('gzip'));
+    return new Response(stream).text();
+};
+
+// Apply frames to editors ({ [userId]: { username, seq, text, stale } }), returning the new map.
+// A delta that does not follow the editor's seq marks it stale until the next keyframe.
+export const applyFrames = async (editors, frames) => {
+    const next = { ...editors };
+    for (const frame of frames) {
+        const current = next[frame.userId];
+        if (frame.type === 'KEYFRAME') {
+            if (current && !current.stale && frame.seq < current.seq) continue;
+            next[frame.userId] = {
+                username: frame.username,
+                seq: frame.seq,
+                text: await decodeKeyframe(frame.data),
+                stale: false,
+            };
+        } else if (current && frame.seq <= current.seq) {
+            continue;
+        } else if (!current || current.stale || frame.seq !== current.seq + 1) {
+            next[frame.userId] = { ...(current || { username: frame.username, seq: 0, text: '' }), stale: true };
+        } else {
+            next[frame.userId] = {
+                ...current,
+                seq: frame.seq,
+                text: current.text.slice(0, frame.at) + frame.ins + current.text.slice(frame.at + frame.del),
+            };
+        }
+    }
+    return next;
+};
@@ -50,7 +50,8 @@ export const createRoom = async (roomData) => {
                 problemId: roomData.problemId || null,
                 problemSelectionMode: roomData.problemSelectionMode,
                 maxParticipants: roomData.maxParticipants,
-                isPrivate: roomData.isPrivate
+                isPrivate: roomData.isPrivate,
+                coalesceMs: roomData.coalesceMs
             })
         });
 
@@ -337,6 +338,15 @@ export const subscribeToRoom = (roomId, callback) => {
     return channel;
 };
 
+// Get lobby events missed since a version (or a full snapshot if they are gone)
+export const getRoomEvents = async (roomId, since) => {
+    const response = await fetch(`${API_BASE_URL}/api/rooms/${roomId}/events?since=${since}`);
+    if (!response.ok) {
+        throw new Error('Failed to fetch room events');
+    }
+    return response.json();
+};
+
 // Get user's active rooms
 export const getUserRooms = async (userId) => {
     console.log('getUserRooms: Function called with userId:', userId);
@@ -377,6 +387,17 @@ export const getUserRooms = async (userId) => {
 };
 
 // Get all public rooms
+// Map a public room from the API to the shape the room list renders
+export const toPublicRoom = (room) => ({
+    ...room,
+    created_by: room.createdBy,
+    problem_id: room.problemId,
+    max_participants: room.maxParticipants,
+    problem_selection_mode: room.problemSelectionMode,
+    is_private: room.isPrivate,
+    created_at: room.createdAt
+});
+
 export const getPublicRooms = async () => {
     console.log('getPublicRooms: Called');
 
@@ -392,18 +413,10 @@ export const getPublicRooms = async () => {
             const rooms = await response.json();
             console.log('getPublicRooms: Success', rooms);
 
-            // Transform to match expected format
-            const transformedRooms = rooms.map(room => ({
-                ...room,
-                created_by: room.createdBy,
-                problem_id: room.problemId,
-                max_participants: room.maxParticipants,
-                problem_selection_mode: room.problemSelectionMode,
-                is_private: room.isPrivate,
-                created_at: room.createdAt
-            }));
+            // ETag is the listing version; apply /topic/rooms/public deltas newer than it
+            const version = Number((response.headers.get('ETag') || '0').replace(/"/g, '')) || 0;
 
-            return { data: transformedRooms };
+            return { data: rooms.map(toPublicRoom), version };
         } else {
             const errorText = await response.text();
             console.error('getPublicRooms: Failed:', response.status, errorText);
@@ -0,0 +1,9 @@
+import { supabase } from './supabaseClient';
+
+// CONNECT headers for STOMP clients. The backend verifies the token once per
+// session and takes the user's identity from it (sessions without one are
+// refused), so it is read fresh on every (re)connect.
+export const stompConnectHeaders = async () => {
+    const { data: { session } } = await supabase.auth.getSession();
+    return session?.access_token ? { Authorization: `Bearer ${session.access_token}` } : {};
+};
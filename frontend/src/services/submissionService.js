@@ -323,7 +323,9 @@ export const submitCode = async (submissionData) => {
     const payload = {
         problemId: Number(submissionData.problemId),
         code: submissionData.code,
-        language: submissionData.language
+        language: submissionData.language,
+        // Room submissions feed the room scoreboard
+        roomId: submissionData.roomId || null
     };
 
     // 1. Queue the submission (returns immediately with PENDING status)
@@ -378,7 +380,7 @@ export const submitCode = async (submissionData) => {
     throw new Error('Submission timed out. Please try again.');
 };
 
-export const getUserSubmissions = async (userId) => {
+export const getUserSubmissions = async (userId, limit = null) => {
     console.log('getUserSubmissions: Starting fetch for userId:', userId);
 
     if (!userId) {
@@ -388,11 +390,15 @@ export const getUserSubmissions = async (userId) => {
 
     try {
         // Use authenticated Supabase client directly
-        const { data, error, status } = await supabase
+        let query = supabase
             .from('submissions')
             .select('*, problems(title, difficulty)')
             .eq('user_id', userId)
             .order('submitted_at', { ascending: false });
+        if (limit) {
+            query = query.limit(limit);
+        }
+        const { data, error, status } = await query;
 
         console.log('getUserSubmissions: Response status:', status);
 
@@ -197,6 +197,19 @@ export const deleteProfilePicture = async (avatarPath) => {
     if (error) throw error;
 };
 
+/**
+ * Profile analytics from the backend's per-user counters.
+ * Responses carry an ETag, so repeat visits revalidate instead of refetching.
+ */
+export const getUserStats = async (userId) => {
+    const headers = await getAuthHeaders();
+    const response = await fetchWithRetry(`${BACKEND_URL}/api/users/${userId}/stats`, { headers });
+    if (!response.ok) {
+        throw new Error(`Failed to fetch stats: ${response.status}`);
+    }
+    return { data: await response.json() };
+};
+
 export const getLeaderboard = async () => {
     const supabaseUrl = import.meta.env.VITE_SUPABASE_URL;
     const supabaseAnonKey = import.meta.env.VITE_SUPABASE_ANON_KEY;
@@ -0,0 +1,99 @@
+package com.codearena.loadtest;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Lock-free latency histogram in microseconds.
+ *
+ * Buckets are log-linear: each power of two is split into 16 equal steps, so
+ * any recorded value is off by at most 1/16 (about 6%) from its bucket's
+ * lower bound. Good enough for percentiles, and recording is one increment.
+ */
+public class LatencyHistogram {
+
+    private static final int SUB_BITS = 4;
+    private static final int SUB_BUCKETS = 1 << SUB_BITS;
+    private static final int MAGNITUDES = 40;
+
+    private final AtomicLongArray counts = new AtomicLongArray(MAGNITUDES * SUB_BUCKETS);
+    private final AtomicLong total = new AtomicLong();
+    private final AtomicLong max = new AtomicLong();
+
+    public void recordNanos(long nanos) {
+        record(Math.max(0, nanos / 1000));
+    }
+
+    public void record(long micros) {
+        counts.incrementAndGet(index(micros));
+        total.incrementAndGet();
+        max.accumulateAndGet(micros, Math::max);
+    }
+
+    public long count() {
+        return total.get();
+    }
+
+    public long maxMicros() {
+        return max.get();
+    }
+
+    /**
+     * Value at or below which the given fraction (0..1) of samples fall
+     */
+    public long percentileMicros(double fraction) {
+        long samples = total.get();
+        if (samples == 0) {
+            return 0;
+        }
+        long rank = (long) Math.ceil(fraction * samples);
+        long seen = 0;
+        for (int i = 0; i < counts.length(); i++) {
+            seen += counts.get(i);
+            if (seen >= rank) {
+                return Math.min(lowerBound(i), max.get());
+            }
+        }
+        return max.get();
+    }
+
+    /**
+     * "p50 1.2 ms  p90 ...  max ..." or "no samples"
+     */
+    public String summary() {
+        if (count() == 0) {
+            return "no samples";
+        }
+        return String.format("p50 %s  p90 %s  p99 %s  p99.9 %s  max %s  (n=%d)",
+                format(percentileMicros(0.50)), format(percentileMicros(0.90)), format(percentileMicros(0.99)),
+                format(percentileMicros(0.999)), format(maxMicros()), count());
+    }
+
+    private static int index(long micros) {
+        if (micros < SUB_BUCKETS) {
+            return (int) micros;
+        }
+        int magnitude = 63 - Long.numberOfLeadingZeros(micros) - SUB_BITS + 1;
+        int sub = (int) (micros >>> (magnitude - 1)) & (SUB_BUCKETS - 1);
+        return Math.min(magnitude * SUB_BUCKETS + sub, MAGNITUDES * SUB_BUCKETS - 1);
+    }
+
+    private static long lowerBound(int index) {
+        int magnitude = index / SUB_BUCKETS;
+        int sub = index % SUB_BUCKETS;
+        if (magnitude == 0) {
+            return sub;
+        }
+        return (long) (SUB_BUCKETS + sub) << (magnitude - 1);
+    }
+
+    private static String format(long micros) {
+        if (micros < 1000) {
+            return micros + " us";
+        }
+        if (micros < 1_000_000) {
+            return String.format("%.1f ms", micros / 1000.0);
+        }
+        return String.format("%.2f s", micros / 1_000_000.0);
+    }
+}
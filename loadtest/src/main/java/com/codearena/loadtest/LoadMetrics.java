@@ -0,0 +1,45 @@
+package com.codearena.loadtest;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters and latency histograms shared by all simulated clients.
+ */
+public class LoadMetrics {
+
+    final LatencyHistogram connectLatency = new LatencyHistogram();
+    final LatencyHistogram chatFanout = new LatencyHistogram();
+    final LatencyHistogram readyRequest = new LatencyHistogram();
+    final LatencyHistogram readyFanout = new LatencyHistogram();
+
+    final LongAdder connected = new LongAdder();
+    final LongAdder connectFailures = new LongAdder();
+    final LongAdder sessionsLost = new LongAdder();
+    final LongAdder errorFrames = new LongAdder();
+
+    final LongAdder chatSent = new LongAdder();
+    final LongAdder chatExpected = new LongAdder();
+    final LongAdder chatReceived = new LongAdder();
+
+    final LongAdder readySent = new LongAdder();
+    final LongAdder readyFailed = new LongAdder();
+    final LongAdder readyExpected = new LongAdder();
+    final LongAdder readyReceived = new LongAdder();
+
+    final LongAdder frames = new LongAdder();
+    final LongAdder frameBytes = new LongAdder();
+    final LongAdder cborFrames = new LongAdder();
+
+    final LongAdder httpFailures = new LongAdder();
+
+    /**
+     * Frames that should have reached a subscriber but did not (never negative)
+     */
+    static long dropped(LongAdder expected, LongAdder received) {
+        return Math.max(0, expected.sum() - received.sum());
+    }
+
+    static String percent(long part, long whole) {
+        return whole == 0 ? "0%" : String.format("%.2f%%", 100.0 * part / whole);
+    }
+}
@@ -0,0 +1,369 @@
+package com.codearena.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.databind.CBORMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.converter.SimpleMessageConverter;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Load generator for the STOMP broker of a running backend.
+ *
+ * Creates the rooms over REST, opens the sessions at a fixed connect rate
+ * (participants join their room first), then drives chat over STOMP and
+ * ready toggles over REST at fixed rates for the configured duration. Prints
+ * progress every few seconds and a report at the end: connect latency,
+ * chat and ready-event fan-out latency percentiles, how many frames owed
+ * to a subscriber never arrived, and the average frame payload size. Run once
+ * with --encoding=json and once with --encoding=cbor to compare the two; the
+ * CBOR run also prints the backend's per-payload JSON and CBOR encode times.
+ *
+ * Java 17 has no virtual threads, so sessions are not thread-per-client:
+ * the Tomcat WebSocket client does non-blocking I/O on a small shared pool,
+ * REST calls go through the async HttpClient, and pacing runs on one
+ * scheduler thread.
+ *
+ * Each session authenticates with its own token, signed with the backend's
+ * jwt.secret. Run against a backend with rate limiting off
+ * (RATE_LIMIT_ENABLED=false), otherwise the per-user chat limit shows up as
+ * dropped frames.
+ */
+@Slf4j
+public class LoadTest {
+
+    private static final long TICK_MS = 10;
+    private static final long PROGRESS_SECONDS = 5;
+    private static final int HTTP_CONCURRENCY = 64;
+    private static final long TOKEN_TTL_SECONDS = 24 * 3600;
+
+    private final LoadTestConfig config;
+    private final LoadMetrics metrics = new LoadMetrics();
+    private final ObjectMapper mapper = new ObjectMapper();
+    private final ObjectMapper cborMapper = new CBORMapper();
+    private final HttpClient http = HttpClient.newBuilder().connectTimeout(Duration.ofSeconds(10)).build();
+    private final Semaphore httpPermits = new Semaphore(HTTP_CONCURRENCY);
+    private final String runId = Long.toString(System.currentTimeMillis() % 1_000_000_000L, 36);
+    private final TokenSigner tokens;
+
+    private final List<SimRoom> rooms = new ArrayList<>();
+    private final List<SimulatedClient> clients = new ArrayList<>();
+
+    public LoadTest(LoadTestConfig config) {
+        this.config = config;
+        this.tokens = new TokenSigner(config.jwtSecret());
+    }
+
+    public static void main(String[] args) throws Exception {
+        LoadTestConfig config;
+        try {
+            config = LoadTestConfig.parse(args);
+        } catch (IllegalArgumentException e) {
+            System.err.println(e.getMessage());
+            System.err.print(LoadTestConfig.USAGE);
+            System.exit(2);
+            return;
+        }
+        try {
+            new LoadTest(config).run();
+        } catch (CompletionException e) {
+            // Backend unreachable or refusing the setup requests
+            System.err.println("Load test aborted: " + e.getCause());
+            System.exit(1);
+        }
+        System.exit(0);
+    }
+
+    public void run() throws Exception {
+        System.out.printf("Load test %s: %d sessions in %d rooms against %s%n",
+                runId, config.sessions(), config.rooms(), config.wsUrl());
+
+        ThreadPoolTaskScheduler heartbeats = new ThreadPoolTaskScheduler();
+        heartbeats.setPoolSize(2);
+        heartbeats.setThreadNamePrefix("stomp-heartbeat-");
+        heartbeats.setDaemon(true);
+        heartbeats.initialize();
+        WebSocketStompClient stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+        stompClient.setMessageConverter(new SimpleMessageConverter());
+        stompClient.setTaskScheduler(heartbeats);
+
+        ScheduledExecutorService scheduler = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "load-driver");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        try {
+            createRooms();
+            rampUp(stompClient);
+            drive(scheduler);
+            System.out.printf("Waiting %d s for in-flight frames%n", config.drainSeconds());
+            TimeUnit.SECONDS.sleep(config.drainSeconds());
+            report();
+            if (config.cbor()) {
+                reportEncoding();
+            }
+        } finally {
+            scheduler.shutdownNow();
+            clients.forEach(SimulatedClient::disconnect);
+            if (config.cleanup()) {
+                deleteRooms();
+            }
+            stompClient.stop();
+            heartbeats.shutdown();
+        }
+    }
+
+    private void createRooms() {
+        long start = System.nanoTime();
+        List<CompletableFuture<SimRoom>> created = new ArrayList<>();
+        for (int i = 0; i < config.rooms(); i++) {
+            String hostId = userId(i);
+            String body = json(Map.of(
+                    "problemSelectionMode", "single",
+                    "problemId", config.problemId(),
+                    "maxParticipants", config.roomSize(),
+                    "isPrivate", true));
+            created.add(request("POST", "/api/rooms?userId=" + hostId + "&username=" + encode(hostId), body)
+                    .thenApply(response -> new SimRoom(readJson(response).path("id").asText(), hostId)));
+        }
+        for (CompletableFuture<SimRoom> room : created) {
+            rooms.add(room.join());
+        }
+        System.out.printf("Created %d rooms in %d ms%n", rooms.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    // Session i is in room i % rooms; the first room-size sessions of a room are participants
+    private void rampUp(WebSocketStompClient stompClient) throws InterruptedException {
+        long start = System.nanoTime();
+        long interval = (long) (1_000_000_000L / config.connectRate());
+        long next = start;
+        List<CompletableFuture<StompSession>> sessions = new ArrayList<>();
+        for (int i = 0; i < config.sessions(); i++) {
+            SimRoom room = rooms.get(i % rooms.size());
+            int slot = i / rooms.size();
+            SimulatedClient client = new SimulatedClient(userId(i), room, slot < config.roomSize(), metrics, mapper,
+                    config.cbor() ? cborMapper : null);
+            clients.add(client);
+
+            CompletableFuture<Void> joined = slot == 0 || !client.participant
+                    ? CompletableFuture.completedFuture(null)
+                    : request("POST", "/api/rooms/" + room.id + "/join",
+                            json(Map.of("userId", client.userId, "username", client.userId)))
+                            .handle((response, error) -> {
+                                if (error != null) {
+                                    // Still connects, but only watches and chats
+                                    room.participants.remove(client);
+                                    log.warn("{} could not join room {}: {}", client.userId, room.id, error.getMessage());
+                                }
+                                return null;
+                            });
+            if (client.participant) {
+                room.participants.add(client);
+            }
+            sessions.add(joined.thenCompose(ignored -> client.connect(stompClient, config.wsUrl(), tokens.sign(client.userId, TOKEN_TTL_SECONDS)))
+                    .whenComplete((session, error) -> {
+                        if (error != null) {
+                            metrics.connectFailures.increment();
+                            log.debug("Session {} failed to connect: {}", client.userId, error.getMessage());
+                        }
+                    }));
+
+            next += interval;
+            LockSupport.parkNanos(next - System.nanoTime());
+            if ((i + 1) % 500 == 0) {
+                System.out.printf("  %d / %d sessions opened, %d connected%n",
+                        i + 1, config.sessions(), metrics.connected.sum());
+            }
+        }
+        try {
+            CompletableFuture.allOf(sessions.toArray(CompletableFuture[]::new)).get(30, TimeUnit.SECONDS);
+        } catch (Exception e) {
+            // Failures are counted per session
+        }
+        // Let the last SUBSCRIBE frames reach the broker before traffic starts
+        TimeUnit.SECONDS.sleep(1);
+        System.out.printf("Connected %d / %d sessions in %d ms (%d failed)%n", metrics.connected.sum(),
+                config.sessions(), (System.nanoTime() - start) / 1_000_000, metrics.connectFailures.sum());
+    }
+
+    private void drive(ScheduledExecutorService scheduler) throws InterruptedException {
+        double chatPerTick = config.chatRate() * TICK_MS / 1000.0;
+        double readyPerTick = config.readyRate() * TICK_MS / 1000.0;
+        double[] credit = new double[2];
+        long start = System.nanoTime();
+
+        scheduler.scheduleAtFixedRate(() -> {
+            try {
+                credit[0] += chatPerTick;
+                for (; credit[0] >= 1; credit[0]--) {
+                    clients.get(ThreadLocalRandom.current().nextInt(clients.size())).sendChat();
+                }
+                credit[1] += readyPerTick;
+                for (; credit[1] >= 1; credit[1]--) {
+                    toggleReady(rooms.get(ThreadLocalRandom.current().nextInt(rooms.size())));
+                }
+            } catch (RuntimeException e) {
+                log.warn("Traffic tick failed: {}", e.getMessage());
+            }
+        }, 0, TICK_MS, TimeUnit.MILLISECONDS);
+
+        scheduler.scheduleAtFixedRate(() -> System.out.printf(
+                "  %3d s  connected %d  chat sent %d received %d  fan-out p99 %.1f ms  ready toggles %d%n",
+                (System.nanoTime() - start) / 1_000_000_000L, metrics.connected.sum(), metrics.chatSent.sum(),
+                metrics.chatReceived.sum(), metrics.chatFanout.percentileMicros(0.99) / 1000.0,
+                metrics.readySent.sum()), PROGRESS_SECONDS, PROGRESS_SECONDS, TimeUnit.SECONDS);
+
+        TimeUnit.SECONDS.sleep(config.durationSeconds());
+        scheduler.shutdown();
+        scheduler.awaitTermination(5, TimeUnit.SECONDS);
+    }
+
+    private void toggleReady(SimRoom room) {
+        List<SimulatedClient> participants = room.participants;
+        if (participants.isEmpty()) {
+            return;
+        }
+        SimulatedClient client = participants.get(ThreadLocalRandom.current().nextInt(participants.size()));
+        boolean ready = client.toggleReady();
+        int owed = room.listeners.get();
+        room.readyRequested.put(SimRoom.readyKey(client.userId, ready), System.nanoTime());
+        metrics.readySent.increment();
+        metrics.readyExpected.add(owed);
+
+        long start = System.nanoTime();
+        request("PATCH", "/api/rooms/" + room.id + "/ready",
+                json(Map.of("userId", client.userId, "isReady", ready)))
+                .whenComplete((response, error) -> {
+                    metrics.readyRequest.recordNanos(System.nanoTime() - start);
+                    if (error != null) {
+                        // No event will follow
+                        metrics.readyFailed.increment();
+                        metrics.readyExpected.add(-owed);
+                    }
+                });
+    }
+
+    private void deleteRooms() {
+        List<CompletableFuture<HttpResponse<String>>> deleted = new ArrayList<>();
+        for (SimRoom room : rooms) {
+            deleted.add(request("DELETE", "/api/rooms/" + room.id + "?userId=" + room.hostId, null));
+        }
+        long failed = deleted.stream().filter(future -> {
+            try {
+                future.join();
+                return false;
+            } catch (RuntimeException e) {
+                return true;
+            }
+        }).count();
+        System.out.printf("Deleted %d rooms (%d failed)%n", rooms.size() - failed, failed);
+    }
+
+    private void report() {
+        long chatDropped = LoadMetrics.dropped(metrics.chatExpected, metrics.chatReceived);
+        long readyDropped = LoadMetrics.dropped(metrics.readyExpected, metrics.readyReceived);
+        System.out.println();
+        System.out.println("=== Load test report ===");
+        System.out.printf("Sessions        %d requested, %d connected at end, %d failed to connect, %d lost, "
+                        + "%d ERROR frames%n", config.sessions(), metrics.connected.sum(),
+                metrics.connectFailures.sum(), metrics.sessionsLost.sum(), metrics.errorFrames.sum());
+        System.out.printf("Connect latency %s%n", metrics.connectLatency.summary());
+        System.out.printf("Chat            %d sent (%.1f/s), %d deliveries expected, %d received, %d dropped (%s)%n",
+                metrics.chatSent.sum(), (double) metrics.chatSent.sum() / config.durationSeconds(),
+                metrics.chatExpected.sum(), metrics.chatReceived.sum(), chatDropped,
+                LoadMetrics.percent(chatDropped, metrics.chatExpected.sum()));
+        System.out.printf("Chat fan-out    %s%n", metrics.chatFanout.summary());
+        System.out.printf("Ready toggles   %d sent, %d failed, %d events expected, %d received, %d dropped (%s)%n",
+                metrics.readySent.sum(), metrics.readyFailed.sum(), metrics.readyExpected.sum(),
+                metrics.readyReceived.sum(), readyDropped,
+                LoadMetrics.percent(readyDropped, metrics.readyExpected.sum()));
+        System.out.printf("Ready request   %s%n", metrics.readyRequest.summary());
+        System.out.printf("Ready fan-out   %s%n", metrics.readyFanout.summary());
+        long frames = metrics.frames.sum();
+        System.out.printf("Frames          %d received, %d as CBOR, %.1f payload bytes on average%n",
+                frames, metrics.cborFrames.sum(), frames > 0 ? (double) metrics.frameBytes.sum() / frames : 0);
+        System.out.printf("HTTP failures   %d%n", metrics.httpFailures.sum());
+    }
+
+    // The backend encodes each broadcast in both formats while CBOR sessions are connected (totals since it started)
+    private void reportEncoding() {
+        try {
+            JsonNode stats = readJson(request("GET", "/api/stats/encoding", null).join());
+            System.out.printf("Server encoding %d payloads: JSON %d ns, CBOR %d ns on average; CBOR/JSON size %.3f%n",
+                    stats.path("encodedPayloads").asLong(), stats.path("avgJsonEncodeNanos").asLong(),
+                    stats.path("avgCborEncodeNanos").asLong(), stats.path("cborToJsonRatio").asDouble());
+        } catch (RuntimeException e) {
+            System.out.println("Server encoding stats unavailable: " + e.getMessage());
+        }
+    }
+
+    // At most HTTP_CONCURRENCY requests in flight; non-2xx responses complete exceptionally
+    private CompletableFuture<HttpResponse<String>> request(String method, String path, String body) {
+        HttpRequest.Builder builder = HttpRequest.newBuilder(config.httpUrl().resolve(path))
+                .timeout(Duration.ofSeconds(30))
+                .method(method, body != null
+                        ? HttpRequest.BodyPublishers.ofString(body)
+                        : HttpRequest.BodyPublishers.noBody());
+        if (body != null) {
+            builder.header("Content-Type", "application/json");
+        }
+        httpPermits.acquireUninterruptibly();
+        return http.sendAsync(builder.build(), HttpResponse.BodyHandlers.ofString())
+                .whenComplete((response, error) -> httpPermits.release())
+                .thenApply(response -> {
+                    if (response.statusCode() / 100 != 2) {
+                        metrics.httpFailures.increment();
+                        throw new IllegalStateException(method + " " + path + " returned " + response.statusCode()
+                                + ": " + response.body());
+                    }
+                    return response;
+                });
+    }
+
+    private String userId(int index) {
+        return "lt-" + runId + "-" + index;
+    }
+
+    private String json(Map<String, Object> value) {
+        try {
+            return mapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private JsonNode readJson(HttpResponse<String> response) {
+        try {
+            return mapper.readTree(response.body());
+        } catch (Exception e) {
+            throw new IllegalStateException("Unreadable response: " + response.body(), e);
+        }
+    }
+
+    private static String encode(String value) {
+        return URLEncoder.encode(value, StandardCharsets.UTF_8);
+    }
+}
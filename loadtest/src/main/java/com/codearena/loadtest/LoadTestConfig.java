@@ -0,0 +1,93 @@
+package com.codearena.loadtest;
+
+import java.net.URI;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Options from --name=value arguments; anything not given keeps its default.
+ */
+public record LoadTestConfig(
+        URI wsUrl,
+        URI httpUrl,
+        String jwtSecret,
+        int sessions,
+        int rooms,
+        int roomSize,
+        long problemId,
+        double connectRate,
+        double chatRate,
+        double readyRate,
+        int durationSeconds,
+        int drainSeconds,
+        boolean cleanup,
+        boolean cbor) {
+
+    public static final String USAGE = """
+            Usage: java -jar codearena-loadtest.jar [--name=value ...]
+              --url=ws://localhost:8080/ws-binary  STOMP endpoint (raw WebSocket, not SockJS)
+              --http=http://localhost:8080         REST base URL (default: derived from --url)
+              --jwt-secret=<base64>                The backend's jwt.secret, to sign session tokens
+                                                   (default: $JWT_SECRET; required)
+              --sessions=1000                      STOMP sessions to open
+              --rooms=100                          Rooms to create; sessions are spread over them round robin
+              --room-size=8                        Participants per room; later sessions only watch and chat
+              --problem-id=1                       Problem assigned to the rooms
+              --connect-rate=200                   New sessions per second while ramping up
+              --chat-rate=100                      Chat messages per second, over all sessions
+              --ready-rate=10                      Ready toggles per second, over all participants
+              --duration=60                        Seconds of traffic after the ramp-up
+              --drain=5                            Seconds to wait for in-flight frames before reporting
+              --cleanup=true                       Delete the rooms afterwards
+              --encoding=json                      Payload encoding asked for on CONNECT: json or cbor
+                                                   (cbor needs the raw /ws-binary endpoint)
+            """;
+
+    public static LoadTestConfig parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            if (!arg.startsWith("--") || !arg.contains("=")) {
+                throw new IllegalArgumentException("Expected --name=value, got " + arg);
+            }
+            int separator = arg.indexOf('=');
+            options.put(arg.substring(2, separator), arg.substring(separator + 1));
+        }
+
+        URI wsUrl = URI.create(options.getOrDefault("url", "ws://localhost:8080/ws-binary"));
+        String httpDefault = (wsUrl.getScheme().equals("wss") ? "https" : "http") + "://" + wsUrl.getAuthority();
+        LoadTestConfig config = new LoadTestConfig(
+                wsUrl,
+                URI.create(options.getOrDefault("http", httpDefault)),
+                options.getOrDefault("jwt-secret", System.getenv("JWT_SECRET")),
+                Integer.parseInt(options.getOrDefault("sessions", "1000")),
+                Integer.parseInt(options.getOrDefault("rooms", "100")),
+                Integer.parseInt(options.getOrDefault("room-size", "8")),
+                Long.parseLong(options.getOrDefault("problem-id", "1")),
+                Double.parseDouble(options.getOrDefault("connect-rate", "200")),
+                Double.parseDouble(options.getOrDefault("chat-rate", "100")),
+                Double.parseDouble(options.getOrDefault("ready-rate", "10")),
+                Integer.parseInt(options.getOrDefault("duration", "60")),
+                Integer.parseInt(options.getOrDefault("drain", "5")),
+                Boolean.parseBoolean(options.getOrDefault("cleanup", "true")),
+                encoding(options.getOrDefault("encoding", "json")));
+
+        if (config.jwtSecret == null || config.jwtSecret.isEmpty()) {
+            throw new IllegalArgumentException("--jwt-secret (or JWT_SECRET) is required: sessions must authenticate");
+        }
+        if (config.sessions < 1 || config.rooms < 1 || config.rooms > config.sessions) {
+            throw new IllegalArgumentException("Need at least one session per room");
+        }
+        if (config.roomSize < 1 || config.connectRate <= 0 || config.durationSeconds < 1) {
+            throw new IllegalArgumentException("room-size, connect-rate and duration must be positive");
+        }
+        return config;
+    }
+
+    private static boolean encoding(String value) {
+        return switch (value.toLowerCase()) {
+            case "json" -> false;
+            case "cbor" -> true;
+            default -> throw new IllegalArgumentException("--encoding must be json or cbor, got " + value);
+        };
+    }
+}
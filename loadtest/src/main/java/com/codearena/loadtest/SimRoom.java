@@ -0,0 +1,32 @@
+package com.codearena.loadtest;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A room created for the run, and the simulated clients in it.
+ */
+class SimRoom {
+
+    final String id;
+    final String hostId;
+
+    // Sessions currently subscribed to the room's topics; each is owed a copy of every broadcast
+    final AtomicInteger listeners = new AtomicInteger();
+    final List<SimulatedClient> participants = new CopyOnWriteArrayList<>();
+
+    // userId|ready -> System.nanoTime() of the request, for event fan-out latency
+    final Map<String, Long> readyRequested = new ConcurrentHashMap<>();
+
+    SimRoom(String id, String hostId) {
+        this.id = id;
+        this.hostId = hostId;
+    }
+
+    static String readyKey(String userId, boolean ready) {
+        return userId + '|' + ready;
+    }
+}
@@ -0,0 +1,209 @@
+package com.codearena.loadtest;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.messaging.simp.stomp.ConnectionLostException;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+
+import java.io.IOException;
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * One simulated user: a STOMP session subscribed to its room's chat and
+ * event topics, sending chat when told to.
+ *
+ * Chat content carries the sender's System.nanoTime(), so every receiving
+ * session in this JVM can time the fan-out from send to delivery. Given a CBOR
+ * mapper, the client asks for CBOR payloads on CONNECT and reads frames marked
+ * as CBOR with it.
+ */
+@Slf4j
+class SimulatedClient extends StompSessionHandlerAdapter {
+
+    private static final String CHAT_PREFIX = "lt:";
+    private static final String PAYLOAD_ENCODING = "payload-encoding";
+
+    final String userId;
+    final SimRoom room;
+    final boolean participant;
+
+    private final LoadMetrics metrics;
+    private final ObjectMapper mapper;
+    private final ObjectMapper cborMapper;
+    private final AtomicBoolean listening = new AtomicBoolean();
+
+    private volatile StompSession session;
+    private volatile boolean ready;
+    private long connectStart;
+
+    SimulatedClient(String userId, SimRoom room, boolean participant, LoadMetrics metrics, ObjectMapper mapper,
+            ObjectMapper cborMapper) {
+        this.userId = userId;
+        this.room = room;
+        this.participant = participant;
+        this.metrics = metrics;
+        this.mapper = mapper;
+        this.cborMapper = cborMapper;
+    }
+
+    CompletableFuture<StompSession> connect(WebSocketStompClient client, URI url, String token) {
+        StompHeaders headers = new StompHeaders();
+        headers.add("Authorization", "Bearer " + token);
+        if (cborMapper != null) {
+            headers.add(PAYLOAD_ENCODING, "cbor");
+        }
+        connectStart = System.nanoTime();
+        return client.connectAsync(url, null, headers, this);
+    }
+
+    boolean isConnected() {
+        StompSession current = session;
+        return current != null && current.isConnected();
+    }
+
+    /**
+     * Flip the ready flag this client will ask for next
+     */
+    boolean toggleReady() {
+        ready = !ready;
+        return ready;
+    }
+
+    void sendChat() {
+        StompSession current = session;
+        if (current == null || !current.isConnected()) {
+            return;
+        }
+        StompHeaders headers = new StompHeaders();
+        headers.setDestination("/app/chat.send/" + room.id);
+        headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+        String body = "{\"senderName\":\"" + userId + "\",\"content\":\"" + CHAT_PREFIX + System.nanoTime() + "\"}";
+        // Owed to everyone listening right now, the sender included
+        metrics.chatExpected.add(room.listeners.get());
+        metrics.chatSent.increment();
+        try {
+            current.send(headers, body.getBytes(StandardCharsets.UTF_8));
+        } catch (RuntimeException e) {
+            metrics.chatExpected.add(-room.listeners.get());
+            log.debug("Chat send from {} failed: {}", userId, e.getMessage());
+        }
+    }
+
+    void disconnect() {
+        StompSession current = session;
+        if (current != null && current.isConnected()) {
+            stopListening();
+            current.disconnect();
+        }
+    }
+
+    @Override
+    public void afterConnected(StompSession session, StompHeaders connectedHeaders) {
+        this.session = session;
+        metrics.connectLatency.recordNanos(System.nanoTime() - connectStart);
+        metrics.connected.increment();
+        session.subscribe("/topic/room/" + room.id, frames(this::onChat));
+        session.subscribe("/topic/room/" + room.id + "/events", frames(this::onEvent));
+        listening.set(true);
+        room.listeners.incrementAndGet();
+    }
+
+    @Override
+    public Type getPayloadType(StompHeaders headers) {
+        return byte[].class;
+    }
+
+    @Override
+    public void handleFrame(StompHeaders headers, Object payload) {
+        // Only ERROR frames reach the session handler
+        metrics.errorFrames.increment();
+        log.debug("ERROR frame for {}: {}", userId, headers.getFirst("message"));
+    }
+
+    @Override
+    public void handleException(StompSession session, StompCommand command, StompHeaders headers,
+            byte[] payload, Throwable exception) {
+        log.debug("Frame for {} could not be handled: {}", userId, exception.getMessage());
+    }
+
+    @Override
+    public void handleTransportError(StompSession session, Throwable exception) {
+        if (exception instanceof ConnectionLostException && stopListening()) {
+            metrics.sessionsLost.increment();
+            metrics.connected.decrement();
+        }
+        log.debug("Transport error for {}: {}", userId, exception.getMessage());
+    }
+
+    private boolean stopListening() {
+        if (listening.compareAndSet(true, false)) {
+            room.listeners.decrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private void onChat(JsonNode message) {
+        String content = message.path("content").asText("");
+        if (!content.startsWith(CHAT_PREFIX)) {
+            return;
+        }
+        metrics.chatReceived.increment();
+        metrics.chatFanout.recordNanos(System.nanoTime() - Long.parseLong(content.substring(CHAT_PREFIX.length())));
+    }
+
+    private void onEvent(JsonNode event) {
+        if (!"READY_CHANGED".equals(event.path("type").asText())) {
+            return;
+        }
+        metrics.readyReceived.increment();
+        Long requested = room.readyRequested.get(
+                SimRoom.readyKey(event.path("userId").asText(), event.path("ready").asBoolean()));
+        if (requested != null) {
+            metrics.readyFanout.recordNanos(System.nanoTime() - requested);
+        }
+    }
+
+    // Rooms with coalescing on send a JSON array per frame
+    private StompFrameHandler frames(Consumer<JsonNode> handler) {
+        return new StompFrameHandler() {
+            @Override
+            public Type getPayloadType(StompHeaders headers) {
+                return byte[].class;
+            }
+
+            @Override
+            public void handleFrame(StompHeaders headers, Object payload) {
+                byte[] bytes = (byte[]) payload;
+                boolean cbor = cborMapper != null && "cbor".equals(headers.getFirst(PAYLOAD_ENCODING));
+                metrics.frames.increment();
+                metrics.frameBytes.add(bytes.length);
+                if (cbor) {
+                    metrics.cborFrames.increment();
+                }
+                try {
+                    JsonNode body = (cbor ? cborMapper : mapper).readTree(bytes);
+                    if (body.isArray()) {
+                        body.forEach(handler);
+                    } else {
+                        handler.accept(body);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.debug("Unreadable frame for {}: {}", userId, e.getMessage());
+                }
+            }
+        };
+    }
+}
@@ -0,0 +1,38 @@
+package com.codearena.loadtest;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.util.Base64;
+
+/**
+ * HS256 tokens for simulated users, signed with the backend's jwt.secret so
+ * STOMP sessions authenticate on CONNECT like real clients.
+ */
+class TokenSigner {
+
+    private static final Base64.Encoder URL = Base64.getUrlEncoder().withoutPadding();
+    private static final String HEADER = URL.encodeToString(
+            "{\"alg\":\"HS256\",\"typ\":\"JWT\"}".getBytes(StandardCharsets.UTF_8));
+
+    private final SecretKeySpec key;
+
+    TokenSigner(String base64Secret) {
+        this.key = new SecretKeySpec(Base64.getDecoder().decode(base64Secret), "HmacSHA256");
+    }
+
+    String sign(String userId, long ttlSeconds) {
+        long now = System.currentTimeMillis() / 1000;
+        String claims = "{\"sub\":\"" + userId + "\",\"iat\":" + now + ",\"exp\":" + (now + ttlSeconds)
+                + ",\"user_metadata\":{\"username\":\"" + userId + "\"}}";
+        String payload = HEADER + "." + URL.encodeToString(claims.getBytes(StandardCharsets.UTF_8));
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return payload + "." + URL.encodeToString(mac.doFinal(payload.getBytes(StandardCharsets.US_ASCII)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("Cannot sign tokens", e);
+        }
+    }
+}